@@ -0,0 +1,197 @@
+package org.minecraftsmp.dynamicshop.bench;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.minecraftsmp.dynamicshop.managers.ConfigCacheManager;
+import org.minecraftsmp.dynamicshop.managers.MessageManager;
+import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
+import org.minecraftsmp.dynamicshop.transactions.Transaction;
+import org.minecraftsmp.dynamicshop.transactions.TransactionLogger;
+import org.minecraftsmp.dynamicshop.transactions.TransactionRing;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Headless setup for the benchmarks.
+ *
+ * There is no server and no plugin instance: the managers run with
+ * {@code plugin == null}, so the journal, writer and scheduler tasks are never
+ * created and every mutation stays in memory. Bukkit value types (Material,
+ * YamlConfiguration) come straight from paper-api. The few pieces that are
+ * normally filled in from the server (category lists, messages.yml, the recent
+ * transaction bound) are set through reflection.
+ */
+public final class BenchSupport {
+
+    private BenchSupport() {
+    }
+
+    // ------------------------------------------------------------------------
+    // SHOP DATA
+    // ------------------------------------------------------------------------
+
+    /**
+     * Default pricing settings from config.yml.
+     */
+    public static void configureDefaults() {
+        ConfigCacheManager.dynamicPricingEnabled = true;
+        ConfigCacheManager.useStockCurve = true;
+        ConfigCacheManager.curveStrength = 0.7;
+        ConfigCacheManager.maxStock = 500.0;
+        ConfigCacheManager.minPriceMultiplier = 0.5;
+        ConfigCacheManager.maxPriceMultiplier = 2.0;
+        ConfigCacheManager.negativeStockPercentPerItem = 5.0;
+        ConfigCacheManager.useTimeInflation = true;
+        ConfigCacheManager.hourlyIncreasePercent = 2.0;
+        ConfigCacheManager.shortageDecayPercentPerHour = 2.0;
+        ConfigCacheManager.sellTaxPercent = 0.30;
+        ConfigCacheManager.logDynamicPricing = false;
+        ConfigCacheManager.generation++;
+    }
+
+    /**
+     * Every non-legacy material, in declaration order.
+     */
+    public static List<Material> shopMaterials() {
+        List<Material> result = new ArrayList<>();
+        for (Material mat : Material.values()) {
+            if (!mat.name().startsWith("LEGACY_")) {
+                result.add(mat);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Register every shop material with a plain config and rebuild the
+     * category lists, as {@code ShopDataManager.init} would.
+     */
+    public static List<Material> populateShop() {
+        configureDefaults();
+        ShopDataManager.itemConfigs.clear();
+
+        List<Material> materials = shopMaterials();
+        for (int i = 0; i < materials.size(); i++) {
+            // a few disabled entries so getItemsInCategory has something to filter
+            double basePrice = i % 50 == 0 ? -1.0 : 10.0 + (i % 17);
+            ShopDataManager.itemConfigs.put(materials.get(i), new ShopDataManager.ShopItemConfig(
+                    basePrice, null, null, null, null, false, false, null, null));
+        }
+
+        invokeStatic(ShopDataManager.class, "buildCategoryLists");
+        return materials;
+    }
+
+    /**
+     * Drop cached category detections so the next lookup runs the name matching.
+     */
+    public static void clearCategoryCache() {
+        ((Map<?, ?>) getStatic(ShopDataManager.class, "categoryCache")).clear();
+    }
+
+    // ------------------------------------------------------------------------
+    // MESSAGES
+    // ------------------------------------------------------------------------
+
+    /**
+     * A MessageManager backed by the bundled messages.yml, without a plugin.
+     */
+    public static MessageManager messageManager() {
+        YamlConfiguration config;
+        try (InputStream in = ShopDataManager.class.getClassLoader().getResourceAsStream("messages.yml")) {
+            if (in == null) {
+                throw new IllegalStateException("messages.yml not found on the classpath");
+            }
+            config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        MessageManager manager = new MessageManager(null);
+        setField(manager, "messagesConfig", config);
+        return manager;
+    }
+
+    // ------------------------------------------------------------------------
+    // TRANSACTIONS
+    // ------------------------------------------------------------------------
+
+    /**
+     * A TransactionLogger holding at most {@code maxRecent} entries, without a
+     * plugin (no files, no transaction bus). Feed it through
+     * {@link #memoryAppender}; log() would only hold transactions for a bus
+     * that never starts.
+     */
+    public static TransactionLogger transactionLogger(int maxRecent) {
+        TransactionLogger logger = new TransactionLogger(null);
+        setField(logger, "maxRecent", maxRecent);
+        setField(logger, "recent", new TransactionRing(maxRecent));
+        return logger;
+    }
+
+    /**
+     * The in-memory append the bus thread runs for each transaction (ring,
+     * running totals, indexes), called directly on {@code logger}.
+     */
+    public static Consumer<Transaction> memoryAppender(TransactionLogger logger) {
+        MethodHandle append;
+        try {
+            append = MethodHandles.privateLookupIn(TransactionLogger.class, MethodHandles.lookup())
+                    .findVirtual(TransactionLogger.class, "append", MethodType.methodType(void.class, Transaction.class))
+                    .bindTo(logger);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot call TransactionLogger.append", e);
+        }
+        return tx -> {
+            try {
+                append.invokeExact(tx);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------------
+    // REFLECTION
+    // ------------------------------------------------------------------------
+    private static void invokeStatic(Class<?> type, String name) {
+        try {
+            Method method = type.getDeclaredMethod(name);
+            method.setAccessible(true);
+            method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot call " + type.getSimpleName() + "." + name, e);
+        }
+    }
+
+    private static Object getStatic(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + type.getSimpleName() + "." + name, e);
+        }
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + target.getClass().getSimpleName() + "." + name, e);
+        }
+    }
+}
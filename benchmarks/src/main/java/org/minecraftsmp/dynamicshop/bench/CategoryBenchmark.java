@@ -0,0 +1,72 @@
+package org.minecraftsmp.dynamicshop.bench;
+
+import org.bukkit.Material;
+import org.minecraftsmp.dynamicshop.category.ItemCategory;
+import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category detection and the per-page category listing.
+ *
+ * detectCategoryCached is the steady state (every material already cached);
+ * detectCategoryUncached clears the cache and runs the name matching for every
+ * material (one sweep per operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Page {
+        @Param({"MISC", "BLOCKS", "TOOLS", "FOOD"})
+        public ItemCategory category;
+    }
+
+    private Material[] materials;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Material> list = BenchSupport.populateShop();
+        materials = list.toArray(new Material[0]);
+    }
+
+    @Benchmark
+    public ItemCategory detectCategoryCached() {
+        Material mat = materials[next];
+        next = next + 1 == materials.length ? 0 : next + 1;
+        return ShopDataManager.detectCategory(mat);
+    }
+
+    @Benchmark
+    public void detectCategoryUncached(Blackhole bh) {
+        BenchSupport.clearCategoryCache();
+        for (Material mat : materials) {
+            bh.consume(ShopDataManager.detectCategory(mat));
+        }
+    }
+
+    @Benchmark
+    public List<Material> getItemsInCategory(Page page) {
+        return ShopDataManager.getItemsInCategory(page.category);
+    }
+}
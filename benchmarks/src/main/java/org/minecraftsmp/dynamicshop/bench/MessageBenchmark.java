@@ -0,0 +1,51 @@
+package org.minecraftsmp.dynamicshop.bench;
+
+import org.minecraftsmp.dynamicshop.managers.MessageManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageManager.getMessage as the shop listener calls it after a purchase:
+ * a fresh placeholder map with the item and formatted price.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageBenchmark {
+
+    private MessageManager messages;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messages = BenchSupport.messageManager();
+    }
+
+    @Benchmark
+    public String purchaseSuccess() {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("item", "Diamond");
+        placeholders.put("price", "$1,234.50");
+        return messages.getMessage("purchase-success", placeholders);
+    }
+
+    @Benchmark
+    public String noPlaceholders() {
+        return messages.getMessage("no-permission");
+    }
+}
@@ -0,0 +1,76 @@
+package org.minecraftsmp.dynamicshop.bench;
+
+import org.bukkit.Material;
+import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getTotalBuyCost / getTotalSellValue in each region of the price curve.
+ *
+ * NEGATIVE: stock below zero with 12h of shortage (exponential + inflation),
+ * MID: inside the linear curve, HIGH: above maxStock (flat). amount = 1 is the
+ * unit price shown in the GUI and goes through the quote cache; larger amounts
+ * always integrate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+
+    public enum Region {
+        NEGATIVE(-50.0, 12.0),
+        MID(250.0, 0.0),
+        HIGH(800.0, 0.0);
+
+        final double stock;
+        final double shortageHours;
+
+        Region(double stock, double shortageHours) {
+            this.stock = stock;
+            this.shortageHours = shortageHours;
+        }
+    }
+
+    @Param({"NEGATIVE", "MID", "HIGH"})
+    public Region region;
+
+    @Param({"1", "64"})
+    public int amount;
+
+    private Material mat;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.populateShop();
+        mat = Material.DIAMOND;
+
+        ShopDataManager.setStockDirect(mat, region.stock);
+        ShopDataManager.setHoursInShortage(mat, region.shortageHours);
+    }
+
+    @Benchmark
+    public double buyCost() {
+        return ShopDataManager.getTotalBuyCost(mat, amount);
+    }
+
+    @Benchmark
+    public double sellValue() {
+        return ShopDataManager.getTotalSellValue(mat, amount);
+    }
+}
@@ -0,0 +1,80 @@
+package org.minecraftsmp.dynamicshop.bench;
+
+import org.minecraftsmp.dynamicshop.transactions.Transaction;
+import org.minecraftsmp.dynamicshop.transactions.TransactionLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The in-memory append behind TransactionLogger.log, and getRecentTransactions,
+ * with a full in-memory buffer of {@code size} entries
+ * (logging.max_recent_transactions).
+ *
+ * log() measures the steady state where every append also evicts the oldest
+ * entry. No transaction bus is started; the benchmark calls the append the bus
+ * thread does for each transaction directly, without any disk writes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TransactionLoggerBenchmark {
+
+    private static final String[] PLAYERS = {"Steve", "Alex", "Notch", "Jeb", "Dinnerbone"};
+    private static final String[] ITEMS = {"DIAMOND", "IRON_INGOT", "OAK_LOG", "BREAD", "REDSTONE"};
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private TransactionLogger logger;
+    private Consumer<Transaction> append;
+    private Transaction[] samples;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        logger = BenchSupport.transactionLogger(size);
+        append = BenchSupport.memoryAppender(logger);
+        samples = new Transaction[1024];
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new Transaction(start.plusSeconds(i),
+                    PLAYERS[i % PLAYERS.length],
+                    i % 3 == 0 ? Transaction.TransactionType.SELL : Transaction.TransactionType.BUY,
+                    ITEMS[i % ITEMS.length], 1 + i % 64, 10.0 + i, "MISC", "");
+        }
+
+        for (int i = 0; i < size; i++) {
+            append.accept(samples[i & (samples.length - 1)]);
+        }
+    }
+
+    @Benchmark
+    public void log() {
+        append.accept(samples[next]);
+        next = (next + 1) & (samples.length - 1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Transaction> getRecentTransactions() {
+        return logger.getRecentTransactions();
+    }
+}
@@ -41,6 +41,7 @@ public class DynamicShop extends JavaPlugin {
     private org.minecraftsmp.dynamicshop.listeners.ChatInputListener chatInputListener;
     private org.minecraftsmp.dynamicshop.managers.InputManager inputManager;
     private RestockManager restockManager;
+    private PriceHistoryManager priceHistoryManager;
     private org.minecraftsmp.dynamicshop.gui.ShopDialogManager shopDialogManager;
 
     private static DynamicShop instance;
@@ -96,6 +97,10 @@ public class DynamicShop extends JavaPlugin {
         restockManager = new RestockManager(this);
         restockManager.init();
 
+        // Sample quoted prices for the price history
+        priceHistoryManager = new PriceHistoryManager(this);
+        priceHistoryManager.init();
+
         // Auto-populate restock config section for existing servers
         if (!getConfig().isSet("restock")) {
             getConfig().set("restock.enabled", false);
@@ -286,6 +291,11 @@ public class DynamicShop extends JavaPlugin {
             restockManager.shutdown();
         }
 
+        // Stop sampling and save the price history
+        if (priceHistoryManager != null) {
+            priceHistoryManager.shutdown();
+        }
+
         // Flush queue before shutdown to save all pending updates
         // Only attempt if ShopDataManager was initialized
         if (ShopDataManager.isInitialized()) {
@@ -308,9 +318,9 @@ public class DynamicShop extends JavaPlugin {
         if (webServer != null) {
             webServer.stop();
         }
-        // Final save - only if initialized
+        // Final save - only if initialized (blocks until the store is written)
         if (ShopDataManager.isInitialized()) {
-            ShopDataManager.saveDynamicData();
+            ShopDataManager.shutdown();
         }
 
         // Save category config
@@ -336,6 +346,12 @@ public class DynamicShop extends JavaPlugin {
         if (restockManager != null) {
             restockManager.reload();
         }
+        if (priceHistoryManager != null) {
+            priceHistoryManager.reload();
+        }
+        if (webServer != null) {
+            webServer.invalidateShopItemsCache(); // category names may have changed
+        }
         initializeShopDialogManager();
     }
 
@@ -394,6 +410,10 @@ public class DynamicShop extends JavaPlugin {
         return restockManager;
     }
 
+    public PriceHistoryManager getPriceHistoryManager() {
+        return priceHistoryManager;
+    }
+
     public static DynamicShop getInstance() {
         return instance;
     }
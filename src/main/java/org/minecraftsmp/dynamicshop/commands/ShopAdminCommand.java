@@ -163,7 +163,6 @@ public class ShopAdminCommand implements CommandExecutor, TabCompleter {
                         plugin.getSpecialShopManager().reload();
                         sender.sendMessage("§a[DynamicShop] §fDisplay name for §e" + specialId + " §fset to: §e" + newName);
                     }
-                    if (plugin.getWebServer() != null) plugin.getWebServer().invalidateShopItemsCache();
                     return true;
                 }
 
@@ -181,7 +180,6 @@ public class ShopAdminCommand implements CommandExecutor, TabCompleter {
                     ShopDataManager.setCustomName(mat, newName);
                     sender.sendMessage("§a[DynamicShop] §fDisplay name for §e" + mat.name() + " §fset to: §e" + newName);
                 }
-                if (plugin.getWebServer() != null) plugin.getWebServer().invalidateShopItemsCache();
                 return true;
             }
 
@@ -211,7 +209,7 @@ public class ShopAdminCommand implements CommandExecutor, TabCompleter {
                 // Update config and cache
                 plugin.getConfig().set("dynamic-pricing.hourly-increase-percent", percent);
                 plugin.saveConfig();
-                ConfigCacheManager.hourlyIncreasePercent = percent;
+                ConfigCacheManager.reload(); // bumps generation so cached kernels and schedules pick up the rate
 
                 sender.sendMessage("§a[DynamicShop] §fHourly price inflation set to §e" + percent + "% §fper hour.");
                 return true;
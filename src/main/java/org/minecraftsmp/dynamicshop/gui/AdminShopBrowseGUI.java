@@ -11,6 +11,8 @@ import org.minecraftsmp.dynamicshop.category.ItemCategory;
 import org.minecraftsmp.dynamicshop.category.SpecialShopItem;
 import org.minecraftsmp.dynamicshop.managers.ItemsAdderWrapper;
 import org.minecraftsmp.dynamicshop.managers.NexoWrapper;
+import org.minecraftsmp.dynamicshop.managers.PriceQuoteBatch;
+import org.minecraftsmp.dynamicshop.managers.QuoteKind;
 import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
 import org.minecraftsmp.dynamicshop.util.ShopItemBuilder;
 import org.minecraftsmp.dynamicshop.managers.MessageManager;
@@ -109,11 +111,14 @@ public class AdminShopBrowseGUI {
             int start = page * ITEMS_PER_PAGE;
             int end = Math.min(start + ITEMS_PER_PAGE, totalCombined);
 
+            int regularEnd = Math.min(end, items.size());
+            PriceQuoteBatch quotes = ShopDataManager.quoteBatch(
+                    start < regularEnd ? items.subList(start, regularEnd) : List.of(), QuoteKind.STOCK);
+
             for (int i = start; i < end; i++) {
                 int slot = i - start;
                 if (i < items.size()) {
-                    Material mat = items.get(i);
-                    inventory.setItem(slot, buildAdminItem(mat));
+                    inventory.setItem(slot, buildAdminItem(quotes, i - start));
                 } else {
                     int specialIdx = i - items.size();
                     SpecialShopItem sItem = specialItems.get(specialIdx);
@@ -178,10 +183,11 @@ public class AdminShopBrowseGUI {
         return item;
     }
 
-    private ItemStack buildAdminItem(Material mat) {
-        double basePrice = ShopDataManager.getBasePrice(mat);
-        double stock = ShopDataManager.getStock(mat);
-        boolean disabled = ShopDataManager.isItemDisabled(mat);
+    private ItemStack buildAdminItem(PriceQuoteBatch quotes, int index) {
+        Material mat = quotes.material(index);
+        double basePrice = quotes.basePrice(index);
+        double stock = quotes.stock(index);
+        boolean disabled = basePrice < 0;
         ItemCategory category = ShopDataManager.detectCategory(mat);
 
         ItemStack item;
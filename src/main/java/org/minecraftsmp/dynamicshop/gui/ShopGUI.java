@@ -11,6 +11,8 @@ import org.minecraftsmp.dynamicshop.category.ItemCategory;
 import org.minecraftsmp.dynamicshop.category.SpecialShopItem;
 import org.minecraftsmp.dynamicshop.managers.ItemsAdderWrapper;
 import org.minecraftsmp.dynamicshop.managers.NexoWrapper;
+import org.minecraftsmp.dynamicshop.managers.PriceQuoteBatch;
+import org.minecraftsmp.dynamicshop.managers.QuoteKind;
 import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
 import org.minecraftsmp.dynamicshop.managers.ProtocolShopManager;
 import org.minecraftsmp.dynamicshop.managers.MessageManager;
@@ -19,6 +21,7 @@ import org.minecraftsmp.dynamicshop.util.ShopItemBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class ShopGUI {
@@ -164,13 +167,17 @@ public class ShopGUI {
             int start = page * itemsPerPage;
             int end = Math.min(start + itemsPerPage, totalCombined);
 
+            // Price every regular item on this page in one pass
+            int regularEnd = Math.min(end, displayItems.size());
+            PriceQuoteBatch quotes = ShopDataManager.quoteBatch(
+                    start < regularEnd ? displayItems.subList(start, regularEnd) : List.of(), QuoteKind.PRICES);
+
             for (int i = start; i < end; i++) {
                 int slot = itemSlots[i - start];
 
                 if (i < displayItems.size()) {
                     // Regular item
-                    Material mat = displayItems.get(i);
-                    ItemStack displayItem = buildShopItem(mat);
+                    ItemStack displayItem = buildShopItem(quotes, i - start);
                     pm.sendSlot(inventory, slot, displayItem);
                 } else {
                     // Special item (enchanted variant, etc.)
@@ -186,6 +193,43 @@ public class ShopGUI {
         renderNavigation();
     }
 
+    /**
+     * Re-render only the slots on the current page that show one of the given
+     * items or variants (their prices moved since the page was drawn).
+     */
+    public void refreshPrices(Set<Material> materials, Set<String> variantIds) {
+        boolean specialOnly = category == ItemCategory.PERMISSIONS || category == ItemCategory.SERVER_SHOP;
+        List<Material> regular = specialOnly ? List.of() : displayItems;
+        int start = page * itemsPerPage;
+        int end = Math.min(start + itemsPerPage, regular.size() + specialItems.size());
+
+        List<Material> changed = new ArrayList<>();
+        List<Integer> changedSlots = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            int slot = itemSlots[i - start];
+            if (i < regular.size()) {
+                Material mat = regular.get(i);
+                if (materials.contains(mat)) {
+                    changed.add(mat);
+                    changedSlots.add(slot);
+                }
+            } else {
+                SpecialShopItem specialItem = specialItems.get(i - regular.size());
+                if (variantIds.contains(specialItem.getId())
+                        || (specialItem.getDisplayMaterial() != null && materials.contains(specialItem.getDisplayMaterial()))) {
+                    pm.sendSlot(inventory, slot, buildSpecialShopItem(specialItem));
+                }
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            PriceQuoteBatch quotes = ShopDataManager.quoteBatch(changed, QuoteKind.PRICES);
+            for (int k = 0; k < quotes.size(); k++) {
+                pm.sendSlot(inventory, changedSlots.get(k), buildShopItem(quotes, k));
+            }
+        }
+    }
+
     private void updateDisplayItems() {
         if (allItems == null) {
             displayItems = List.of();
@@ -436,10 +480,11 @@ public class ShopGUI {
     }
 
     // build the item with lore
-    private ItemStack buildShopItem(Material mat) {
-        double price = ShopDataManager.getTotalBuyCost(mat, 1);
-        double sellPrice = ShopDataManager.getTotalSellValue(mat, 1);
-        double stock = ShopDataManager.getStock(mat);
+    private ItemStack buildShopItem(PriceQuoteBatch quotes, int index) {
+        Material mat = quotes.material(index);
+        double price = quotes.buy(index);
+        double sellPrice = quotes.sell(index);
+        double stock = quotes.stock(index);
 
         ItemStack item;
         try {
@@ -512,8 +557,7 @@ public class ShopGUI {
                             plugin.getMessageManager().getMessage("lore-stock-negative", stockPlaceholders));
 
                     // Show price increase for negative stock too
-                    double hours = ShopDataManager.getHoursInShortage(mat);
-                    double percentIncrease = ShopDataManager.getInflationIncreasePercent(hours);
+                    double percentIncrease = quotes.inflationPercent(index);
                     double maxPercent = (ConfigCacheManager.maxPriceMultiplier - 1.0) * 100.0;
                     boolean capped = percentIncrease >= maxPercent;
                     if (capped) percentIncrease = maxPercent;
@@ -529,8 +573,7 @@ public class ShopGUI {
                     MessageManager.addLoreIfNotEmpty(lore, plugin.getMessageManager().getMessage("lore-out-of-stock"));
 
                     // Show price increase for zero stock
-                    double hours = ShopDataManager.getHoursInShortage(mat);
-                    double percentIncrease = ShopDataManager.getInflationIncreasePercent(hours);
+                    double percentIncrease = quotes.inflationPercent(index);
                     double maxPercent = (ConfigCacheManager.maxPriceMultiplier - 1.0) * 100.0;
                     boolean capped = percentIncrease >= maxPercent;
                     if (capped) percentIncrease = maxPercent;
@@ -79,6 +79,16 @@ public class ShopListener implements Listener {
         openSearch.remove(p);
     }
 
+    /**
+     * Re-render the given items in every open shop page. Called by the
+     * inflation schedule when their prices have moved.
+     */
+    public void refreshPrices(Set<Material> materials, Set<String> variantIds) {
+        for (ShopGUI gui : openShop.values()) {
+            gui.refreshPrices(materials, variantIds);
+        }
+    }
+
     public void clear(Player p) {
         openShop.remove(p);
         openCategory.remove(p);
@@ -56,6 +56,13 @@ public class ConfigCacheManager {
     public static boolean crossServerEnabled = false;
     public static int crossServerSaveInterval = 600;
 
+    // STORAGE SETTINGS
+    public static String storageType = "yaml";
+    public static int journalCompactSizeKb = 4096;
+
+    // Bumped after every (re)load so compiled pricing kernels know to rebuild
+    public static volatile int generation = 0;
+
     public static void init(DynamicShop pluginInstance) {
         plugin = pluginInstance;
         loadAll();
@@ -76,6 +83,8 @@ public class ConfigCacheManager {
         loadLoggingSettings();
         loadPlayerShopSettings();
         loadCrossServerSettings();
+        loadStorageSettings();
+        generation++;
     }
 
     private static void loadEconomySettings() {
@@ -166,4 +175,9 @@ public class ConfigCacheManager {
         crossServerEnabled = plugin.getConfig().getBoolean("cross-server.enabled", false);
         crossServerSaveInterval = plugin.getConfig().getInt("cross-server.save-interval-seconds", 600);
     }
+
+    private static void loadStorageSettings() {
+        storageType = plugin.getConfig().getString("storage.type", "yaml");
+        journalCompactSizeKb = plugin.getConfig().getInt("storage.journal-compact-size-kb", 4096);
+    }
 }
@@ -176,7 +176,7 @@ public class EmbeddedP2PManager {
     // SEND FULL SYNC
     // --------------------------------------------------------------------
     private void sendFullSync(long tx) {
-        for (Material mat : ShopDataManager.stockMap.keySet()) {
+        for (Material mat : ShopDataManager.getAllTrackedMaterials()) {
             double stock = ShopDataManager.getStock(mat);
             double purchases = ShopDataManager.getPurchases(mat);
             publishStock(mat, stock, purchases, tx);
@@ -0,0 +1,190 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Min-heap of items ordered by the next time their shortage inflation
+ * multiplier moves by {@link #STEP}. Only items at the top of the heap need to
+ * be re-priced and re-rendered; everything else is still showing a price within
+ * the step of its live value.
+ *
+ * Rescheduling pushes a new entry and leaves the old one in the heap. Stale
+ * entries are recognised by comparing against the per-item due time and are
+ * dropped when popped, or all at once when they outnumber live entries.
+ *
+ * Writers are the main thread and the P2P receiver thread, so every method
+ * synchronizes on the schedule.
+ */
+final class InflationSchedule {
+
+    /**
+     * Relative multiplier change that counts as a new price (0.5%).
+     */
+    static final double STEP = 0.005;
+
+    static final long NEVER = Long.MAX_VALUE;
+
+    private record Entry(long due, Material mat, String variantId) {
+    }
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingLong(Entry::due));
+    private final long[] due = new long[Material.values().length];
+    private final Map<String, Long> variantDue = new HashMap<>();
+    private int live;
+
+    // ------------------------------------------------------------------------
+    // SCHEDULING
+    // ------------------------------------------------------------------------
+    synchronized void schedule(Material mat, long at) {
+        int slot = mat.ordinal();
+        long current = due[slot];
+        if (current == at || (current == 0 && at == NEVER)) {
+            return;
+        }
+
+        if (at == NEVER) {
+            due[slot] = 0;
+            live--;
+            return;
+        }
+        if (current == 0) {
+            live++;
+        }
+        due[slot] = at;
+        push(new Entry(at, mat, null));
+    }
+
+    synchronized void scheduleVariant(String variantId, long at) {
+        Long current = variantDue.get(variantId);
+        if ((current != null && current == at) || (current == null && at == NEVER)) {
+            return;
+        }
+
+        if (at == NEVER) {
+            variantDue.remove(variantId);
+            live--;
+            return;
+        }
+        if (current == null) {
+            live++;
+        }
+        variantDue.put(variantId, at);
+        push(new Entry(at, null, variantId));
+    }
+
+    /**
+     * Remove every item whose next crossing is at or before {@code now} and add
+     * it to the given collections. Callers reschedule what they drain.
+     */
+    synchronized void drainDue(long now, Collection<Material> materials, Collection<String> variants) {
+        while (!heap.isEmpty() && heap.peek().due() <= now) {
+            Entry entry = heap.poll();
+            if (entry.mat() != null) {
+                int slot = entry.mat().ordinal();
+                if (due[slot] != entry.due()) {
+                    continue; // rescheduled since
+                }
+                due[slot] = 0;
+                live--;
+                materials.add(entry.mat());
+            } else {
+                Long current = variantDue.get(entry.variantId());
+                if (current == null || current != entry.due()) {
+                    continue;
+                }
+                variantDue.remove(entry.variantId());
+                live--;
+                variants.add(entry.variantId());
+            }
+        }
+    }
+
+    synchronized int size() {
+        return live;
+    }
+
+    synchronized void clear() {
+        heap.clear();
+        Arrays.fill(due, 0L);
+        variantDue.clear();
+        live = 0;
+    }
+
+    private void push(Entry entry) {
+        heap.add(entry);
+        if (heap.size() > 4 * live + 1024) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Drop stale entries once they dominate the heap (busy items are
+     * rescheduled on every trade).
+     */
+    private void rebuild() {
+        heap.clear();
+        Material[] materials = Material.values();
+        for (int slot = 0; slot < due.length; slot++) {
+            if (due[slot] != 0) {
+                heap.add(new Entry(due[slot], materials[slot], null));
+            }
+        }
+        for (Map.Entry<String, Long> entry : variantDue.entrySet()) {
+            heap.add(new Entry(entry.getValue(), null, entry.getKey()));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // CROSSING TIME
+    // ------------------------------------------------------------------------
+
+    /**
+     * When the multiplier from {@link ShopDataManager#getInflationMultiplier(double)}
+     * next moves by {@link #STEP}, given the item's live shortage hours.
+     *
+     * Out of stock, hours grow by one per hour until the multiplier hits
+     * maxPriceMultiplier. In stock, hours decay at
+     * shortageDecayPercentPerHour x min(stock / maxStock, 1) per hour down to
+     * zero. Returns {@link #NEVER} if the multiplier cannot change.
+     */
+    static long nextCrossing(double stock, double hours, double maxStock, long now) {
+        double hourlyRate = ConfigCacheManager.hourlyIncreasePercent / 100.0;
+        if (!ConfigCacheManager.useTimeInflation || hourlyRate <= 0) {
+            return NEVER;
+        }
+
+        double logGrowth = Math.log1p(hourlyRate);
+        double maxMultiplier = ConfigCacheManager.maxPriceMultiplier;
+        double h = Math.max(0.0, hours);
+        double multiplier = ShopDataManager.getInflationMultiplier(h);
+
+        double hoursUntil;
+        if (stock <= 0) {
+            if (multiplier >= maxMultiplier) {
+                return NEVER;
+            }
+            double target = Math.min(multiplier * (1.0 + STEP), maxMultiplier);
+            hoursUntil = Math.log(target) / logGrowth - h;
+        } else {
+            double decayRate = ConfigCacheManager.shortageDecayPercentPerHour;
+            double speed = decayRate * Math.min(stock / (maxStock <= 0 ? 1.0 : maxStock), 1.0);
+            if (h <= 0 || speed <= 0) {
+                return NEVER;
+            }
+            double target = multiplier / (1.0 + STEP);
+            double targetHours = target <= 1.0 ? 0.0 : Math.log(target) / logGrowth;
+            hoursUntil = (h - targetHours) / speed;
+        }
+
+        // at least a second out, so rounding never reschedules an item into the past
+        long millis = Math.max(1000L, (long) Math.ceil(hoursUntil * 3600000.0));
+        return now + millis;
+    }
+}
@@ -0,0 +1,180 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+import org.bukkit.Material;
+import org.minecraftsmp.dynamicshop.storage.ShopDataSnapshot;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Dynamic state (stock, purchases, last update, shortage hours) for every
+ * material, stored as parallel primitive arrays indexed by
+ * {@link Material#ordinal()}.
+ *
+ * Reads and writes never box or allocate. Each slot has a sequence counter used
+ * as a seqlock: writers make it odd while they update the slot and even again
+ * when done, so a reader that needs several fields together can retry until it
+ * sees the same even value before and after. Single-field reads only need the
+ * field itself, which is read atomically through a VarHandle.
+ *
+ * Writes come from the main thread and the P2P receiver thread, so writers
+ * claim the slot with a CAS rather than assuming a single writer.
+ */
+final class ItemStateTable {
+
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final double[] stock;
+    private final double[] purchases;
+    private final double[] shortageHours;
+    private final long[] lastUpdate;
+    private final long[] seq;
+    private final boolean[] present;
+
+    ItemStateTable() {
+        int size = Material.values().length;
+        stock = new double[size];
+        purchases = new double[size];
+        shortageHours = new double[size];
+        lastUpdate = new long[size];
+        seq = new long[size];
+        present = new boolean[size];
+    }
+
+    // ------------------------------------------------------------------------
+    // READS
+    // ------------------------------------------------------------------------
+    boolean contains(Material mat) {
+        int slot = mat.ordinal();
+        // present only flips inside a write section; the acquire on seq orders it
+        long s = (long) LONGS.getAcquire(seq, slot);
+        return s != 0 && present[slot];
+    }
+
+    double getStock(Material mat) {
+        return (double) DOUBLES.getOpaque(stock, mat.ordinal());
+    }
+
+    double getPurchases(Material mat) {
+        return (double) DOUBLES.getOpaque(purchases, mat.ordinal());
+    }
+
+    double getShortageHours(Material mat) {
+        return (double) DOUBLES.getOpaque(shortageHours, mat.ordinal());
+    }
+
+    long getLastUpdate(Material mat, long fallback) {
+        return contains(mat) ? (long) LONGS.getOpaque(lastUpdate, mat.ordinal()) : fallback;
+    }
+
+    /**
+     * Incremented (by two) on every write to the slot.
+     */
+    long version(Material mat) {
+        return (long) LONGS.getAcquire(seq, mat.ordinal());
+    }
+
+    /**
+     * Consistent copy of all four fields, for persistence.
+     */
+    ShopDataSnapshot.ItemState snapshot(Material mat, long fallbackLastUpdate) {
+        int slot = mat.ordinal();
+        while (true) {
+            long before = (long) LONGS.getAcquire(seq, slot);
+            if ((before & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            double s = stock[slot];
+            double p = purchases[slot];
+            double h = shortageHours[slot];
+            long u = lastUpdate[slot];
+            boolean has = present[slot];
+
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getAcquire(seq, slot) == before) {
+                return new ShopDataSnapshot.ItemState(s, p, has ? u : fallbackLastUpdate, h);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // WRITES
+    // ------------------------------------------------------------------------
+    void setStock(Material mat, double value) {
+        int slot = mat.ordinal();
+        long s = begin(slot);
+        DOUBLES.setOpaque(stock, slot, value);
+        end(slot, s);
+    }
+
+    void setPurchases(Material mat, double value) {
+        int slot = mat.ordinal();
+        long s = begin(slot);
+        DOUBLES.setOpaque(purchases, slot, value);
+        end(slot, s);
+    }
+
+    void setShortageHours(Material mat, double value) {
+        int slot = mat.ordinal();
+        long s = begin(slot);
+        DOUBLES.setOpaque(shortageHours, slot, value);
+        end(slot, s);
+    }
+
+    void setLastUpdate(Material mat, long value) {
+        int slot = mat.ordinal();
+        long s = begin(slot);
+        LONGS.setOpaque(lastUpdate, slot, value);
+        end(slot, s);
+    }
+
+    void put(Material mat, double stockValue, double purchasesValue, long lastUpdateValue, double shortageValue) {
+        int slot = mat.ordinal();
+        long s = begin(slot);
+        DOUBLES.setOpaque(stock, slot, stockValue);
+        DOUBLES.setOpaque(purchases, slot, purchasesValue);
+        LONGS.setOpaque(lastUpdate, slot, lastUpdateValue);
+        DOUBLES.setOpaque(shortageHours, slot, shortageValue);
+        end(slot, s);
+    }
+
+    void clear() {
+        for (int slot = 0; slot < seq.length; slot++) {
+            if (!present[slot]) {
+                continue;
+            }
+            long s = begin(slot);
+            DOUBLES.setOpaque(stock, slot, 0.0);
+            DOUBLES.setOpaque(purchases, slot, 0.0);
+            LONGS.setOpaque(lastUpdate, slot, 0L);
+            DOUBLES.setOpaque(shortageHours, slot, 0.0);
+            present[slot] = false;
+            end(slot, s);
+        }
+    }
+
+    /**
+     * Claim the slot for writing (seq becomes odd). Returns the odd value.
+     */
+    private long begin(int slot) {
+        while (true) {
+            long s = (long) LONGS.getVolatile(seq, slot);
+            if ((s & 1L) == 0 && LONGS.compareAndSet(seq, slot, s, s + 1)) {
+                if (!present[slot]) {
+                    // First write: give lastUpdate a sane value until it is set
+                    present[slot] = true;
+                    LONGS.setOpaque(lastUpdate, slot, System.currentTimeMillis());
+                }
+                return s + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void end(int slot, long odd) {
+        LONGS.setRelease(seq, slot, odd + 1);
+    }
+}
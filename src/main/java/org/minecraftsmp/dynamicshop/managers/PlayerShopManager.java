@@ -48,6 +48,7 @@ public class PlayerShopManager {
 
         playerListings.computeIfAbsent(sellerId, k -> new ArrayList<>()).add(listing);
         saveListings();
+        notifyCatalog();
 
         plugin.getLogger().info("[PlayerShops] " + seller.getName() + " listed " +
                 item.getType() + " x" + item.getAmount() + " for $" + price);
@@ -70,6 +71,7 @@ public class PlayerShopManager {
             if (toRemove != null) {
                 listings.remove(toRemove);
                 saveListings();
+                notifyCatalog();
 
                 // Remove empty shops
                 cleanupEmptyShops();
@@ -79,6 +81,15 @@ public class PlayerShopManager {
         return false;
     }
 
+    /**
+     * Tell the web catalog the listings changed.
+     */
+    private void notifyCatalog() {
+        if (plugin.getWebServer() != null) {
+            plugin.getWebServer().getCatalog().markPlayerShops();
+        }
+    }
+
     /**
      * Get all listings for a specific seller
      */
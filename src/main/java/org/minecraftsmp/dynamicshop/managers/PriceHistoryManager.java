@@ -0,0 +1,217 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+import org.bukkit.Material;
+import org.bukkit.scheduler.BukkitTask;
+import org.minecraftsmp.dynamicshop.DynamicShop;
+import org.minecraftsmp.dynamicshop.category.SpecialShopItem;
+import org.minecraftsmp.dynamicshop.transactions.TransactionArchive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Samples the quoted price of every shop item and stored-item variant once a
+ * minute into a {@link PriceHistoryStore}, so price history exists for items
+ * that are not traded (inflation and restocks still move their price).
+ *
+ * Sampling runs on an async timer: materials are read with one
+ * {@link ShopDataManager#quoteBatch} and variants through the same quote cache
+ * the GUIs use, both of which are safe off the main thread. The store is saved
+ * to price_history.bin every 15 minutes and on shutdown.
+ *
+ * Timestamps use the same clock as the transaction rollups (wall-clock time
+ * read as UTC), so the hourly points line up with the rollup hours.
+ *
+ * Config (config.yml):
+ * <pre>
+ * logging:
+ *   price_history: true
+ * </pre>
+ */
+public class PriceHistoryManager {
+
+    /**
+     * Key prefix of variant series; materials use their name.
+     */
+    public static final String VARIANT_PREFIX = "variant:";
+
+    private static final int FILE_MAGIC = 0x44535048; // "DSPH"
+    private static final long SAMPLE_INTERVAL_TICKS = 20L * 60L;
+    private static final long SAVE_INTERVAL_MS = 15L * 60_000L;
+
+    private final DynamicShop plugin;
+    private final PriceHistoryStore store = new PriceHistoryStore();
+    private final double[] variantSample = new double[4];
+    private File file;
+    private BukkitTask task;
+    private long lastSave;
+
+    public PriceHistoryManager(DynamicShop plugin) {
+        this.plugin = plugin;
+    }
+
+    public void init() {
+        shutdown();
+
+        file = new File(plugin.getDataFolder(), "price_history.bin");
+        if (!plugin.getConfig().getBoolean("logging.price_history", true)) {
+            return;
+        }
+
+        load();
+        lastSave = System.currentTimeMillis();
+        task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::sample,
+                20L, SAMPLE_INTERVAL_TICKS);
+    }
+
+    public void shutdown() {
+        if (task == null) {
+            return;
+        }
+        task.cancel();
+        task = null;
+        synchronized (this) {
+            save();
+        }
+    }
+
+    public void reload() {
+        init();
+    }
+
+    public boolean isEnabled() {
+        return task != null;
+    }
+
+    public PriceHistoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Points for a series key, see {@link PriceHistoryStore#series}.
+     */
+    public List<PriceHistoryStore.Sample> getHistory(String key, PriceHistoryStore.Resolution resolution,
+            long fromMillis, long toMillis) {
+        return store.series(key, resolution, fromMillis, toMillis);
+    }
+
+    /**
+     * Series key for a material name or variant id as given in a URL: a
+     * material's name if one matches, otherwise the variant's key.
+     */
+    public String resolveKey(String item) {
+        if (item.regionMatches(true, 0, VARIANT_PREFIX, 0, VARIANT_PREFIX.length())) {
+            return VARIANT_PREFIX + item.substring(VARIANT_PREFIX.length());
+        }
+        String upper = item.toUpperCase(Locale.ROOT);
+        if (store.contains(upper) || Material.matchMaterial(upper) != null) {
+            return upper;
+        }
+        return VARIANT_PREFIX + item;
+    }
+
+    // ------------------------------------------------------------------------
+    // SAMPLING
+    // ------------------------------------------------------------------------
+
+    private synchronized void sample() {
+        if (!ShopDataManager.isInitialized()) {
+            return;
+        }
+        long now = TransactionArchive.toMillis(LocalDateTime.now());
+
+        PriceQuoteBatch batch = ShopDataManager.quoteBatch(ShopDataManager.getAllTrackedMaterials(), QuoteKind.PRICES);
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.basePrice(i) < 0) {
+                continue; // disabled
+            }
+            store.record(batch.material(i).name(), now,
+                    batch.buy(i), batch.sell(i), batch.stock(i), batch.shortageHours(i));
+        }
+
+        SpecialShopManager special = plugin.getSpecialShopManager();
+        if (special != null) {
+            for (SpecialShopItem item : special.getAllSpecialItems().values()) {
+                String variantId = item.getId();
+                Material baseMat = item.getDisplayMaterial();
+                if (!"stored_item".equalsIgnoreCase(item.getDeliveryMethod()) || baseMat == null
+                        || item.getPrice() <= 0 || !ShopDataManager.hasVariantData(variantId)) {
+                    continue;
+                }
+                if (ShopDataManager.sampleVariant(variantId, baseMat, item.getPrice(), variantSample)) {
+                    store.record(VARIANT_PREFIX + variantId, now,
+                            variantSample[0], variantSample[1], variantSample[2], variantSample[3]);
+                }
+            }
+        }
+
+        store.prune(now);
+        if (System.currentTimeMillis() - lastSave >= SAVE_INTERVAL_MS) {
+            save();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // PERSISTENCE
+    // ------------------------------------------------------------------------
+
+    private void load() {
+        store.clear();
+        if (!file.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("not a price history file");
+            }
+            store.read(in);
+            store.prune(TransactionArchive.toMillis(LocalDateTime.now()));
+            plugin.getLogger().info("[PriceHistory] Loaded " + store.keys().size() + " series ("
+                    + store.encodedBytes() / 1024 + " KB)");
+        } catch (IOException e) {
+            plugin.getLogger().warning("[PriceHistory] Failed to read price_history.bin, starting empty: " + e.getMessage());
+            store.clear();
+        }
+    }
+
+    /**
+     * Write price_history.bin atomically.
+     */
+    private void save() {
+        lastSave = System.currentTimeMillis();
+        Path target = file.toPath();
+        Path tmp = target.resolveSibling(file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(FILE_MAGIC);
+            store.write(out);
+        } catch (IOException e) {
+            plugin.getLogger().warning("[PriceHistory] Failed to save price_history.bin: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ex) {
+                plugin.getLogger().warning("[PriceHistory] Failed to save price_history.bin: " + ex.getMessage());
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("[PriceHistory] Failed to save price_history.bin: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quoted buy/sell price, stock and shortage hours of every item over time, as
+ * recorded by {@link PriceHistoryManager}. Unlike the transaction rollups this
+ * has points for items nobody trades.
+ *
+ * Each series keeps one point per minute for a day and one per hour (the mean
+ * of that hour's minute points) for 90 days. Points are stored in fixed point
+ * and delta-encoded against the previous point as zig-zag varints, so an item
+ * whose price did not move costs about five bytes per point. Points are packed
+ * into blocks of one hour (minutes) or one day (hours); pruning drops whole
+ * blocks.
+ */
+public class PriceHistoryStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    // fixed point units per price coin, stock item and shortage hour
+    private static final double[] SCALE = {10_000.0, 10_000.0, 1_000.0, 10_000.0};
+    private static final int FIELDS = SCALE.length;
+
+    public enum Resolution {
+        MINUTE(60_000L, 24L * 3_600_000L, 60),
+        HOUR(3_600_000L, 90L * 86_400_000L, 24);
+
+        public final long millis;
+        public final long retentionMillis;
+        final int blockSize;
+
+        Resolution(long millis, long retentionMillis, int blockSize) {
+            this.millis = millis;
+            this.retentionMillis = retentionMillis;
+            this.blockSize = blockSize;
+        }
+
+        public long bucketStart(long timestamp) {
+            return Math.floorDiv(timestamp, millis) * millis;
+        }
+    }
+
+    /**
+     * One decoded point. Prices are -1 while the item is disabled.
+     */
+    public record Sample(long timestamp, double buy, double sell, double stock, double shortageHours) {
+    }
+
+    /**
+     * Delta-encoded run of up to {@link Resolution#blockSize} points.
+     */
+    private static final class Block {
+        final long start;
+        long last;
+        int count;
+        final long[] prev = new long[FIELDS];
+        byte[] data;
+        int length;
+
+        Block(long start, int capacity) {
+            this.start = start;
+            this.last = start;
+            this.data = new byte[capacity];
+        }
+
+        void append(long timestamp, long millis, long[] values) {
+            writeVarLong((timestamp - last) / millis);
+            for (int f = 0; f < FIELDS; f++) {
+                long delta = values[f] - prev[f];
+                writeVarLong((delta << 1) ^ (delta >> 63));
+                prev[f] = values[f];
+            }
+            last = timestamp;
+            count++;
+        }
+
+        private void writeVarLong(long value) {
+            if (length + 10 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 10));
+            }
+            while ((value & ~0x7FL) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+
+        /**
+         * Decode the points in [fromMillis, toMillis) into {@code out}.
+         */
+        void decode(long millis, long fromMillis, long toMillis, List<Sample> out) {
+            long timestamp = start;
+            long[] values = new long[FIELDS];
+            int[] pos = {0};
+            for (int i = 0; i < count; i++) {
+                timestamp += readVarLong(pos) * millis;
+                for (int f = 0; f < FIELDS; f++) {
+                    long zigzag = readVarLong(pos);
+                    values[f] += (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+                if (timestamp >= fromMillis && timestamp < toMillis) {
+                    out.add(toSample(timestamp, values));
+                }
+            }
+        }
+
+        private long readVarLong(int[] pos) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos[0]++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static final class Series {
+        final ArrayDeque<Block> minutes = new ArrayDeque<>();
+        final ArrayDeque<Block> hours = new ArrayDeque<>();
+
+        // running sums of the current hour's minute points
+        long hourStart = Long.MIN_VALUE;
+        int hourCount;
+        final double[] hourSums = new double[FIELDS];
+
+        ArrayDeque<Block> tier(Resolution resolution) {
+            return resolution == Resolution.MINUTE ? minutes : hours;
+        }
+    }
+
+    private final Map<String, Series> series = new HashMap<>();
+    private final long[] scratch = new long[FIELDS];
+
+    // ------------------------------------------------------------------------
+    // UPDATES
+    // ------------------------------------------------------------------------
+
+    /**
+     * Record a point for {@code key}. Only the first point in a minute is kept.
+     * A point in a new hour closes the previous hour into the hourly series.
+     */
+    public synchronized void record(String key, long timestamp, double buy, double sell, double stock,
+            double shortageHours) {
+        Series s = series.computeIfAbsent(key, k -> new Series());
+
+        long minute = Resolution.MINUTE.bucketStart(timestamp);
+        Block tail = s.minutes.peekLast();
+        if (tail != null && minute <= tail.last) {
+            return;
+        }
+
+        long hour = Resolution.HOUR.bucketStart(timestamp);
+        if (s.hourCount > 0 && hour != s.hourStart) {
+            closeHour(s);
+        }
+
+        double[] point = {buy, sell, stock, shortageHours};
+        append(s.minutes, Resolution.MINUTE, minute, point);
+        s.hourStart = hour;
+        s.hourCount++;
+        for (int f = 0; f < FIELDS; f++) {
+            s.hourSums[f] += point[f];
+        }
+    }
+
+    private void closeHour(Series s) {
+        double[] mean = new double[FIELDS];
+        for (int f = 0; f < FIELDS; f++) {
+            mean[f] = s.hourSums[f] / s.hourCount;
+            s.hourSums[f] = 0.0;
+        }
+        append(s.hours, Resolution.HOUR, s.hourStart, mean);
+        s.hourCount = 0;
+    }
+
+    private void append(ArrayDeque<Block> tier, Resolution resolution, long timestamp, double[] point) {
+        Block block = tier.peekLast();
+        if (block == null || block.count >= resolution.blockSize) {
+            block = new Block(timestamp, resolution.blockSize * 6);
+            tier.addLast(block);
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            scratch[f] = Math.round(point[f] * SCALE[f]);
+        }
+        block.append(timestamp, resolution.millis, scratch);
+    }
+
+    /**
+     * Drop blocks whose newest point is older than each resolution's
+     * retention, and series with nothing left.
+     */
+    public synchronized void prune(long now) {
+        series.values().removeIf(s -> {
+            for (Resolution resolution : Resolution.values()) {
+                long cutoff = now - resolution.retentionMillis;
+                ArrayDeque<Block> tier = s.tier(resolution);
+                while (!tier.isEmpty() && tier.peekFirst().last < cutoff) {
+                    tier.removeFirst();
+                }
+            }
+            return s.minutes.isEmpty() && s.hours.isEmpty() && s.hourCount == 0;
+        });
+    }
+
+    public synchronized void clear() {
+        series.clear();
+    }
+
+    // ------------------------------------------------------------------------
+    // READS
+    // ------------------------------------------------------------------------
+
+    /**
+     * Points of {@code key} in [fromMillis, toMillis), oldest first. The hourly
+     * series ends with the mean of the current, unfinished hour.
+     */
+    public synchronized List<Sample> series(String key, Resolution resolution, long fromMillis, long toMillis) {
+        List<Sample> result = new ArrayList<>();
+        Series s = series.get(key);
+        if (s == null) {
+            return result;
+        }
+
+        for (Block block : s.tier(resolution)) {
+            if (block.last < fromMillis || block.start >= toMillis) {
+                continue;
+            }
+            block.decode(resolution.millis, fromMillis, toMillis, result);
+        }
+
+        if (resolution == Resolution.HOUR && s.hourCount > 0
+                && s.hourStart >= fromMillis && s.hourStart < toMillis) {
+            result.add(new Sample(s.hourStart,
+                    s.hourSums[0] / s.hourCount, s.hourSums[1] / s.hourCount,
+                    s.hourSums[2] / s.hourCount, s.hourSums[3] / s.hourCount));
+        }
+        return result;
+    }
+
+    public synchronized boolean contains(String key) {
+        return series.containsKey(key);
+    }
+
+    public synchronized List<String> keys() {
+        return new ArrayList<>(series.keySet());
+    }
+
+    /**
+     * Encoded size of all points, for the startup log.
+     */
+    public synchronized long encodedBytes() {
+        long total = 0;
+        for (Series s : series.values()) {
+            for (Block block : s.minutes) total += block.length;
+            for (Block block : s.hours) total += block.length;
+        }
+        return total;
+    }
+
+    private static Sample toSample(long timestamp, long[] values) {
+        return new Sample(timestamp, values[0] / SCALE[0], values[1] / SCALE[1],
+                values[2] / SCALE[2], values[3] / SCALE[3]);
+    }
+
+    // ------------------------------------------------------------------------
+    // PERSISTENCE
+    // ------------------------------------------------------------------------
+
+    public synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(series.size());
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            Series s = entry.getValue();
+            out.writeUTF(entry.getKey());
+            for (Resolution resolution : Resolution.values()) {
+                ArrayDeque<Block> tier = s.tier(resolution);
+                out.writeInt(tier.size());
+                for (Block block : tier) {
+                    out.writeLong(block.start);
+                    out.writeLong(block.last);
+                    out.writeInt(block.count);
+                    for (long value : block.prev) {
+                        out.writeLong(value);
+                    }
+                    out.writeInt(block.length);
+                    out.write(block.data, 0, block.length);
+                }
+            }
+            out.writeLong(s.hourStart);
+            out.writeInt(s.hourCount);
+            for (double sum : s.hourSums) {
+                out.writeDouble(sum);
+            }
+        }
+    }
+
+    /**
+     * Replace the current series with those in {@code in}.
+     */
+    public synchronized void read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported price history format " + version);
+        }
+
+        Map<String, Series> loaded = new HashMap<>();
+        int keys = in.readInt();
+        for (int k = 0; k < keys; k++) {
+            String key = in.readUTF();
+            Series s = new Series();
+            for (Resolution resolution : Resolution.values()) {
+                int blocks = in.readInt();
+                for (int b = 0; b < blocks; b++) {
+                    Block block = new Block(in.readLong(), 0);
+                    block.last = in.readLong();
+                    block.count = in.readInt();
+                    for (int f = 0; f < FIELDS; f++) {
+                        block.prev[f] = in.readLong();
+                    }
+                    block.length = in.readInt();
+                    block.data = new byte[block.length];
+                    in.readFully(block.data);
+                    s.tier(resolution).addLast(block);
+                }
+            }
+            s.hourStart = in.readLong();
+            s.hourCount = in.readInt();
+            for (int f = 0; f < FIELDS; f++) {
+                s.hourSums[f] = in.readDouble();
+            }
+            loaded.put(key, s);
+        }
+        series.clear();
+        series.putAll(loaded);
+    }
+}
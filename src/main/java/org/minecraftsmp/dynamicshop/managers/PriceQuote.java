@@ -0,0 +1,42 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+/**
+ * Cached unit buy/sell price for one material or variant.
+ *
+ * A quote stays valid while the item's kernel and mutation counter are
+ * unchanged and, if its price drifts with time (shortage inflation or decay),
+ * only for the tick it was computed in. Every GUI viewer, placeholder and web
+ * request in that window shares the same computation.
+ */
+final class PriceQuote {
+
+    static final long TIMELESS = Long.MAX_VALUE;
+
+    final PricingKernel kernel;
+    final long version;
+    final long tick;
+    final double buy;
+    final double sell;
+    final double shortageHours; // effective hours the prices were computed with
+
+    PriceQuote(PricingKernel kernel, long version, long tick, double buy, double sell, double shortageHours) {
+        this.kernel = kernel;
+        this.version = version;
+        this.tick = tick;
+        this.buy = buy;
+        this.sell = sell;
+        this.shortageHours = shortageHours;
+    }
+
+    boolean isValid(PricingKernel currentKernel, long currentVersion, long currentTick) {
+        return kernel == currentKernel && version == currentVersion
+                && (tick == TIMELESS || tick == currentTick);
+    }
+
+    /**
+     * Tick bucket used for time-dependent quotes (50 ms, one server tick).
+     */
+    static long tickOf(long millis) {
+        return millis / 50L;
+    }
+}
@@ -0,0 +1,154 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+
+/**
+ * Pricing data for many items, produced by {@link ShopDataManager#quoteBatch}
+ * in a single pass. Entries keep the order of the requested collection and are
+ * read by index, backed by primitive arrays so a page render does not box.
+ *
+ * A batch is a snapshot: it does not follow later stock changes.
+ *
+ * Items without a config have base price, buy and sell of -1, the same values
+ * the single-item getters return for them. Buy, sell, inflation percent and
+ * shortage hours are only filled in for {@link QuoteKind#PRICES}.
+ */
+public final class PriceQuoteBatch {
+
+    private final QuoteKind kind;
+    private Material[] materials;
+    private double[] basePrice;
+    private double[] stock;
+    private double[] buy;
+    private double[] sell;
+    private double[] inflationPercent;
+    private double[] shortageHours;
+    private int size;
+
+    PriceQuoteBatch(QuoteKind kind, int capacity) {
+        this.kind = kind;
+        this.materials = new Material[capacity];
+        this.basePrice = new double[capacity];
+        this.stock = new double[capacity];
+        boolean prices = kind == QuoteKind.PRICES;
+        this.buy = prices ? new double[capacity] : null;
+        this.sell = prices ? new double[capacity] : null;
+        this.inflationPercent = prices ? new double[capacity] : null;
+        this.shortageHours = prices ? new double[capacity] : null;
+    }
+
+    void add(Material mat, double base, double stockValue) {
+        if (size == materials.length) {
+            grow();
+        }
+        materials[size] = mat;
+        basePrice[size] = base;
+        stock[size] = stockValue;
+        size++;
+    }
+
+    void add(Material mat, double base, double stockValue, double buyValue, double sellValue, double percent,
+            double hours) {
+        if (size == materials.length) {
+            grow();
+        }
+        buy[size] = buyValue;
+        sell[size] = sellValue;
+        inflationPercent[size] = percent;
+        shortageHours[size] = hours;
+        add(mat, base, stockValue);
+    }
+
+    /**
+     * The requested collection grew while it was being iterated (concurrent map views).
+     */
+    private void grow() {
+        int capacity = Math.max(8, materials.length * 2);
+        materials = Arrays.copyOf(materials, capacity);
+        basePrice = Arrays.copyOf(basePrice, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+        if (buy != null) {
+            buy = Arrays.copyOf(buy, capacity);
+            sell = Arrays.copyOf(sell, capacity);
+            inflationPercent = Arrays.copyOf(inflationPercent, capacity);
+            shortageHours = Arrays.copyOf(shortageHours, capacity);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ACCESS
+    // ------------------------------------------------------------------------
+    public QuoteKind kind() {
+        return kind;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Material material(int i) {
+        return materials[i];
+    }
+
+    public double basePrice(int i) {
+        return basePrice[i];
+    }
+
+    public double stock(int i) {
+        return stock[i];
+    }
+
+    /**
+     * Unit buy price, as {@link ShopDataManager#getTotalBuyCost(Material, double)} with amount 1.
+     */
+    public double buy(int i) {
+        requirePrices();
+        return buy[i];
+    }
+
+    /**
+     * Unit sell price after tax, as {@link ShopDataManager#getTotalSellValue(Material, int)} with amount 1.
+     */
+    public double sell(int i) {
+        requirePrices();
+        return sell[i];
+    }
+
+    /**
+     * Price increase from shortage inflation, as
+     * {@link ShopDataManager#getInflationIncreasePercent(double)}.
+     */
+    public double inflationPercent(int i) {
+        requirePrices();
+        return inflationPercent[i];
+    }
+
+    /**
+     * Hours in shortage, as {@link ShopDataManager#getHoursInShortage(Material)}.
+     */
+    public double shortageHours(int i) {
+        requirePrices();
+        return shortageHours[i];
+    }
+
+    /**
+     * Sum of stock x base price over enabled items.
+     */
+    public double totalStockValue() {
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            if (basePrice[i] > 0) {
+                total += stock[i] * basePrice[i];
+            }
+        }
+        return total;
+    }
+
+    private void requirePrices() {
+        if (buy == null) {
+            throw new IllegalStateException("Batch was built with QuoteKind." + kind + " and has no prices");
+        }
+    }
+}
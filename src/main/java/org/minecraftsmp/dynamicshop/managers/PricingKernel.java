@@ -0,0 +1,242 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+/**
+ * Pricing constants for one item, resolved once from its {@link ShopDataManager.ShopItemConfig}
+ * and the {@link ConfigCacheManager} globals.
+ *
+ * Building a kernel resolves the nullable per-item overrides, the clamp prices
+ * and the logarithms the region integrals need. Pricing a trade is then only the
+ * integral over the current stock at the current inflation multiplier.
+ *
+ * Kernels are immutable. They are rebuilt when the item's config changes or when
+ * {@link ConfigCacheManager#generation} moves on (reload / web config update).
+ */
+final class PricingKernel {
+
+    final ShopDataManager.ShopItemConfig config;
+    final int generation;
+
+    final double basePrice;
+    final boolean dynamic;
+    final double sellFactor; // 1 - sell tax
+
+    // stock curve
+    final double maxStock; // L
+    final double minStock;
+    final double curve; // k
+    final double q; // 1 + negative stock percent
+    private final double logQ;
+    private final boolean flatNegative;
+    private final boolean flatMid;
+    private final double effectiveMax;
+    private final double twoLOverK;
+
+    // clamps
+    private final double maxMultiplier;
+    private final double minMultiplier;
+    private final double logMaxMultiplier;
+    private final double maxPrice;
+    private final double minPrice;
+
+    // time inflation
+    private final boolean inflation;
+    private final double hourlyGrowth;
+
+    private PricingKernel(ShopDataManager.ShopItemConfig cfg, double basePrice, int generation) {
+        this.config = cfg;
+        this.generation = generation;
+        this.basePrice = basePrice;
+        this.dynamic = ConfigCacheManager.dynamicPricingEnabled;
+        this.sellFactor = 1.0 - ConfigCacheManager.sellTaxPercent;
+
+        this.maxStock = cfg.maxStock() != null ? cfg.maxStock() : ConfigCacheManager.maxStock;
+        this.minStock = cfg.minStock() != null ? cfg.minStock() : 0.0;
+        this.curve = ConfigCacheManager.useStockCurve ? ConfigCacheManager.curveStrength : 0.0;
+        double negPercent = (cfg.stockRate() != null ? cfg.stockRate()
+                : ConfigCacheManager.negativeStockPercentPerItem) / 100.0;
+        this.q = 1.0 + negPercent;
+        this.logQ = Math.log(q);
+        this.flatNegative = Math.abs(logQ) < 1e-12;
+        this.flatMid = Math.abs(curve) < 1e-12;
+
+        double range = maxStock - minStock;
+        this.effectiveMax = range <= 0 ? 1.0 : range;
+        this.twoLOverK = flatMid ? 0.0 : 2.0 * effectiveMax / curve;
+
+        this.maxMultiplier = ConfigCacheManager.maxPriceMultiplier;
+        this.minMultiplier = ConfigCacheManager.minPriceMultiplier;
+        this.logMaxMultiplier = Math.log(maxMultiplier);
+        this.maxPrice = basePrice * maxMultiplier;
+        this.minPrice = basePrice * minMultiplier;
+
+        double hourlyRate = ConfigCacheManager.hourlyIncreasePercent / 100.0;
+        this.inflation = ConfigCacheManager.useTimeInflation && hourlyRate > 0;
+        this.hourlyGrowth = 1.0 + hourlyRate;
+    }
+
+    static PricingKernel compile(ShopDataManager.ShopItemConfig cfg, int generation) {
+        return new PricingKernel(cfg, cfg.basePrice(), generation);
+    }
+
+    /**
+     * Same item settings with a different base price (stored-item variants).
+     */
+    PricingKernel withBasePrice(double price) {
+        return price == basePrice ? this : new PricingKernel(config, price, generation);
+    }
+
+    /**
+     * False if shortage hours never change the price (time inflation off).
+     */
+    boolean hasInflation() {
+        return inflation;
+    }
+
+    boolean isCurrent() {
+        return generation == ConfigCacheManager.generation;
+    }
+
+    // ------------------------------------------------------------------------
+    // PRICING
+    // ------------------------------------------------------------------------
+
+    /**
+     * Same as {@link ShopDataManager#getInflationMultiplier(double)}.
+     */
+    double inflationMultiplier(double hours) {
+        if (!inflation || hours <= 0) {
+            return 1.0;
+        }
+        return Math.min(Math.pow(hourlyGrowth, hours), maxMultiplier);
+    }
+
+    /**
+     * ∫ clamp(P(s), MIN, MAX) ds from s = stock - amount → stock
+     */
+    double buyCost(double stock, double amount, double t) {
+        if (!dynamic) {
+            return basePrice * amount;
+        }
+        return integrate(stock - amount, stock, t);
+    }
+
+    /**
+     * ∫ clamp(P(s), MIN, MAX) ds from s = stock → stock + amount, after tax
+     */
+    double sellValue(double stock, double amount, double t) {
+        if (!dynamic) {
+            return basePrice * amount * sellFactor;
+        }
+        return Math.max(0.0, integrate(stock, stock + amount, t) * sellFactor);
+    }
+
+    // ============================================================================
+    // CLAMPED INTEGRAL: ∫ clamp(P(s), minPrice, maxPrice) ds
+    // Clamping is built into each region's integral so bulk = 1-at-a-time.
+    // ============================================================================
+    double integrate(double a, double b, double t) {
+        double total = 0.0;
+        double bt = basePrice * t;
+
+        // NEGATIVE REGION (-∞ → minStock]
+        double negA = Math.min(a, minStock);
+        double negB = Math.min(b, minStock);
+        if (negA < negB) {
+            total += integrateNegative(bt, t, negA - minStock, negB - minStock);
+        }
+
+        // MID REGION [minStock → maxStock]
+        // P(s') = B*t*(1 - 0.5*k*s'/L), linear decreasing from B*t to B*t*(1-0.5k)
+        double midA = Math.max(a, minStock);
+        double midB = Math.min(b, maxStock);
+        if (midA < midB) {
+            total += integrateMid(bt, t, midA - minStock, midB - minStock);
+        }
+
+        // HIGH REGION [maxStock → +∞) — flat price, clamp directly
+        double highA = Math.max(a, maxStock);
+        double highB = Math.max(b, maxStock);
+        if (highA < highB) {
+            double highPrice = Math.max(minPrice, Math.min(bt * (1.0 - curve), maxPrice));
+            total += highPrice * (highB - highA);
+        }
+
+        return total;
+    }
+
+    /**
+     * Negative region: integrates min(B*t*q^(-s), maxPrice) from a to b.
+     * Above the threshold where the exponential reaches maxPrice the price is
+     * flat, which keeps bulk identical to 1-at-a-time.
+     */
+    private double integrateNegative(double bt, double t, double a, double b) {
+        if (flatNegative) {
+            // Flat price at B*t, clamped to maxPrice
+            return Math.min(bt, maxPrice) * (b - a);
+        }
+
+        // B*t*q^(-s) = maxPrice  =>  s = (ln t - ln maxMultiplier) / ln q
+        double sThresh = bt >= maxPrice ? 0.0 : (Math.log(t) - logMaxMultiplier) / logQ;
+
+        double total = 0.0;
+
+        // Clamped portion: [a, min(b, sThresh)] at flat maxPrice
+        double clampEnd = Math.min(b, sThresh);
+        if (a < clampEnd) {
+            total += maxPrice * (clampEnd - a);
+        }
+
+        // Normal (unclamped) portion: [max(a, sThresh), b]
+        double normalStart = Math.max(a, sThresh);
+        if (normalStart < b) {
+            total += bt * (Math.exp(-normalStart * logQ) - Math.exp(-b * logQ)) / logQ;
+        }
+
+        return total;
+    }
+
+    /**
+     * Mid region: integrates clamp(B*t*(1 - 0.5*k*s'/L), minPrice, maxPrice) from a to b.
+     */
+    private double integrateMid(double bt, double t, double a, double b) {
+        if (flatMid) {
+            double flatPrice = Math.max(minPrice, Math.min(bt, maxPrice));
+            return flatPrice * (b - a);
+        }
+
+        double L = effectiveMax;
+
+        // Where price crosses maxPrice (above this, clamp to max)
+        double sMax = (t > 0 && bt > maxPrice) ? twoLOverK * (1.0 - maxMultiplier / t) : -1.0;
+        // Where price crosses minPrice (below this, clamp to min)
+        double sMin = (t > 0 && bt * (1.0 - 0.5 * curve) < minPrice) ? twoLOverK * (1.0 - minMultiplier / t) : L + 1.0;
+
+        sMax = Math.max(sMax, 0);
+        sMin = Math.min(sMin, L);
+
+        double total = 0.0;
+
+        // Above max: [a, min(b, sMax)] — flat at maxPrice
+        double maxClampEnd = Math.min(b, sMax);
+        if (a < maxClampEnd) {
+            total += maxPrice * (maxClampEnd - a);
+        }
+
+        // Normal region: [max(a, sMax), min(b, sMin)]
+        double normalA = Math.max(a, sMax);
+        double normalB = Math.min(b, sMin);
+        if (normalA < normalB) {
+            double term1 = (normalB - normalA);
+            double term2 = 0.5 * curve * (normalB * normalB - normalA * normalA) / (2.0 * L);
+            total += bt * (term1 - term2);
+        }
+
+        // Below min: [max(a, sMin), b] — flat at minPrice
+        double minClampStart = Math.max(a, sMin);
+        if (minClampStart < b) {
+            total += minPrice * (b - minClampStart);
+        }
+
+        return total;
+    }
+}
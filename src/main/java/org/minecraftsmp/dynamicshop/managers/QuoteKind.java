@@ -0,0 +1,19 @@
+package org.minecraftsmp.dynamicshop.managers;
+
+/**
+ * What {@link ShopDataManager#quoteBatch} computes for each item.
+ */
+public enum QuoteKind {
+
+    /**
+     * Base price, stock, unit buy/sell price and inflation percent
+     * (shop pages, web catalog).
+     */
+    PRICES,
+
+    /**
+     * Base price and stock only; the price curve is not evaluated
+     * (admin browser, stock value totals).
+     */
+    STOCK
+}
@@ -7,6 +7,14 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.scheduler.BukkitTask;
 import org.minecraftsmp.dynamicshop.DynamicShop;
 import org.minecraftsmp.dynamicshop.category.ItemCategory;
+import org.minecraftsmp.dynamicshop.storage.ShopDataJournal;
+import org.minecraftsmp.dynamicshop.storage.ShopDataMigrator;
+import org.minecraftsmp.dynamicshop.storage.ShopDataSnapshot;
+import org.minecraftsmp.dynamicshop.storage.ShopDataStore;
+import org.minecraftsmp.dynamicshop.storage.ShopDataWriter;
+import org.minecraftsmp.dynamicshop.storage.SqliteShopDataStore;
+import org.minecraftsmp.dynamicshop.storage.YamlShopDataStore;
+import org.minecraftsmp.dynamicshop.web.WebServer;
 import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
@@ -32,11 +40,17 @@ public class ShopDataManager {
 
     public static final Map<Material, ShopItemConfig> itemConfigs = new ConcurrentHashMap<>();
 
-    // dynamic data (keyed by Material for regular items)
-    static final Map<Material, Double> stockMap = new ConcurrentHashMap<>();
-    private static final Map<Material, Double> purchasesMap = new ConcurrentHashMap<>();
-    private static final Map<Material, Long> lastUpdateMap = new ConcurrentHashMap<>();
-    private static final Map<Material, Double> shortageHoursMap = new ConcurrentHashMap<>();
+    // compiled pricing constants, indexed by Material ordinal / keyed by variant ID
+    private static final PricingKernel[] kernels = new PricingKernel[Material.values().length];
+    private static final Map<String, PricingKernel> variantKernels = new ConcurrentHashMap<>();
+
+    // unit price quotes shared by every viewer within a tick
+    private static final PriceQuote[] quotes = new PriceQuote[Material.values().length];
+    private static final Map<String, PriceQuote> variantQuotes = new ConcurrentHashMap<>();
+    private static final Map<String, Long> variantVersions = new ConcurrentHashMap<>();
+
+    // dynamic data for regular items (primitive arrays indexed by Material ordinal)
+    private static final ItemStateTable itemStates = new ItemStateTable();
 
     // dynamic data for stored_item variants (keyed by variant ID string)
     static final Map<String, Double> variantStockMap = new ConcurrentHashMap<>();
@@ -65,14 +79,33 @@ public class ShopDataManager {
     private static final Set<Material> saveQueue = ConcurrentHashMap.newKeySet();
     private static final Set<String> variantSaveQueue = ConcurrentHashMap.newKeySet();
 
+    // shortage compaction (main thread only)
+    private static final Material[] ALL_MATERIALS = Material.values();
+    private static final int SHORTAGE_COMPACT_SLICE = 32;
+    private static final long SHORTAGE_COMPACT_AGE_MS = 3600000L;
+    private static int shortageCursor = 0;
+    private static Iterator<String> variantCursor;
+
     private static DynamicShop plugin;
 
-    // dynamic data file
-    private static File shopDataFile;
-    private static YamlConfiguration shopDataConfig;
+    // dynamic data storage (shopdata.yml or shopdata.db)
+    private static ShopDataStore store;
+
+    // background writer (owns the store once created)
+    private static ShopDataWriter writer;
+
+    // write-ahead journal of every mutation since the last full save
+    private static ShopDataJournal journal;
 
     public static BukkitTask saveTimer;
-    private static BukkitTask shortageTicker;
+    private static BukkitTask shortageCompactor;
+    private static BukkitTask inflationTask;
+
+    // next 0.5% inflation step per item (see runInflationSchedule)
+    private static final InflationSchedule inflationSchedule = new InflationSchedule();
+    private static int inflationGeneration;
+    private static BukkitTask journalSyncTask;
+    private static BukkitTask journalCompactTask;
 
     // ------------------------------------------------------------------------
     // INIT
@@ -81,6 +114,10 @@ public class ShopDataManager {
         plugin = pl;
 
         itemConfigs.clear();
+        Arrays.fill(kernels, null);
+        variantKernels.clear();
+        Arrays.fill(quotes, null);
+        variantQuotes.clear();
         categoryCache.clear();
         categoryItems.clear();
         categoryOverrides.clear();
@@ -91,10 +128,33 @@ public class ShopDataManager {
         loadTemplates();
         buildCategoryLists();
 
-        shopDataFile = new File(plugin.getDataFolder(), "shopdata.yml");
-        shopDataConfig = YamlConfiguration.loadConfiguration(shopDataFile);
+        // Let the previous writer finish before re-reading the file (reload)
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+        if (journal != null) {
+            journal.close();
+        }
+
+        store = openStore();
+        journal = new ShopDataJournal(plugin, plugin.getDataFolder());
         loadDynamicData();
 
+        try {
+            journal.open();
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ShopData] Failed to open shopdata.journal, falling back to periodic saves: "
+                    + e.getMessage());
+            journal = null;
+        }
+
+        // Fold the replayed journal into the store straight away
+        writer = new ShopDataWriter(plugin, store);
+        saveDynamicData();
+
+        startJournalTasks();
+
         if (ConfigCacheManager.crossServerEnabled) {
             if (saveTimer == null || saveTimer.isCancelled()) {
                 int seconds = ConfigCacheManager.crossServerSaveInterval;
@@ -103,14 +163,21 @@ public class ShopDataManager {
             }
         }
 
-        // Periodic shortage tick — bakes shortage accumulation/decay every 5 minutes
-        // so items at zero stock gain shortage even with no trades,
-        // and items with supply lose shortage even with no trades.
-        if (shortageTicker != null && !shortageTicker.isCancelled()) {
-            shortageTicker.cancel();
+        // Shortage is evaluated lazily from lastUpdate; this only bakes it in for a
+        // few items per tick (see compactShortage)
+        if (shortageCompactor != null && !shortageCompactor.isCancelled()) {
+            shortageCompactor.cancel();
+        }
+        shortageCompactor = plugin.getServer().getScheduler().runTaskTimer(
+                plugin, ShopDataManager::compactShortage, 1L, 1L);
+
+        // Re-price only items whose inflation moved by a visible step
+        rescheduleAllInflation();
+        if (inflationTask != null && !inflationTask.isCancelled()) {
+            inflationTask.cancel();
         }
-        shortageTicker = plugin.getServer().getScheduler().runTaskTimer(
-                plugin, ShopDataManager::tickAllShortage, 72000L, 72000L); // 1 hour = 72000 ticks
+        inflationTask = plugin.getServer().getScheduler().runTaskTimer(
+                plugin, ShopDataManager::runInflationSchedule, 20L, 20L);
     }
 
     public static void reload() {
@@ -123,7 +190,81 @@ public class ShopDataManager {
      * Used to prevent NPE during early shutdown (e.g., when Vault is missing).
      */
     public static boolean isInitialized() {
-        return shopDataConfig != null;
+        return writer != null;
+    }
+
+    /**
+     * Write all dynamic data and wait for the writer thread to finish.
+     * Called once on plugin disable.
+     */
+    public static void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        if (journalSyncTask != null) {
+            journalSyncTask.cancel();
+        }
+        if (journalCompactTask != null) {
+            journalCompactTask.cancel();
+        }
+        if (shortageCompactor != null) {
+            shortageCompactor.cancel();
+        }
+        if (inflationTask != null) {
+            inflationTask.cancel();
+        }
+        saveDynamicData();
+        writer.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Open the store selected by storage.type, importing shopdata.yml the first
+     * time the SQLite store is used.
+     */
+    private static ShopDataStore openStore() {
+        YamlShopDataStore yaml = new YamlShopDataStore(new File(plugin.getDataFolder(), "shopdata.yml"));
+        if (!"sqlite".equalsIgnoreCase(ConfigCacheManager.storageType)) {
+            return yaml;
+        }
+
+        SqliteShopDataStore sqlite = new SqliteShopDataStore(new File(plugin.getDataFolder(), "shopdata.db"));
+        try {
+            sqlite.open();
+            ShopDataMigrator.migrate(plugin, yaml, sqlite);
+            return sqlite;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ShopData] Failed to open SQLite storage, falling back to shopdata.yml: "
+                    + e.getMessage());
+            sqlite.close();
+            return yaml;
+        }
+    }
+
+    private static void startJournalTasks() {
+        if (journalSyncTask != null && !journalSyncTask.isCancelled()) {
+            journalSyncTask.cancel();
+        }
+        if (journalCompactTask != null && !journalCompactTask.isCancelled()) {
+            journalCompactTask.cancel();
+        }
+        if (journal == null) {
+            return;
+        }
+
+        // fsync once a second, off the main thread
+        ShopDataJournal current = journal;
+        journalSyncTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(
+                plugin, current::sync, 20L, 20L);
+
+        // Compaction snapshots the maps, so the size check runs on the main thread
+        journalCompactTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            if (current.size() >= ConfigCacheManager.journalCompactSizeKb * 1024L) {
+                saveDynamicData();
+            }
+        }, 1200L, 1200L);
     }
 
     // ------------------------------------------------------------------------
@@ -292,6 +433,7 @@ public class ShopDataManager {
             return;
         }
         customNames.put(mat, name);
+        notifyCatalog(mat);
         plugin.getConfig().set("items." + mat.name() + ".custom_name", name);
         plugin.saveConfig();
     }
@@ -301,6 +443,7 @@ public class ShopDataManager {
      */
     public static void removeCustomName(Material mat) {
         customNames.remove(mat);
+        notifyCatalog(mat);
         plugin.getConfig().set("items." + mat.name() + ".custom_name", null);
         plugin.saveConfig();
     }
@@ -637,30 +780,23 @@ public class ShopDataManager {
     // ∫ clamp(P(s), MIN, MAX) ds from s = s0 - amount → s0
     // ============================================================================
     public static double getTotalBuyCost(Material mat, double amount) {
-        ShopItemConfig cfg = itemConfigs.get(mat);
-        if (cfg == null || cfg.basePrice < 0)
+        PricingKernel kernel = kernel(mat);
+        if (kernel == null || kernel.basePrice < 0)
             return -1.0;
 
-        double B = cfg.basePrice;
-
-        if (!ConfigCacheManager.dynamicPricingEnabled) {
-            return B * amount;
+        if (!kernel.dynamic) {
+            return kernel.basePrice * amount;
+        }
+        if (amount == 1 && !ConfigCacheManager.logDynamicPricing) {
+            return quote(mat, kernel, System.currentTimeMillis()).buy;
         }
 
         double s0 = getStock(mat);
-        double L = cfg.maxStock != null ? cfg.maxStock : ConfigCacheManager.maxStock;
-        double minStock = cfg.minStock != null ? cfg.minStock : 0.0;
-        double k = ConfigCacheManager.useStockCurve ? ConfigCacheManager.curveStrength : 0.0;
-        double negPercent = (cfg.stockRate != null ? cfg.stockRate : ConfigCacheManager.negativeStockPercentPerItem) / 100.0;
-        double q = 1.0 + negPercent;
-        double h = getHoursInShortage(mat);
-        double t = getInflationMultiplier(h);
-
-        double a = s0 - amount;
-        double b = s0;
-
-        double total = computeClampedIntegral(B, a, b, L, minStock, k, q, t);
-        logDynamicPricing("BUY", mat.name(), B, s0, amount, h, t, k, q, total);
+        double h = getHoursInShortage(mat, kernel, System.currentTimeMillis());
+        double t = kernel.inflationMultiplier(h);
+
+        double total = kernel.buyCost(s0, amount, t);
+        logDynamicPricing("BUY", mat.name(), kernel.basePrice, s0, amount, h, t, kernel.curve, kernel.q, total);
         return total;
     }
 
@@ -669,247 +805,272 @@ public class ShopDataManager {
     // ∫ clamp(P(s), MIN, MAX) ds from s = s0 → s0 + amount, then apply tax
     // ============================================================================
     public static double getTotalSellValue(Material mat, int amount) {
-        ShopItemConfig cfg = itemConfigs.get(mat);
-        if (cfg == null || cfg.basePrice < 0)
+        PricingKernel kernel = kernel(mat);
+        if (kernel == null || kernel.basePrice < 0)
             return -1.0;
 
-        double B = cfg.basePrice;
-        double tax = ConfigCacheManager.sellTaxPercent;
-
-        if (!ConfigCacheManager.dynamicPricingEnabled) {
-            return B * amount * (1.0 - tax);
+        if (!kernel.dynamic) {
+            return kernel.basePrice * amount * kernel.sellFactor;
+        }
+        if (amount == 1 && !ConfigCacheManager.logDynamicPricing) {
+            return quote(mat, kernel, System.currentTimeMillis()).sell;
         }
 
         double s0 = getStock(mat);
-        double L = cfg.maxStock != null ? cfg.maxStock : ConfigCacheManager.maxStock;
-        double minStock = cfg.minStock != null ? cfg.minStock : 0.0;
-        double k = ConfigCacheManager.useStockCurve ? ConfigCacheManager.curveStrength : 0.0;
-        double negPercent = (cfg.stockRate != null ? cfg.stockRate : ConfigCacheManager.negativeStockPercentPerItem) / 100.0;
-        double q = 1.0 + negPercent;
-        double h = getHoursInShortage(mat);
-        double t = getInflationMultiplier(h);
-
-        double a = s0;
-        double b = s0 + amount;
+        double h = getHoursInShortage(mat, kernel, System.currentTimeMillis());
+        double t = kernel.inflationMultiplier(h);
 
-        double total = computeClampedIntegral(B, a, b, L, minStock, k, q, t);
-
-        double taxedTotal = Math.max(0.0, total * (1.0 - tax));
-        logDynamicPricing("SELL", mat.name(), B, s0, amount, h, t, k, q, taxedTotal);
+        double taxedTotal = kernel.sellValue(s0, amount, t);
+        logDynamicPricing("SELL", mat.name(), kernel.basePrice, s0, amount, h, t, kernel.curve, kernel.q, taxedTotal);
         return taxedTotal;
     }
 
     public static double getTotalVariantBuyCost(String variantId, Material baseMat, double basePrice, double amount) {
-        ShopItemConfig cfg = itemConfigs.get(baseMat);
-        if (variantId == null || cfg == null || basePrice < 0)
+        if (variantId == null || basePrice < 0)
+            return -1.0;
+        PricingKernel kernel = variantKernel(variantId, baseMat, basePrice);
+        if (kernel == null)
             return -1.0;
 
-        if (!ConfigCacheManager.dynamicPricingEnabled) {
+        if (!kernel.dynamic) {
             return basePrice * amount;
         }
+        if (amount == 1 && !ConfigCacheManager.logDynamicPricing) {
+            return variantQuote(variantId, kernel).buy;
+        }
 
         double s0 = getVariantStock(variantId);
-        double L = cfg.maxStock != null ? cfg.maxStock : ConfigCacheManager.maxStock;
-        double minStock = cfg.minStock != null ? cfg.minStock : 0.0;
-        double k = ConfigCacheManager.useStockCurve ? ConfigCacheManager.curveStrength : 0.0;
-        double negPercent = (cfg.stockRate != null ? cfg.stockRate : ConfigCacheManager.negativeStockPercentPerItem) / 100.0;
-        double q = 1.0 + negPercent;
         double h = getVariantShortageHours(variantId);
-        double t = getInflationMultiplier(h);
+        double t = kernel.inflationMultiplier(h);
 
-        double a = s0 - amount;
-        double b = s0;
-
-        double total = computeClampedIntegral(basePrice, a, b, L, minStock, k, q, t);
-        logDynamicPricing("BUY", "variant:" + variantId, basePrice, s0, amount, h, t, k, q, total);
+        double total = kernel.buyCost(s0, amount, t);
+        logDynamicPricing("BUY", "variant:" + variantId, basePrice, s0, amount, h, t, kernel.curve, kernel.q, total);
         return total;
     }
 
     public static double getTotalVariantSellValue(String variantId, Material baseMat, double basePrice, int amount) {
-        ShopItemConfig cfg = itemConfigs.get(baseMat);
-        if (variantId == null || cfg == null || basePrice < 0)
+        if (variantId == null || basePrice < 0)
+            return -1.0;
+        PricingKernel kernel = variantKernel(variantId, baseMat, basePrice);
+        if (kernel == null)
             return -1.0;
 
-        double tax = ConfigCacheManager.sellTaxPercent;
-
-        if (!ConfigCacheManager.dynamicPricingEnabled) {
-            return basePrice * amount * (1.0 - tax);
+        if (!kernel.dynamic) {
+            return basePrice * amount * kernel.sellFactor;
+        }
+        if (amount == 1 && !ConfigCacheManager.logDynamicPricing) {
+            return variantQuote(variantId, kernel).sell;
         }
 
         double s0 = getVariantStock(variantId);
-        double L = cfg.maxStock != null ? cfg.maxStock : ConfigCacheManager.maxStock;
-        double minStock = cfg.minStock != null ? cfg.minStock : 0.0;
-        double k = ConfigCacheManager.useStockCurve ? ConfigCacheManager.curveStrength : 0.0;
-        double negPercent = (cfg.stockRate != null ? cfg.stockRate : ConfigCacheManager.negativeStockPercentPerItem) / 100.0;
-        double q = 1.0 + negPercent;
         double h = getVariantShortageHours(variantId);
-        double t = getInflationMultiplier(h);
-
-        double a = s0;
-        double b = s0 + amount;
-
-        double total = computeClampedIntegral(basePrice, a, b, L, minStock, k, q, t);
+        double t = kernel.inflationMultiplier(h);
 
-        double taxedTotal = Math.max(0.0, total * (1.0 - tax));
-        logDynamicPricing("SELL", "variant:" + variantId, basePrice, s0, amount, h, t, k, q, taxedTotal);
+        double taxedTotal = kernel.sellValue(s0, amount, t);
+        logDynamicPricing("SELL", "variant:" + variantId, basePrice, s0, amount, h, t, kernel.curve, kernel.q,
+                taxedTotal);
         return taxedTotal;
     }
 
-    private static void logDynamicPricing(String action, String itemId, double basePrice, double stock, double amount,
-            double shortageHours, double timeMultiplier, double curveStrength, double negativeStockMultiplier,
-            double total) {
-        if (!ConfigCacheManager.logDynamicPricing || plugin == null) {
-            return;
-        }
-
-        plugin.getLogger().info(String.format(
-                "[DynamicPricing] %s %s amount=%.2f stock=%.2f base=%.4f curve=%.4f shortageHours=%.4f timeMultiplier=%.4f negativeStockMultiplier=%.4f total=%.4f",
-                action, itemId, amount, stock, basePrice, curveStrength, shortageHours, timeMultiplier,
-                negativeStockMultiplier, total));
-    }
-
-    // ============================================================================
-    // CLAMPED INTEGRAL: ∫ clamp(P(s), minPrice, maxPrice) ds
-    // Clamping is built into each region's integral so bulk = 1-at-a-time.
-    // ============================================================================
-    private static double computeClampedIntegral(double B, double a, double b,
-            double L, double minStock, double k, double q, double t) {
-        double total = 0.0;
-        double lowerBound = minStock;
-        double upperBound = L;
-        double maxPrice = B * ConfigCacheManager.maxPriceMultiplier;
-        double minPrice = B * ConfigCacheManager.minPriceMultiplier;
+    // ------------------------------------------------------------------------
+    // PRICING KERNELS
+    // ------------------------------------------------------------------------
 
-        // NEGATIVE REGION (-∞ → lowerBound]
-        double negA = Math.min(a, lowerBound);
-        double negB = Math.min(b, lowerBound);
-        if (negA < negB) {
-            total += integrateNegativeRegionClamped(B, q, t, negA - lowerBound, negB - lowerBound, maxPrice);
+    /**
+     * Compiled pricing constants for a material, or null if it has no config.
+     */
+    static PricingKernel kernel(Material mat) {
+        int slot = mat.ordinal();
+        PricingKernel kernel = kernels[slot];
+        if (kernel != null && kernel.isCurrent()) {
+            return kernel;
         }
 
-        // MID REGION [lowerBound → upperBound]
-        // P(s') = B*t*(1 - 0.5*k*s'/L), linear decreasing from B*t to B*t*(1-0.5k)
-        double effectiveMax = upperBound - lowerBound;
-        if (effectiveMax <= 0)
-            effectiveMax = 1.0;
+        ShopItemConfig cfg = itemConfigs.get(mat);
+        if (cfg == null) {
+            return null;
+        }
+        kernel = PricingKernel.compile(cfg, ConfigCacheManager.generation);
+        kernels[slot] = kernel;
 
-        double midA = Math.max(a, lowerBound);
-        double midB = Math.min(b, upperBound);
-        if (midA < midB) {
-            total += integrateMidRegionClamped(B, k, t, effectiveMax,
-                    midA - lowerBound, midB - lowerBound, maxPrice, minPrice);
+        // A setter may have replaced the config while this one compiled
+        if (itemConfigs.get(mat) != cfg) {
+            kernels[slot] = null;
         }
+        return kernel;
+    }
 
-        // HIGH REGION [upperBound → +∞) — flat price, clamp directly
-        double highA = Math.max(a, upperBound);
-        double highB = Math.max(b, upperBound);
-        if (highA < highB) {
-            double highPrice = Math.max(minPrice, Math.min(B * t * (1.0 - k), maxPrice));
-            total += highPrice * (highB - highA);
+    /**
+     * Kernel for a stored-item variant: the base material's settings with the
+     * variant's own base price.
+     */
+    static PricingKernel variantKernel(String variantId, Material baseMat, double basePrice) {
+        PricingKernel base = kernel(baseMat);
+        if (base == null) {
+            return null;
         }
 
-        return total;
+        PricingKernel kernel = variantKernels.get(variantId);
+        if (kernel == null || kernel.config != base.config || kernel.generation != base.generation
+                || kernel.basePrice != basePrice) {
+            kernel = base.withBasePrice(basePrice);
+            variantKernels.put(variantId, kernel);
+        }
+        return kernel;
     }
 
-    // ============================================================================
-    // REGION INTEGRALS
-    // ============================================================================
+    // ------------------------------------------------------------------------
+    // UNIT PRICE QUOTES
+    // ------------------------------------------------------------------------
 
     /**
-     * Negative region: integrates min(B*t*q^(-s), maxPrice) from a to b.
-     * Finds the threshold where exponential price exceeds maxPrice and splits
-     * the integral into a flat-clamped portion + normal exponential portion.
-     * This makes bulk identical to 1-at-a-time (no post-hoc clamping needed).
+     * Unit buy/sell price for a material, recomputed only when the item was
+     * mutated, its kernel changed, or (if the price drifts with time) the tick
+     * moved on.
      */
-    private static double integrateNegativeRegionClamped(double B, double q, double t, double a, double b, double maxPrice) {
-        // Price function: P(s) = B * t * q^(-s), increasing as s decreases
-        // Find threshold s_thresh where P(s) = maxPrice:
-        //   B * t * q^(-s) = maxPrice  =>  s = -ln(maxPrice/(B*t)) / ln(q)
-
-        // Guard: if q == 1 (negativeStockPercent == 0), log(q) == 0 => flat price in negative region
-        double logQ = Math.log(q);
-        if (Math.abs(logQ) < 1e-12) {
-            // Flat price at B*t, clamped to maxPrice
-            double flatPrice = Math.min(B * t, maxPrice);
-            return flatPrice * (b - a);
-        }
-
-        double sThresh;
-        if (B * t >= maxPrice) {
-            sThresh = 0.0; // entire negative region exceeds max
-        } else {
-            sThresh = -Math.log(maxPrice / (B * t)) / logQ;
+    private static PriceQuote quote(Material mat, PricingKernel kernel, long now) {
+        int slot = mat.ordinal();
+        long version = itemStates.version(mat);
+        long tick = PriceQuote.tickOf(now);
+
+        PriceQuote quote = quotes[slot];
+        if (quote != null && quote.isValid(kernel, version, tick)) {
+            return quote;
         }
 
-        double total = 0.0;
+        double s0 = getStock(mat);
+        double h = getHoursInShortage(mat, kernel, now);
+        double t = kernel.inflationMultiplier(h);
+        boolean timeless = !kernel.hasInflation() || (s0 > 0 && itemStates.getShortageHours(mat) <= 0);
 
-        // Clamped portion: [a, min(b, sThresh)] at flat maxPrice
-        double clampEnd = Math.min(b, sThresh);
-        if (a < clampEnd) {
-            total += maxPrice * (clampEnd - a);
-        }
+        quote = new PriceQuote(kernel, version, timeless ? PriceQuote.TIMELESS : tick,
+                kernel.buyCost(s0, 1, t), kernel.sellValue(s0, 1, t), h);
+        quotes[slot] = quote;
+        return quote;
+    }
+
+    private static PriceQuote variantQuote(String variantId, PricingKernel kernel) {
+        long version = variantVersions.getOrDefault(variantId, 0L);
+        long tick = PriceQuote.tickOf(System.currentTimeMillis());
 
-        // Normal (unclamped) portion: [max(a, sThresh), b]
-        double normalStart = Math.max(a, sThresh);
-        if (normalStart < b) {
-            total += B * t * (Math.pow(q, -normalStart) - Math.pow(q, -b)) / logQ;
+        PriceQuote quote = variantQuotes.get(variantId);
+        if (quote != null && quote.isValid(kernel, version, tick)) {
+            return quote;
         }
 
-        return total;
+        double s0 = getVariantStock(variantId);
+        double h = getVariantShortageHours(variantId);
+        double t = kernel.inflationMultiplier(h);
+        boolean timeless = !kernel.hasInflation()
+                || (s0 > 0 && variantShortageHoursMap.getOrDefault(variantId, 0.0) <= 0);
+
+        quote = new PriceQuote(kernel, version, timeless ? PriceQuote.TIMELESS : tick,
+                kernel.buyCost(s0, 1, t), kernel.sellValue(s0, 1, t), h);
+        variantQuotes.put(variantId, quote);
+        return quote;
     }
 
     /**
-     * Mid region: integrates clamp(B*t*(1 - 0.5*k*s'/L), minPrice, maxPrice) from a to b.
-     * Price is linear decreasing: highest at s'=0 (P=B*t), lowest at s'=L (P=B*t*(1-0.5k)).
-     * Finds thresholds where price crosses max/min clamps and splits accordingly.
+     * Unit buy, unit sell, stock and shortage hours of a variant written to
+     * {@code out}, without the dynamic pricing log line. Returns false if the
+     * variant cannot be priced.
      */
-    private static double integrateMidRegionClamped(double B, double k, double t, double L,
-            double a, double b, double maxPrice, double minPrice) {
-        // P(s') = B*t*(1 - 0.5*k*s'/L)
-        // P decreases as s' increases
-        // MAX threshold: P(s') = maxPrice => s' = 2*L*(1 - maxPrice/(B*t)) / k
-        // MIN threshold: P(s') = minPrice => s' = 2*L*(1 - minPrice/(B*t)) / k
+    static boolean sampleVariant(String variantId, Material baseMat, double basePrice, double[] out) {
+        if (variantId == null || basePrice < 0)
+            return false;
+        PricingKernel kernel = variantKernel(variantId, baseMat, basePrice);
+        if (kernel == null)
+            return false;
 
-        // Guard: if k == 0 (no curve), price is flat at B*t throughout the mid region
-        if (Math.abs(k) < 1e-12) {
-            double flatPrice = Math.max(minPrice, Math.min(B * t, maxPrice));
-            return flatPrice * (b - a);
+        if (kernel.dynamic) {
+            PriceQuote quote = variantQuote(variantId, kernel);
+            out[0] = quote.buy;
+            out[1] = quote.sell;
+            out[3] = quote.shortageHours;
+        } else {
+            out[0] = basePrice;
+            out[1] = basePrice * kernel.sellFactor;
+            out[3] = getVariantShortageHours(variantId);
         }
+        out[2] = getVariantStock(variantId);
+        return true;
+    }
 
-        double total = 0.0;
-
-        // Find where price crosses maxPrice (above this, clamp to max)
-        double sMax = (t > 0 && B * t > maxPrice) ? 2.0 * L * (1.0 - maxPrice / (B * t)) / k : -1.0;
-        // Find where price crosses minPrice (below this, clamp to min)
-        double sMin = (t > 0 && B * t * (1.0 - 0.5 * k) < minPrice) ? 2.0 * L * (1.0 - minPrice / (B * t)) / k : L + 1.0;
+    // ------------------------------------------------------------------------
+    // BATCH QUOTES
+    // ------------------------------------------------------------------------
 
-        // Clamp thresholds to valid range
-        sMax = Math.max(sMax, 0);
-        sMin = Math.min(sMin, L);
+    /**
+     * Pricing data for many items in one pass over the state tables, reading the
+     * clock once. Gives the same values as calling getBasePrice, getStock,
+     * getTotalBuyCost(mat, 1), getTotalSellValue(mat, 1) and
+     * getInflationIncreasePercent(getHoursInShortage(mat)) per item, and shares
+     * the unit quote cache with them.
+     */
+    public static PriceQuoteBatch quoteBatch(Collection<Material> materials, QuoteKind kind) {
+        PriceQuoteBatch batch = new PriceQuoteBatch(kind, materials.size());
 
-        // Region splits: [a, b] may cross sMax and/or sMin
-        // Above max: [a, min(b, sMax)] — flat at maxPrice
-        double maxClampEnd = Math.min(b, sMax);
-        if (a < maxClampEnd) {
-            total += maxPrice * (maxClampEnd - a);
+        if (kind == QuoteKind.STOCK) {
+            for (Material mat : materials) {
+                ShopItemConfig cfg = itemConfigs.get(mat);
+                batch.add(mat, cfg != null ? cfg.basePrice : -1.0, itemStates.getStock(mat));
+            }
+            return batch;
         }
 
-        // Normal region: [max(a, sMax), min(b, sMin)]
-        double normalA = Math.max(a, sMax);
-        double normalB = Math.min(b, sMin);
-        if (normalA < normalB) {
-            double term1 = (normalB - normalA);
-            double term2 = 0.5 * k * (normalB * normalB - normalA * normalA) / (2.0 * L);
-            total += B * (term1 - term2) * t;
+        long now = System.currentTimeMillis();
+        for (Material mat : materials) {
+            double stock = itemStates.getStock(mat);
+            PricingKernel kernel = kernel(mat);
+            if (kernel == null) {
+                batch.add(mat, -1.0, stock, -1.0, -1.0, 0.0, 0.0);
+                continue;
+            }
+
+            double buy;
+            double sell;
+            double hours;
+            if (kernel.basePrice < 0) {
+                buy = -1.0;
+                sell = -1.0;
+                hours = getHoursInShortage(mat, kernel, now);
+            } else if (!kernel.dynamic) {
+                buy = kernel.basePrice;
+                sell = kernel.basePrice * kernel.sellFactor;
+                hours = getHoursInShortage(mat, kernel, now);
+            } else {
+                PriceQuote quote = quote(mat, kernel, now);
+                buy = quote.buy;
+                sell = quote.sell;
+                hours = quote.shortageHours;
+            }
+
+            double percent = Math.max(0.0, (kernel.inflationMultiplier(hours) - 1.0) * 100.0);
+            batch.add(mat, kernel.basePrice, stock, buy, sell, percent, hours);
         }
+        return batch;
+    }
+
+    /**
+     * Replace an item's config and drop its compiled kernel.
+     */
+    private static void putItemConfig(Material mat, ShopItemConfig cfg) {
+        itemConfigs.put(mat, cfg);
+        kernels[mat.ordinal()] = null;
+        notifyCatalog(mat);
+    }
 
-        // Below min: [max(a, sMin), b] — flat at minPrice
-        double minClampStart = Math.max(a, sMin);
-        if (minClampStart < b) {
-            total += minPrice * (b - minClampStart);
+    private static void logDynamicPricing(String action, String itemId, double basePrice, double stock, double amount,
+            double shortageHours, double timeMultiplier, double curveStrength, double negativeStockMultiplier,
+            double total) {
+        if (!ConfigCacheManager.logDynamicPricing || plugin == null) {
+            return;
         }
 
-        return total;
+        plugin.getLogger().info(String.format(
+                "[DynamicPricing] %s %s amount=%.2f stock=%.2f base=%.4f curve=%.4f shortageHours=%.4f timeMultiplier=%.4f negativeStockMultiplier=%.4f total=%.4f",
+                action, itemId, amount, stock, basePrice, curveStrength, shortageHours, timeMultiplier,
+                negativeStockMultiplier, total));
     }
 
     // ------------------------------------------------------------------------
@@ -1169,19 +1330,19 @@ public class ShopDataManager {
     // DYNAMIC DATA ACCESSORS
     // ------------------------------------------------------------------------
     public static double getStock(Material mat) {
-        return stockMap.getOrDefault(mat, 0.0);
+        return itemStates.getStock(mat);
     }
 
     public static double getPurchases(Material mat) {
-        return purchasesMap.getOrDefault(mat, 0.0);
+        return itemStates.getPurchases(mat);
     }
 
     public static long getLastUpdate(Material mat) {
-        return lastUpdateMap.getOrDefault(mat, System.currentTimeMillis());
+        return itemStates.getLastUpdate(mat, System.currentTimeMillis());
     }
 
     public static void setLastUpdate(Material mat, long timestamp) {
-        lastUpdateMap.put(mat, timestamp);
+        itemStates.setLastUpdate(mat, timestamp);
         markDirty(mat);
     }
 
@@ -1203,32 +1364,32 @@ public class ShopDataManager {
             }
         }
 
-        double oldStock = stockMap.getOrDefault(mat, 0.0);
-        stockMap.put(mat, stock);
+        double oldStock = itemStates.getStock(mat);
+        itemStates.setStock(mat, stock);
 
         // If stock becomes positive, reset shortage hours
         if (stock > 0) {
-            shortageHoursMap.put(mat, 0.0);
+            itemStates.setShortageHours(mat, 0.0);
         }
 
         if (stock <= 0 && oldStock > 0) {
-            lastUpdateMap.put(mat, System.currentTimeMillis());
+            itemStates.setLastUpdate(mat, System.currentTimeMillis());
         } else if (stock > 0 && oldStock <= 0) {
-            lastUpdateMap.put(mat, System.currentTimeMillis());
+            itemStates.setLastUpdate(mat, System.currentTimeMillis());
         } else {
             // Even if state didn't flip, we updated stock, potentially resetting "last
             // update"
             // logic implies we should reset lastUpdate on ANY significant change?
             // With cumulative logic, we usually WANT to reset lastUpdate so "live" tracking
             // starts fresh.
-            lastUpdateMap.put(mat, System.currentTimeMillis());
+            itemStates.setLastUpdate(mat, System.currentTimeMillis());
         }
 
         markDirty(mat);
     }
 
     public static void setPurchasesDirect(Material mat, double purchases) {
-        purchasesMap.put(mat, purchases);
+        itemStates.setPurchases(mat, purchases);
         markDirty(mat);
     }
 
@@ -1255,7 +1416,7 @@ public class ShopDataManager {
             }
         }
 
-        stockMap.put(mat, newStock);
+        itemStates.setStock(mat, newStock);
 
         // Note: shortage hours are NOT reset when stock goes positive.
         // They only accumulate while stock <= 0 (via accumulateShortage).
@@ -1266,7 +1427,7 @@ public class ShopDataManager {
 
         // Even if we stay negative, we reset lastUpdate because we "baked" the previous
         // time
-        lastUpdateMap.put(mat, System.currentTimeMillis());
+        itemStates.setLastUpdate(mat, System.currentTimeMillis());
 
         markDirty(mat);
 
@@ -1278,9 +1439,9 @@ public class ShopDataManager {
     }
 
     /**
-     * Force an immediate write of the current in-memory dynamic data to
-     * shopdata.yml.
+     * Queue the current in-memory dynamic data for writing to the store.
      * Used on plugin shutdown and before certain cross-server sync operations.
+     * The write itself happens on the writer thread.
      */
     public static void flushQueue() {
         saveQueuedItems();
@@ -1322,211 +1483,156 @@ public class ShopDataManager {
     // DYNAMIC DATA SAVE / LOAD (YAML)
     // ------------------------------------------------------------------------
     public static void saveDynamicData() {
-        ConfigurationSection itemsSec = shopDataConfig.getConfigurationSection("items");
-        if (itemsSec == null) {
-            itemsSec = shopDataConfig.createSection("items");
+        // Rotate before capturing, so everything in the old journal is covered by
+        // this snapshot and it can be deleted once the snapshot is written
+        ShopDataJournal compacting = journal;
+        if (compacting != null) {
+            compacting.rotate();
         }
 
+        Map<String, ShopDataSnapshot.ItemState> items = new HashMap<>();
         for (Material mat : itemConfigs.keySet()) {
-            String key = mat.name();
-            ConfigurationSection sec = itemsSec.getConfigurationSection(key);
-            if (sec == null)
-                sec = itemsSec.createSection(key);
-
-            sec.set("stock", stockMap.getOrDefault(mat, 0.0));
-            sec.set("purchases", purchasesMap.getOrDefault(mat, 0.0));
-            sec.set("last_update", lastUpdateMap.getOrDefault(mat, System.currentTimeMillis()));
-            sec.set("shortage_hours", shortageHoursMap.getOrDefault(mat, 0.0));
+            items.put(mat.name(), itemState(mat));
         }
 
-        // Save variant dynamic data
-        ConfigurationSection variantsSec = shopDataConfig.getConfigurationSection("variants");
-        if (variantsSec == null) {
-            variantsSec = shopDataConfig.createSection("variants");
-        }
+        Map<String, ShopDataSnapshot.ItemState> variants = new HashMap<>();
         for (String variantId : variantStockMap.keySet()) {
-            ConfigurationSection sec = variantsSec.getConfigurationSection(variantId);
-            if (sec == null) sec = variantsSec.createSection(variantId);
-            sec.set("stock", variantStockMap.getOrDefault(variantId, 0.0));
-            sec.set("purchases", variantPurchasesMap.getOrDefault(variantId, 0.0));
-            sec.set("last_update", variantLastUpdateMap.getOrDefault(variantId, System.currentTimeMillis()));
-            sec.set("shortage_hours", variantShortageHoursMap.getOrDefault(variantId, 0.0));
+            variants.put(variantId, variantState(variantId));
         }
         saveQueue.clear();
         variantSaveQueue.clear();
 
-        try {
-            shopDataConfig.save(shopDataFile);
-        } catch (IOException e) {
-            Bukkit.getLogger().severe("[DynamicShop] Failed to save shopdata.yml: " + e.getMessage());
-        }
+        writer.submit(new ShopDataSnapshot(items, variants, true),
+                compacting != null ? compacting::discardRotated : null);
     }
 
+    /**
+     * Snapshot only the dirty entries and hand them to the writer thread.
+     * Serialization and disk I/O never happen on the calling thread.
+     */
     public static void saveQueuedItems() {
         if (saveQueue.isEmpty() && variantSaveQueue.isEmpty())
             return;
 
-        ConfigurationSection itemsSec = shopDataConfig.getConfigurationSection("items");
-        if (itemsSec == null) {
-            itemsSec = shopDataConfig.createSection("items");
+        // Dirty entries are already in the journal; the store is only
+        // written when the journal is compacted
+        if (journal != null) {
+            saveQueue.clear();
+            variantSaveQueue.clear();
+            return;
         }
 
         // Copy to avoid concurrent modification if something calls markDirty while
         // saving
         Set<Material> toSave = new HashSet<>(saveQueue);
+        Set<String> variantsToSave = new HashSet<>(variantSaveQueue);
 
+        Map<String, ShopDataSnapshot.ItemState> items = new HashMap<>();
         for (Material mat : toSave) {
-            String key = mat.name();
-            ConfigurationSection sec = itemsSec.getConfigurationSection(key);
-            if (sec == null) {
-                sec = itemsSec.createSection(key);
-            }
-
-            sec.set("stock", stockMap.getOrDefault(mat, 0.0));
-            sec.set("purchases", purchasesMap.getOrDefault(mat, 0.0));
-            sec.set("last_update", lastUpdateMap.getOrDefault(mat, System.currentTimeMillis()));
-            sec.set("shortage_hours", shortageHoursMap.getOrDefault(mat, 0.0));
+            items.put(mat.name(), itemState(mat));
         }
 
-        ConfigurationSection variantsSec = shopDataConfig.getConfigurationSection("variants");
-        if (variantsSec == null) {
-            variantsSec = shopDataConfig.createSection("variants");
-        }
-        Set<String> variantsToSave = new HashSet<>(variantSaveQueue);
+        Map<String, ShopDataSnapshot.ItemState> variants = new HashMap<>();
         for (String variantId : variantsToSave) {
-            ConfigurationSection sec = variantsSec.getConfigurationSection(variantId);
-            if (sec == null) {
-                sec = variantsSec.createSection(variantId);
-            }
-
-            sec.set("stock", variantStockMap.getOrDefault(variantId, 0.0));
-            sec.set("purchases", variantPurchasesMap.getOrDefault(variantId, 0.0));
-            sec.set("last_update", variantLastUpdateMap.getOrDefault(variantId, System.currentTimeMillis()));
-            sec.set("shortage_hours", variantShortageHoursMap.getOrDefault(variantId, 0.0));
+            variants.put(variantId, variantState(variantId));
         }
 
-        // Now clear the ones we just saved
+        // Now clear the ones we just captured
         saveQueue.removeAll(toSave);
         variantSaveQueue.removeAll(variantsToSave);
 
-        try {
-            shopDataConfig.save(shopDataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("[DynamicShop] Failed to save shopdata.yml: " + e.getMessage());
-        }
+        writer.submit(new ShopDataSnapshot(items, variants, false));
+    }
+
+    private static ShopDataSnapshot.ItemState itemState(Material mat) {
+        return itemStates.snapshot(mat, System.currentTimeMillis());
+    }
+
+    private static ShopDataSnapshot.ItemState variantState(String variantId) {
+        return new ShopDataSnapshot.ItemState(
+                variantStockMap.getOrDefault(variantId, 0.0),
+                variantPurchasesMap.getOrDefault(variantId, 0.0),
+                variantLastUpdateMap.getOrDefault(variantId, System.currentTimeMillis()),
+                variantShortageHoursMap.getOrDefault(variantId, 0.0));
     }
 
     // ------------------------------------------------------------------------
     // LOAD DYNAMIC DATA
     // ------------------------------------------------------------------------
     private static void loadDynamicData() {
-        stockMap.clear();
-        purchasesMap.clear();
-        lastUpdateMap.clear();
-        shortageHoursMap.clear();
+        itemStates.clear();
         variantStockMap.clear();
         variantPurchasesMap.clear();
         variantLastUpdateMap.clear();
         variantShortageHoursMap.clear();
+        variantQuotes.clear();
+
+        ShopDataSnapshot stored;
+        try {
+            stored = store.load();
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ShopData] Failed to load " + store.describe() + ": " + e.getMessage());
+            stored = null;
+        }
 
-        if (!shopDataFile.exists()) {
-            plugin.getLogger().info("§e[ShopData] No shopdata.yml found — starting fresh.");
-            shopDataConfig = new YamlConfiguration();
-            shopDataConfig.createSection("items");
-            saveDynamicData();
+        if (stored == null) {
+            plugin.getLogger().info("§e[ShopData] No " + store.describe() + " found — starting fresh.");
 
             long now = System.currentTimeMillis();
             for (Material mat : itemConfigs.keySet()) {
-                stockMap.put(mat, 0.0);
-                purchasesMap.put(mat, 0.0);
-                lastUpdateMap.put(mat, now);
-                shortageHoursMap.put(mat, 0.0);
+                itemStates.put(mat, 0.0, 0.0, now, 0.0);
             }
 
+            replayJournal();
             return;
         }
 
-        ConfigurationSection itemsSec = shopDataConfig.getConfigurationSection("items");
-        if (itemsSec == null) {
-            itemsSec = shopDataConfig.createSection("items");
-        }
-
-        ConfigurationSection stockSec = shopDataConfig.getConfigurationSection("stock");
-        ConfigurationSection purchasesSec = shopDataConfig.getConfigurationSection("purchases");
-        ConfigurationSection lastUpdateSec = shopDataConfig.getConfigurationSection("last_update");
-        ConfigurationSection shortageSec = shopDataConfig.getConfigurationSection("shortage_hours");
-
         long now = System.currentTimeMillis();
 
         for (Material mat : itemConfigs.keySet()) {
-            String key = mat.name();
-
-            ConfigurationSection sec = itemsSec.getConfigurationSection(key);
-            if (sec == null)
-                sec = itemsSec.createSection(key);
-
-            // STOCK
-            double stock = 0.0;
-            if (sec.contains("stock")) {
-                stock = sec.getDouble("stock");
-            } else if (stockSec != null && stockSec.isDouble(key)) {
-                stock = stockSec.getDouble(key);
-            }
-            sec.set("stock", stock);
-            stockMap.put(mat, stock);
-
-            // PURCHASES
-            double purchases = 0.0;
-            if (sec.contains("purchases")) {
-                purchases = sec.getDouble("purchases");
-            } else if (purchasesSec != null && purchasesSec.isDouble(key)) {
-                purchases = purchasesSec.getDouble(key);
+            ShopDataSnapshot.ItemState state = stored.items().get(mat.name());
+            if (state == null) {
+                state = new ShopDataSnapshot.ItemState(0.0, 0.0, now, 0.0);
             }
-            sec.set("purchases", purchases);
-            purchasesMap.put(mat, purchases);
-
-            // LAST UPDATE
-            long lastUpdate = now;
-            if (sec.contains("last_update")) {
-                lastUpdate = sec.getLong("last_update", now);
-            } else if (lastUpdateSec != null && lastUpdateSec.isLong(key)) {
-                lastUpdate = lastUpdateSec.getLong(key, now);
-            }
-            sec.set("last_update", lastUpdate);
-            lastUpdateMap.put(mat, lastUpdate);
-
-            // SHORTAGE HOURS
-            double shortageHours = 0.0;
-            if (sec.contains("shortage_hours")) {
-                shortageHours = sec.getDouble("shortage_hours");
-            } else if (shortageSec != null && shortageSec.isDouble(key)) {
-                shortageHours = shortageSec.getDouble(key);
-            }
-            sec.set("shortage_hours", shortageHours);
-            shortageHoursMap.put(mat, shortageHours);
+            itemStates.put(mat, state.stock(), state.purchases(), state.lastUpdate(), state.shortageHours());
         }
 
         // Load variant dynamic data
-        ConfigurationSection variantsSec = shopDataConfig.getConfigurationSection("variants");
-        if (variantsSec != null) {
-            for (String variantId : variantsSec.getKeys(false)) {
-                ConfigurationSection sec = variantsSec.getConfigurationSection(variantId);
-                if (sec == null) continue;
-                variantStockMap.put(variantId, sec.getDouble("stock", 0.0));
-                variantPurchasesMap.put(variantId, sec.getDouble("purchases", 0.0));
-                variantLastUpdateMap.put(variantId, sec.getLong("last_update", now));
-                variantShortageHoursMap.put(variantId, sec.getDouble("shortage_hours", 0.0));
-            }
-        }
+        stored.variants().forEach((variantId, state) -> {
+            variantStockMap.put(variantId, state.stock());
+            variantPurchasesMap.put(variantId, state.purchases());
+            variantLastUpdateMap.put(variantId, state.lastUpdate());
+            variantShortageHoursMap.put(variantId, state.shortageHours());
+        });
 
+        replayJournal();
         initializeMissingStoredItemVariants();
+    }
+
+    /**
+     * Re-apply mutations recorded after the last full save. Records hold absolute
+     * values, so the last one per key wins.
+     */
+    private static void replayJournal() {
+        int replayed = journal.replay((kind, key, state) -> {
+            if (kind == ShopDataJournal.KIND_VARIANT) {
+                variantStockMap.put(key, state.stock());
+                variantPurchasesMap.put(key, state.purchases());
+                variantLastUpdateMap.put(key, state.lastUpdate());
+                variantShortageHoursMap.put(key, state.shortageHours());
+                return;
+            }
 
-        // Cleanup old root-level sections (migrated into items.*)
-        shopDataConfig.set("stock", null);
-        shopDataConfig.set("last_update", null);
-        shopDataConfig.set("purchases", null);
+            Material mat = Material.matchMaterial(key);
+            if (mat == null || !itemConfigs.containsKey(mat)) {
+                return;
+            }
+            itemStates.put(mat, state.stock(), state.purchases(), state.lastUpdate(), state.shortageHours());
+        });
 
-        saveDynamicData();
+        if (replayed > 0) {
+            plugin.getLogger().info("[ShopData] Replayed " + replayed + " journal entries");
+        }
     }
 
     private static void initializeMissingStoredItemVariants() {
@@ -1574,22 +1680,25 @@ public class ShopDataManager {
      *   effectiveHours = storedHours - (decayRate * timeSinceLastUpdate)
      */
     public static double getHoursInShortage(Material mat) {
-        double stored = shortageHoursMap.getOrDefault(mat, 0.0);
+        return getHoursInShortage(mat, kernel(mat), System.currentTimeMillis());
+    }
+
+    private static double getHoursInShortage(Material mat, PricingKernel kernel, long now) {
+        double stored = itemStates.getShortageHours(mat);
         double stock = getStock(mat);
 
         if (stock <= 0) {
             // Currently out of stock — add live duration since last update
-            long diff = System.currentTimeMillis() - getLastUpdate(mat);
+            long diff = now - itemStates.getLastUpdate(mat, now);
             stored += (diff / 3600000.0);
         } else if (stored > 0) {
             // Stock is positive — apply decay based on how full the shop is
             double decayRate = ConfigCacheManager.shortageDecayPercentPerHour;
             if (decayRate > 0) {
-                ShopItemConfig cfg = itemConfigs.get(mat);
-                double L = (cfg != null && cfg.maxStock != null) ? cfg.maxStock : ConfigCacheManager.maxStock;
+                double L = kernel != null ? kernel.maxStock : ConfigCacheManager.maxStock;
                 double stockRatio = Math.min(stock / L, 1.0); // 0.0 → 1.0
 
-                long diff = System.currentTimeMillis() - getLastUpdate(mat);
+                long diff = now - itemStates.getLastUpdate(mat, now);
                 double hoursSinceUpdate = diff / 3600000.0;
 
                 // Decay: the fuller the shop, the faster shortage hours drain
@@ -1606,15 +1715,18 @@ public class ShopDataManager {
      * Call this BEFORE resetting lastUpdate or changing stock.
      */
     private static void accumulateShortage(Material mat) {
-        double stored = shortageHoursMap.getOrDefault(mat, 0.0);
+        accumulateShortage(mat, System.currentTimeMillis());
+    }
+
+    private static void accumulateShortage(Material mat, long now) {
+        double stored = itemStates.getShortageHours(mat);
         double stock = getStock(mat);
-        long now = System.currentTimeMillis();
-        long last = getLastUpdate(mat);
+        long last = itemStates.getLastUpdate(mat, now);
         double deltaHours = (now - last) / 3600000.0;
 
         if (stock <= 0) {
             // Out of stock — accumulate shortage time
-            shortageHoursMap.put(mat, stored + deltaHours);
+            itemStates.setShortageHours(mat, stored + deltaHours);
             markDirty(mat);
         } else if (stored > 0) {
             // Stock is positive and we have stored shortage hours — apply decay
@@ -1625,20 +1737,23 @@ public class ShopDataManager {
                 double stockRatio = Math.min(stock / L, 1.0);
                 double decay = decayRate * stockRatio * deltaHours;
                 double newStored = Math.max(0.0, stored - decay);
-                shortageHoursMap.put(mat, newStored);
+                itemStates.setShortageHours(mat, newStored);
                 markDirty(mat);
             }
         }
     }
 
     private static void accumulateVariantShortage(String variantId) {
+        accumulateVariantShortage(variantId, System.currentTimeMillis());
+    }
+
+    private static void accumulateVariantShortage(String variantId, long now) {
         if (variantId == null) {
             return;
         }
 
         double stored = variantShortageHoursMap.getOrDefault(variantId, 0.0);
         double stock = getVariantStock(variantId);
-        long now = System.currentTimeMillis();
         long last = variantLastUpdateMap.getOrDefault(variantId, now);
         double deltaHours = (now - last) / 3600000.0;
 
@@ -1661,10 +1776,10 @@ public class ShopDataManager {
             return;
         }
 
-        double stored = shortageHoursMap.getOrDefault(mat, 0.0);
+        double stored = itemStates.getShortageHours(mat);
         double corrected = getCorrectedShortageHours(stored);
         if (corrected < stored) {
-            shortageHoursMap.put(mat, corrected);
+            itemStates.setShortageHours(mat, corrected);
             markDirty(mat);
         }
     }
@@ -1721,30 +1836,145 @@ public class ShopDataManager {
     }
 
     public static void setHoursInShortage(Material mat, double hours) {
-        shortageHoursMap.put(mat, hours);
+        itemStates.setShortageHours(mat, hours);
         markDirty(mat);
     }
 
+    // ------------------------------------------------------------------------
+    // SHORTAGE COMPACTION
+    // ------------------------------------------------------------------------
+
     /**
-     * Periodic tick — bakes shortage accumulation/decay for ALL items.
-     * Called every 5 minutes so items passively gain/lose shortage
-     * even without player transactions.
+     * Shortage hours are never ticked: getHoursInShortage derives the live value
+     * from the stored hours and lastUpdate, and every stock mutation bakes it in
+     * first. Compaction walks a small slice of items each tick and bakes only
+     * those that need it:
+     *
+     * - out of stock for longer than SHORTAGE_COMPACT_AGE_MS, so the stored
+     *   value does not fall far behind (other servers, web, saved data)
+     * - in stock with shortage that has fully decayed, so the stored value drops
+     *   to zero and the item's unit quote stops depending on time
+     *
+     * Items in stock with no shortage are skipped without being marked dirty.
      */
-    public static void tickAllShortage() {
+    public static void compactShortage() {
         long now = System.currentTimeMillis();
+
+        for (int i = 0; i < SHORTAGE_COMPACT_SLICE; i++) {
+            Material mat = ALL_MATERIALS[shortageCursor];
+            shortageCursor = shortageCursor + 1 == ALL_MATERIALS.length ? 0 : shortageCursor + 1;
+
+            PricingKernel kernel = kernel(mat);
+            if (kernel == null || kernel.basePrice < 0) {
+                continue; // not in the shop or disabled
+            }
+            double stock = getStock(mat);
+            double stored = itemStates.getShortageHours(mat);
+            if (isShortageStale(stock, stored, now - itemStates.getLastUpdate(mat, now))
+                    || (stock > 0 && stored > 0 && getHoursInShortage(mat, kernel, now) <= 0)) {
+                accumulateShortage(mat, now);
+                itemStates.setLastUpdate(mat, now);
+                markDirty(mat); // journal the baked hours together with the new lastUpdate
+            }
+        }
+
+        for (int i = 0; i < SHORTAGE_COMPACT_SLICE; i++) {
+            if (variantCursor == null || !variantCursor.hasNext()) {
+                variantCursor = variantStockMap.keySet().iterator();
+                if (!variantCursor.hasNext()) {
+                    break;
+                }
+            }
+            String variantId = variantCursor.next();
+            double stock = getVariantStock(variantId);
+            double stored = variantShortageHoursMap.getOrDefault(variantId, 0.0);
+            if (isShortageStale(stock, stored, now - variantLastUpdateMap.getOrDefault(variantId, now))
+                    || (stock > 0 && stored > 0 && getVariantShortageHours(variantId) <= 0)) {
+                accumulateVariantShortage(variantId, now);
+                variantLastUpdateMap.put(variantId, now);
+                markVariantDirty(variantId);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // INFLATION SCHEDULE
+    // ------------------------------------------------------------------------
+
+    /**
+     * Runs every second on the main thread. Items whose inflation multiplier
+     * crossed its next 0.5% step are rescheduled and re-rendered in open shop
+     * pages and marked in the web catalog; nothing else is re-priced.
+     */
+    private static void runInflationSchedule() {
+        if (inflationGeneration != ConfigCacheManager.generation) {
+            rescheduleAllInflation(); // rates changed (reload / web config)
+        }
+
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        Set<String> variants = new HashSet<>();
+        inflationSchedule.drainDue(System.currentTimeMillis(), materials, variants);
+        if (materials.isEmpty() && variants.isEmpty()) {
+            return;
+        }
+
+        for (Material mat : materials) {
+            scheduleInflation(mat);
+        }
+        for (String variantId : variants) {
+            scheduleVariantInflation(variantId);
+        }
+
+        if (plugin.getShopListener() != null) {
+            plugin.getShopListener().refreshPrices(materials, variants);
+        }
+        if (plugin.getWebServer() != null && !materials.isEmpty()) {
+            plugin.getWebServer().getCatalog().markItems(materials);
+        }
+    }
+
+    private static void rescheduleAllInflation() {
+        inflationGeneration = ConfigCacheManager.generation;
+        inflationSchedule.clear();
         for (Material mat : itemConfigs.keySet()) {
-            if (getBasePrice(mat) < 0) continue; // skip disabled
-            accumulateShortage(mat);
-            lastUpdateMap.put(mat, now);
+            scheduleInflation(mat);
         }
         for (String variantId : variantStockMap.keySet()) {
-            accumulateVariantShortage(variantId);
-            variantLastUpdateMap.put(variantId, now);
+            scheduleVariantInflation(variantId);
         }
     }
 
+    private static void scheduleInflation(Material mat) {
+        PricingKernel kernel = kernel(mat);
+        if (kernel == null || kernel.basePrice < 0 || !kernel.dynamic) {
+            inflationSchedule.schedule(mat, InflationSchedule.NEVER);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        inflationSchedule.schedule(mat, InflationSchedule.nextCrossing(
+                getStock(mat), getHoursInShortage(mat, kernel, now), kernel.maxStock, now));
+    }
+
+    private static void scheduleVariantInflation(String variantId) {
+        if (!ConfigCacheManager.dynamicPricingEnabled) {
+            inflationSchedule.scheduleVariant(variantId, InflationSchedule.NEVER);
+            return;
+        }
+        inflationSchedule.scheduleVariant(variantId, InflationSchedule.nextCrossing(
+                getVariantStock(variantId), getVariantShortageHours(variantId),
+                ConfigCacheManager.maxStock, System.currentTimeMillis()));
+    }
+
+    /**
+     * True if shortage is still accumulating or decaying and was last baked
+     * more than SHORTAGE_COMPACT_AGE_MS ago.
+     */
+    private static boolean isShortageStale(double stock, double stored, long sinceUpdate) {
+        return (stock <= 0 || stored > 0) && sinceUpdate >= SHORTAGE_COMPACT_AGE_MS;
+    }
+
     public static void addHoursInShortage(Material mat, double deltaHours) {
-        shortageHoursMap.put(mat, getHoursInShortage(mat) + deltaHours);
+        itemStates.setShortageHours(mat, getHoursInShortage(mat) + deltaHours);
         markDirty(mat);
     }
 
@@ -1753,12 +1983,12 @@ public class ShopDataManager {
     }
 
     public static void resetAllShortageData() {
-        shortageHoursMap.clear();
         variantShortageHoursMap.clear();
         long now = System.currentTimeMillis();
         for (Material mat : itemConfigs.keySet()) {
+            itemStates.setShortageHours(mat, 0.0);
             // Reset last update to now so "live" tracking doesn't jump
-            lastUpdateMap.put(mat, now);
+            itemStates.setLastUpdate(mat, now);
             markDirty(mat);
         }
         for (String variantId : variantStockMap.keySet()) {
@@ -1772,14 +2002,7 @@ public class ShopDataManager {
     // ITEM STATISTICS (for PlaceholderAPI)
     // ------------------------------------------------------------------------
     public static double getTotalStockValue() {
-        double total = 0.0;
-        for (Material mat : itemConfigs.keySet()) {
-            double base = getBasePrice(mat);
-            if (base <= 0)
-                continue;
-            total += getStock(mat) * base;
-        }
-        return total;
+        return quoteBatch(itemConfigs.keySet(), QuoteKind.STOCK).totalStockValue();
     }
 
     public static double getTotalPurchasesValue() {
@@ -1805,12 +2028,32 @@ public class ShopDataManager {
     private static void markDirty(Material mat) {
         if (mat != null) {
             saveQueue.add(mat);
+            if (journal != null) {
+                journal.append(ShopDataJournal.KIND_ITEM, mat.name(), itemState(mat));
+            }
+            scheduleInflation(mat);
+            notifyCatalog(mat);
+        }
+    }
+
+    /**
+     * Tell the web catalog an item's stock, price or config changed.
+     */
+    private static void notifyCatalog(Material mat) {
+        WebServer webServer = plugin != null ? plugin.getWebServer() : null;
+        if (webServer != null) {
+            webServer.getCatalog().markItem(mat);
         }
     }
 
     private static void markVariantDirty(String variantId) {
         if (variantId != null && !variantId.isEmpty()) {
             variantSaveQueue.add(variantId);
+            variantVersions.merge(variantId, 1L, Long::sum);
+            if (journal != null) {
+                journal.append(ShopDataJournal.KIND_VARIANT, variantId, variantState(variantId));
+            }
+            scheduleVariantInflation(variantId);
         }
     }
 
@@ -1854,19 +2097,18 @@ public class ShopDataManager {
             int quantitySold = 0;
 
             if (plugin != null && plugin.getTransactionLogger() != null) {
+                // item index: only this item's transactions are visited
                 List<org.minecraftsmp.dynamicshop.transactions.Transaction> transactions = plugin.getTransactionLogger()
-                        .getRecentTransactions();
+                        .getTransactionsByItem(mat.name(), Integer.MAX_VALUE);
 
                 for (org.minecraftsmp.dynamicshop.transactions.Transaction tx : transactions) {
-                    if (tx.getItem().equalsIgnoreCase(mat.name())) {
-                        if (tx.getType() == org.minecraftsmp.dynamicshop.transactions.Transaction.TransactionType.BUY) {
-                            timesBought++;
-                            quantityBought += tx.getAmount();
-                        } else if (tx
-                                .getType() == org.minecraftsmp.dynamicshop.transactions.Transaction.TransactionType.SELL) {
-                            timesSold++;
-                            quantitySold += tx.getAmount();
-                        }
+                    if (tx.getType() == org.minecraftsmp.dynamicshop.transactions.Transaction.TransactionType.BUY) {
+                        timesBought++;
+                        quantityBought += tx.getAmount();
+                    } else if (tx
+                            .getType() == org.minecraftsmp.dynamicshop.transactions.Transaction.TransactionType.SELL) {
+                        timesSold++;
+                        quantitySold += tx.getAmount();
                     }
                 }
             }
@@ -1881,23 +2123,19 @@ public class ShopDataManager {
     // DEBUG / RESET HELPERS
     // ------------------------------------------------------------------------
     public static void resetAllDynamicData() {
+        // Journaled like any other change, so a replay after a crash can't undo the reset
         for (Material mat : itemConfigs.keySet()) {
-            stockMap.put(mat, 0.0);
-            purchasesMap.put(mat, 0.0);
-            lastUpdateMap.put(mat, System.currentTimeMillis());
-            shortageHoursMap.put(mat, 0.0);
+            itemStates.put(mat, 0.0, 0.0, System.currentTimeMillis(), 0.0);
+            markDirty(mat);
         }
         for (String variantId : variantStockMap.keySet()) {
             variantStockMap.put(variantId, 0.0);
             variantPurchasesMap.put(variantId, 0.0);
             variantLastUpdateMap.put(variantId, System.currentTimeMillis());
             variantShortageHoursMap.put(variantId, 0.0);
+            markVariantDirty(variantId);
         }
 
-        shopDataConfig.set("stock", null);
-        shopDataConfig.set("last_update", null);
-        shopDataConfig.set("purchases", null);
-
         saveDynamicData();
     }
 
@@ -1942,7 +2180,7 @@ public class ShopDataManager {
             newConfig = new ShopItemConfig(price, old.maxStock, old.minStock, old.maxStockStorage, old.minStockStorage,
                     old.disableBuy, old.disableSell, old.categoryOverride, old.stockRate);
         }
-        itemConfigs.put(mat, newConfig);
+        putItemConfig(mat, newConfig);
 
         // Save to config
         plugin.getConfig().set("items." + mat.name() + ".base", price);
@@ -1957,7 +2195,7 @@ public class ShopDataManager {
         if (old == null) return;
         ShopItemConfig newConfig = new ShopItemConfig(old.basePrice, old.maxStock, old.minStock,
                 old.maxStockStorage, old.minStockStorage, disabled, old.disableSell, old.categoryOverride, old.stockRate);
-        itemConfigs.put(mat, newConfig);
+        putItemConfig(mat, newConfig);
 
         plugin.getConfig().set("items." + mat.name() + ".disable-buy", disabled);
         plugin.saveConfig();
@@ -1971,7 +2209,7 @@ public class ShopDataManager {
         if (old == null) return;
         ShopItemConfig newConfig = new ShopItemConfig(old.basePrice, old.maxStock, old.minStock,
                 old.maxStockStorage, old.minStockStorage, old.disableBuy, disabled, old.categoryOverride, old.stockRate);
-        itemConfigs.put(mat, newConfig);
+        putItemConfig(mat, newConfig);
 
         plugin.getConfig().set("items." + mat.name() + ".disable-sell", disabled);
         plugin.saveConfig();
@@ -1985,7 +2223,7 @@ public class ShopDataManager {
         if (old == null) return;
         ShopItemConfig newConfig = new ShopItemConfig(old.basePrice(), max, old.minStock(),
                 old.maxStockStorage(), old.minStockStorage(), old.disableBuy(), old.disableSell(), old.categoryOverride(), old.stockRate());
-        itemConfigs.put(mat, newConfig);
+        putItemConfig(mat, newConfig);
 
         plugin.getConfig().set("items." + mat.name() + ".max-stock", max);
         plugin.saveConfig();
@@ -1999,7 +2237,7 @@ public class ShopDataManager {
         if (old == null) return;
         ShopItemConfig newConfig = new ShopItemConfig(old.basePrice(), old.maxStock(), old.minStock(),
                 max, old.minStockStorage(), old.disableBuy(), old.disableSell(), old.categoryOverride(), old.stockRate());
-        itemConfigs.put(mat, newConfig);
+        putItemConfig(mat, newConfig);
 
         plugin.getConfig().set("items." + mat.name() + ".max-stock-storage", max);
         plugin.saveConfig();
@@ -2013,7 +2251,7 @@ public class ShopDataManager {
         if (old == null) return;
         ShopItemConfig newConfig = new ShopItemConfig(old.basePrice, old.maxStock, old.minStock,
                 old.maxStockStorage, old.minStockStorage, old.disableBuy, old.disableSell, old.categoryOverride, rate);
-        itemConfigs.put(mat, newConfig);
+        putItemConfig(mat, newConfig);
 
         if (rate != null) {
             plugin.getConfig().set("items." + mat.name() + ".rate", rate);
@@ -2040,6 +2278,7 @@ public class ShopDataManager {
     public static void setCategoryOverride(Material mat, ItemCategory category) {
         categoryOverrides.put(mat, category);
         categoryCache.put(mat, category); // Update cache too
+        notifyCatalog(mat);
 
         // Save to config
         plugin.getConfig().set("items." + mat.name() + ".category", category.name());
@@ -39,6 +39,7 @@ public class SpecialShopManager {
     public void reload() {
         registry.clear();
         loadFromConfig();
+        notifyCatalog();
         plugin.getLogger().info("Reloaded " + registry.size() + " special shop items");
     }
 
@@ -57,6 +58,7 @@ public class SpecialShopManager {
         SpecialShopItem item = SpecialShopItem.forPermission(id, displayName, price, permission, permissionWorld, displayMaterial,
                 requiredPermission);
         registry.put(id, item);
+        notifyCatalog();
 
         if (save) {
             String path = "special_items." + id;
@@ -90,6 +92,7 @@ public class SpecialShopManager {
         SpecialShopItem item = SpecialShopItem.forGroup(id, displayName, price, groupName, groupWorld, displayMaterial,
                 requiredPermission);
         registry.put(id, item);
+        notifyCatalog();
 
         if (save) {
             String path = "special_items." + id;
@@ -122,6 +125,7 @@ public class SpecialShopManager {
         SpecialShopItem item = SpecialShopItem.forCommand(id, displayName, price, command, displayMaterial,
                 requiredPermission);
         registry.put(id, item);
+        notifyCatalog();
 
         if (save) {
             String path = "special_items." + id;
@@ -194,6 +198,7 @@ public class SpecialShopManager {
         }
 
         registry.put(id, item);
+        notifyCatalog();
 
         if (save) {
             plugin.getConfig().set(path + ".type", "server-shop");
@@ -276,6 +281,15 @@ public class SpecialShopManager {
         }
     }
 
+    /**
+     * Tell the web catalog the special items changed.
+     */
+    private void notifyCatalog() {
+        if (plugin.getWebServer() != null) {
+            plugin.getWebServer().getCatalog().markSpecialItems();
+        }
+    }
+
     // ------------------------------------------------------------
     // GETTERS
     // ------------------------------------------------------------
@@ -347,6 +361,7 @@ public class SpecialShopManager {
         }
 
         registry.remove(id);
+        notifyCatalog();
 
         // Remove from config
         String path = "special_items." + id;
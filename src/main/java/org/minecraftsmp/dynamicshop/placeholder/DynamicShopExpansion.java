@@ -8,6 +8,7 @@ import org.minecraftsmp.dynamicshop.DynamicShop;
 import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
 import org.minecraftsmp.dynamicshop.transactions.Transaction;
 
+import java.util.List;
 import java.util.Map;
 
 public class DynamicShopExpansion extends PlaceholderExpansion {
@@ -70,6 +71,24 @@ public class DynamicShopExpansion extends PlaceholderExpansion {
                 return plugin.getTransactionLogger().getMostTradedItem();
         }
 
+        // ------------------------------
+        // Top Items
+        // dynamicshop_top_item_<rank>
+        // ------------------------------
+        if (id.startsWith("top_item_")) {
+            int rank;
+            try {
+                rank = Integer.parseInt(id.substring("top_item_".length()));
+            } catch (NumberFormatException e) {
+                return "invalid_format";
+            }
+            if (rank < 1)
+                return "invalid_format";
+
+            List<String> top = plugin.getTransactionLogger().getTopTradedItems(rank);
+            return top.size() >= rank ? top.get(rank - 1) : "None";
+        }
+
         // ------------------------------
         // Player Stats
         // dynamicshop_player_<name>_<stat>
@@ -0,0 +1,278 @@
+package org.minecraftsmp.dynamicshop.storage;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of dynamic data mutations (shopdata.journal).
+ *
+ * Every record holds the absolute state of one material or variant, so replaying
+ * the journal on top of the last shopdata.yml snapshot is idempotent: the last
+ * record for a key wins. Records are written straight to the file channel as
+ * they happen and fsynced periodically from an async task.
+ *
+ * Record layout:
+ *
+ * <pre>
+ * [kind:1][keyLength:2][key:UTF-8][stock:8][purchases:8][shortageHours:8][lastUpdate:8][crc32:4]
+ * </pre>
+ *
+ * Compaction rotates the active file to shopdata.journal.old, writes a full
+ * snapshot, and deletes the rotated file once that snapshot is on disk. A torn
+ * record at the end of a file (crash mid-append) fails its CRC and is ignored.
+ */
+public class ShopDataJournal {
+
+    public static final byte KIND_ITEM = 1;
+    public static final byte KIND_VARIANT = 2;
+
+    private static final int FIXED_SIZE = 1 + 2 + 8 * 4 + 4;
+
+    /**
+     * Receives replayed records in file order.
+     */
+    public interface Replay {
+        void apply(byte kind, String key, ShopDataSnapshot.ItemState state);
+    }
+
+    private final DynamicShop plugin;
+    private final File active;
+    private final File rotated;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    private long size;
+    private boolean unsynced;
+
+    public ShopDataJournal(DynamicShop plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.active = new File(dataFolder, "shopdata.journal");
+        this.rotated = new File(dataFolder, "shopdata.journal.old");
+    }
+
+    // ------------------------------------------------------------------------
+    // REPLAY
+    // ------------------------------------------------------------------------
+
+    /**
+     * Replay the rotated journal (if a compaction never finished) and then the
+     * active one. Returns the number of records applied.
+     */
+    public int replay(Replay replay) {
+        return replayFile(rotated, replay) + replayFile(active, replay);
+    }
+
+    private int replayFile(File file, Replay replay) {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        int applied = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            CRC32 check = new CRC32();
+            byte[] header = new byte[3];
+            byte[] body = new byte[32];
+
+            while (true) {
+                if (!readFully(in, header)) {
+                    break;
+                }
+                int keyLength = ((header[1] & 0xFF) << 8) | (header[2] & 0xFF);
+                byte[] key = new byte[keyLength];
+                if (!readFully(in, key) || !readFully(in, body)) {
+                    plugin.getLogger().warning("[ShopData] Ignoring truncated record at end of " + file.getName());
+                    break;
+                }
+                int storedCrc = in.readInt();
+
+                check.reset();
+                check.update(header);
+                check.update(key);
+                check.update(body);
+                if ((int) check.getValue() != storedCrc) {
+                    plugin.getLogger().warning("[ShopData] Ignoring corrupt record in " + file.getName()
+                            + " after " + applied + " entries");
+                    break;
+                }
+
+                ByteBuffer values = ByteBuffer.wrap(body);
+                double stock = values.getDouble();
+                double purchases = values.getDouble();
+                double shortageHours = values.getDouble();
+                long lastUpdate = values.getLong();
+
+                replay.apply(header[0], new String(key, StandardCharsets.UTF_8),
+                        new ShopDataSnapshot.ItemState(stock, purchases, lastUpdate, shortageHours));
+                applied++;
+            }
+        } catch (EOFException e) {
+            plugin.getLogger().warning("[ShopData] Ignoring truncated record at end of " + file.getName());
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ShopData] Failed to replay " + file.getName() + ": " + e.getMessage());
+        }
+        return applied;
+    }
+
+    private static boolean readFully(InputStream in, byte[] target) throws IOException {
+        int read = 0;
+        while (read < target.length) {
+            int n = in.read(target, read, target.length - read);
+            if (n < 0) {
+                return false;
+            }
+            read += n;
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+    // APPEND
+    // ------------------------------------------------------------------------
+    public synchronized void open() throws IOException {
+        channel = FileChannel.open(active.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    /**
+     * Append one record. The bytes reach the OS immediately; {@link #sync()} makes
+     * them durable against power loss.
+     */
+    public synchronized void append(byte kind, String key, ShopDataSnapshot.ItemState state) {
+        if (channel == null) {
+            return;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_SIZE + keyBytes.length;
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(length * 2);
+        }
+
+        buffer.clear();
+        buffer.put(kind);
+        buffer.putShort((short) keyBytes.length);
+        buffer.put(keyBytes);
+        buffer.putDouble(state.stock());
+        buffer.putDouble(state.purchases());
+        buffer.putDouble(state.shortageHours());
+        buffer.putLong(state.lastUpdate());
+
+        crc.reset();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            size += length;
+            unsynced = true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ShopData] Failed to append to shopdata.journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * fsync pending records. Runs off the main thread; the lock is not held while
+     * forcing so appends are never blocked behind the disk.
+     */
+    public void sync() {
+        FileChannel toSync;
+        synchronized (this) {
+            if (channel == null || !unsynced) {
+                return;
+            }
+            toSync = channel;
+            unsynced = false;
+        }
+        try {
+            toSync.force(false);
+        } catch (ClosedChannelException e) {
+            // Rotated or closed meanwhile; both force before closing
+        } catch (IOException e) {
+            plugin.getLogger().warning("[ShopData] Failed to sync shopdata.journal: " + e.getMessage());
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    // ------------------------------------------------------------------------
+    // COMPACTION
+    // ------------------------------------------------------------------------
+
+    /**
+     * Start a compaction: move the active journal aside and start a fresh one.
+     * Must be followed by a full snapshot save, after which
+     * {@link #discardRotated()} removes the old file.
+     *
+     * Returns false if a previous compaction is still waiting for its snapshot.
+     */
+    public synchronized boolean rotate() {
+        if (channel == null || rotated.exists()) {
+            return false;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+            Files.move(active.toPath(), rotated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            unsynced = false;
+            open();
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ShopData] Failed to rotate shopdata.journal: " + e.getMessage());
+            try {
+                if (!channel.isOpen()) {
+                    open();
+                }
+            } catch (IOException reopen) {
+                channel = null;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Delete the rotated journal. Only safe once a full snapshot taken after
+     * {@link #rotate()} has been written.
+     */
+    public synchronized void discardRotated() {
+        try {
+            Files.deleteIfExists(rotated.toPath());
+        } catch (IOException e) {
+            plugin.getLogger().warning("[ShopData] Failed to delete shopdata.journal.old: " + e.getMessage());
+        }
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("[ShopData] Failed to close shopdata.journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,45 @@
+package org.minecraftsmp.dynamicshop.storage;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * One-shot import of the {@code items:} / {@code variants:} sections of
+ * shopdata.yml into a freshly created database store.
+ */
+public final class ShopDataMigrator {
+
+    private ShopDataMigrator() {
+    }
+
+    /**
+     * Copy shopdata.yml into {@code target} if the target is still empty. On
+     * success shopdata.yml is renamed to shopdata.yml.migrated so it is never
+     * imported twice.
+     */
+    public static void migrate(DynamicShop plugin, YamlShopDataStore source, SqliteShopDataStore target)
+            throws IOException {
+        File yamlFile = source.getFile();
+        if (!yamlFile.exists() || !target.isEmpty()) {
+            return;
+        }
+
+        ShopDataSnapshot snapshot = source.load();
+        if (snapshot == null) {
+            return;
+        }
+
+        plugin.getLogger().info("[ShopData] Migrating " + snapshot.items().size() + " items and "
+                + snapshot.variants().size() + " variants from " + source.describe() + " to "
+                + target.describe() + "...");
+        target.write(snapshot);
+
+        File migrated = new File(yamlFile.getParentFile(), yamlFile.getName() + ".migrated");
+        Files.move(yamlFile.toPath(), migrated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        plugin.getLogger().info("[ShopData] Migration complete, old file kept as " + migrated.getName());
+    }
+}
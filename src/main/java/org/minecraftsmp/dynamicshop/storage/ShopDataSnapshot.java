@@ -0,0 +1,30 @@
+package org.minecraftsmp.dynamicshop.storage;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable copy of dynamic shop state, taken on the main thread and handed to
+ * the {@link ShopDataWriter}. Items are keyed by material name, variants by
+ * variant ID.
+ *
+ * A partial snapshot only contains the entries that were dirty when it was
+ * taken; a full snapshot contains every tracked entry.
+ */
+public record ShopDataSnapshot(Map<String, ItemState> items, Map<String, ItemState> variants, boolean full) {
+
+    /**
+     * Persisted state of a single material or variant.
+     */
+    public record ItemState(double stock, double purchases, long lastUpdate, double shortageHours) {
+    }
+
+    public ShopDataSnapshot {
+        items = Collections.unmodifiableMap(items);
+        variants = Collections.unmodifiableMap(variants);
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty() && variants.isEmpty();
+    }
+}
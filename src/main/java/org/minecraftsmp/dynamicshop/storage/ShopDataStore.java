@@ -0,0 +1,34 @@
+package org.minecraftsmp.dynamicshop.storage;
+
+import java.io.IOException;
+
+/**
+ * Backend that persists dynamic shop state (stock, purchases, last update,
+ * shortage hours) for materials and variants.
+ *
+ * {@link #load()} is called once on the main thread during init. After that the
+ * store is only touched by the {@link ShopDataWriter} thread.
+ */
+public interface ShopDataStore {
+
+    /**
+     * Read everything that is stored, or null if nothing has been stored yet.
+     */
+    ShopDataSnapshot load() throws IOException;
+
+    /**
+     * Persist the entries in a snapshot. Entries not in the snapshot are left
+     * untouched.
+     */
+    void write(ShopDataSnapshot snapshot) throws IOException;
+
+    /**
+     * Release files/connections. No further calls follow.
+     */
+    void close();
+
+    /**
+     * Short name for log messages, e.g. "shopdata.yml".
+     */
+    String describe();
+}
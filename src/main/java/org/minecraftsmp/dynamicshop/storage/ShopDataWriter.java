@@ -0,0 +1,150 @@
+package org.minecraftsmp.dynamicshop.storage;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists dynamic shop data on a dedicated thread so the main thread never
+ * blocks on serialization or disk I/O.
+ *
+ * Snapshots submitted while a write is pending are merged into it (latest value
+ * per key wins), so a burst of saves results in a single write to the
+ * {@link ShopDataStore}.
+ *
+ * The store is owned by the writer thread once it has been handed over.
+ */
+public class ShopDataWriter {
+
+    private final DynamicShop plugin;
+    private final ShopDataStore store;
+    private final ExecutorService executor;
+
+    // Pending (not yet written) state, guarded by "this"
+    private Map<String, ShopDataSnapshot.ItemState> pendingItems = new HashMap<>();
+    private Map<String, ShopDataSnapshot.ItemState> pendingVariants = new HashMap<>();
+    private boolean pendingFull = false;
+    private List<Runnable> pendingCallbacks = new ArrayList<>();
+    private boolean writeScheduled = false;
+
+    public ShopDataWriter(DynamicShop plugin, ShopDataStore store) {
+        this.plugin = plugin;
+        this.store = store;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "DynamicShop-DataWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a snapshot for writing. Never blocks on I/O.
+     */
+    public void submit(ShopDataSnapshot snapshot) {
+        submit(snapshot, null);
+    }
+
+    /**
+     * Queue a snapshot for writing and run {@code afterWrite} on the writer thread
+     * once a write containing it has reached disk. The callback is dropped if the
+     * write fails.
+     */
+    public void submit(ShopDataSnapshot snapshot, Runnable afterWrite) {
+        if (snapshot.isEmpty() && !snapshot.full()) {
+            return;
+        }
+
+        synchronized (this) {
+            pendingItems.putAll(snapshot.items());
+            pendingVariants.putAll(snapshot.variants());
+            pendingFull |= snapshot.full();
+            if (afterWrite != null) {
+                pendingCallbacks.add(afterWrite);
+            }
+
+            if (writeScheduled) {
+                return; // coalesced into the write that is already queued
+            }
+            writeScheduled = true;
+        }
+
+        try {
+            executor.execute(this::drain);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Writer already shut down (late save during disable) — write inline
+            drain();
+        }
+    }
+
+    /**
+     * Block until every snapshot submitted so far is on disk.
+     * Only for shutdown/reload paths.
+     */
+    public void flush() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        try {
+            executor.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            plugin.getLogger().warning("[ShopData] Timed out waiting for " + store.describe() + " write: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Write everything still pending, stop the writer thread and close the store.
+     */
+    public void shutdown() {
+        flush();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("[ShopData] Writer thread did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+    }
+
+    // ------------------------------------------------------------------------
+    // WRITER THREAD
+    // ------------------------------------------------------------------------
+    private void drain() {
+        Map<String, ShopDataSnapshot.ItemState> items;
+        Map<String, ShopDataSnapshot.ItemState> variants;
+        boolean full;
+        List<Runnable> callbacks;
+
+        synchronized (this) {
+            items = pendingItems;
+            variants = pendingVariants;
+            full = pendingFull;
+            callbacks = pendingCallbacks;
+            pendingItems = new HashMap<>();
+            pendingVariants = new HashMap<>();
+            pendingFull = false;
+            pendingCallbacks = new ArrayList<>();
+            writeScheduled = false;
+        }
+
+        try {
+            store.write(new ShopDataSnapshot(items, variants, full));
+        } catch (IOException e) {
+            plugin.getLogger().severe("[ShopData] Failed to save " + store.describe() + ": " + e.getMessage());
+            return;
+        }
+
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+}
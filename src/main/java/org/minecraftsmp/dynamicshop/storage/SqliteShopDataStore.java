@@ -0,0 +1,161 @@
+package org.minecraftsmp.dynamicshop.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores dynamic shop state in an embedded SQLite database (shopdata.db), one
+ * row per material / variant.
+ *
+ * Writes only touch the rows in the snapshot: each one is a batched upsert run
+ * in a single transaction, so saving a handful of dirty variants costs the same
+ * no matter how many thousands of variants are stored. The SQLite driver ships
+ * with Paper, so nothing extra is bundled.
+ */
+public class SqliteShopDataStore implements ShopDataStore {
+
+    private static final String ITEMS_TABLE = "shop_items";
+    private static final String VARIANTS_TABLE = "shop_variants";
+
+    private final File file;
+    private Connection connection;
+
+    public SqliteShopDataStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Open the database and create the tables if needed.
+     */
+    public void open() throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            try (Statement st = connection.createStatement()) {
+                st.execute("PRAGMA journal_mode=WAL");
+                st.execute("PRAGMA synchronous=NORMAL");
+                createTable(st, ITEMS_TABLE);
+                createTable(st, VARIANTS_TABLE);
+            }
+            connection.setAutoCommit(false);
+            connection.commit();
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new IOException("Could not open " + file.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void createTable(Statement st, String table) throws SQLException {
+        st.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "id TEXT PRIMARY KEY NOT NULL, "
+                + "stock REAL NOT NULL, "
+                + "purchases REAL NOT NULL, "
+                + "last_update INTEGER NOT NULL, "
+                + "shortage_hours REAL NOT NULL)");
+    }
+
+    /**
+     * True if no material or variant rows have been written yet.
+     */
+    public boolean isEmpty() throws IOException {
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery("SELECT "
+                        + "(SELECT COUNT(*) FROM " + ITEMS_TABLE + ") + "
+                        + "(SELECT COUNT(*) FROM " + VARIANTS_TABLE + ")")) {
+            return !rs.next() || rs.getLong(1) == 0;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ShopDataSnapshot load() throws IOException {
+        if (isEmpty()) {
+            return null;
+        }
+        try {
+            Map<String, ShopDataSnapshot.ItemState> items = readTable(ITEMS_TABLE);
+            Map<String, ShopDataSnapshot.ItemState> variants = readTable(VARIANTS_TABLE);
+            connection.commit();
+            return new ShopDataSnapshot(items, variants, true);
+        } catch (SQLException e) {
+            throw new IOException("Could not read " + file.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, ShopDataSnapshot.ItemState> readTable(String table) throws SQLException {
+        Map<String, ShopDataSnapshot.ItemState> result = new HashMap<>();
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery(
+                        "SELECT id, stock, purchases, last_update, shortage_hours FROM " + table)) {
+            while (rs.next()) {
+                result.put(rs.getString(1), new ShopDataSnapshot.ItemState(
+                        rs.getDouble(2), rs.getDouble(3), rs.getLong(4), rs.getDouble(5)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void write(ShopDataSnapshot snapshot) throws IOException {
+        if (connection == null) {
+            throw new IOException(file.getName() + " is closed");
+        }
+        try {
+            upsert(ITEMS_TABLE, snapshot.items());
+            upsert(VARIANTS_TABLE, snapshot.variants());
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+            }
+            throw new IOException("Could not write " + file.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void upsert(String table, Map<String, ShopDataSnapshot.ItemState> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + table
+                + " (id, stock, purchases, last_update, shortage_hours) VALUES (?, ?, ?, ?, ?) "
+                + "ON CONFLICT(id) DO UPDATE SET stock = excluded.stock, purchases = excluded.purchases, "
+                + "last_update = excluded.last_update, shortage_hours = excluded.shortage_hours")) {
+            for (Map.Entry<String, ShopDataSnapshot.ItemState> entry : rows.entrySet()) {
+                ShopDataSnapshot.ItemState state = entry.getValue();
+                ps.setString(1, entry.getKey());
+                ps.setDouble(2, state.stock());
+                ps.setDouble(3, state.purchases());
+                ps.setLong(4, state.lastUpdate());
+                ps.setDouble(5, state.shortageHours());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+        connection = null;
+    }
+
+    @Override
+    public String describe() {
+        return file.getName();
+    }
+}
@@ -0,0 +1,176 @@
+package org.minecraftsmp.dynamicshop.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores dynamic shop state in shopdata.yml under {@code items.<MATERIAL>} and
+ * {@code variants.<variantId>}.
+ *
+ * The whole document is rewritten on every write: it goes to a temp file which
+ * is fsynced and then atomically renamed over shopdata.yml, so a crash mid-write
+ * never leaves a truncated file behind.
+ */
+public class YamlShopDataStore implements ShopDataStore {
+
+    private final File file;
+    private YamlConfiguration document = new YamlConfiguration();
+
+    public YamlShopDataStore(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public ShopDataSnapshot load() {
+        if (!file.exists()) {
+            return null;
+        }
+        document = YamlConfiguration.loadConfiguration(file);
+
+        ConfigurationSection itemsSec = section(document, "items");
+
+        // Pre-items.* files kept each field in its own root section
+        ConfigurationSection stockSec = document.getConfigurationSection("stock");
+        ConfigurationSection purchasesSec = document.getConfigurationSection("purchases");
+        ConfigurationSection lastUpdateSec = document.getConfigurationSection("last_update");
+        ConfigurationSection shortageSec = document.getConfigurationSection("shortage_hours");
+
+        Set<String> keys = new LinkedHashSet<>(itemsSec.getKeys(false));
+        if (stockSec != null) {
+            keys.addAll(stockSec.getKeys(false));
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, ShopDataSnapshot.ItemState> items = new HashMap<>();
+        for (String key : keys) {
+            ConfigurationSection sec = itemsSec.getConfigurationSection(key);
+
+            double stock = 0.0;
+            if (sec != null && sec.contains("stock")) {
+                stock = sec.getDouble("stock");
+            } else if (stockSec != null && stockSec.isDouble(key)) {
+                stock = stockSec.getDouble(key);
+            }
+
+            double purchases = 0.0;
+            if (sec != null && sec.contains("purchases")) {
+                purchases = sec.getDouble("purchases");
+            } else if (purchasesSec != null && purchasesSec.isDouble(key)) {
+                purchases = purchasesSec.getDouble(key);
+            }
+
+            long lastUpdate = now;
+            if (sec != null && sec.contains("last_update")) {
+                lastUpdate = sec.getLong("last_update", now);
+            } else if (lastUpdateSec != null && lastUpdateSec.isLong(key)) {
+                lastUpdate = lastUpdateSec.getLong(key, now);
+            }
+
+            double shortageHours = 0.0;
+            if (sec != null && sec.contains("shortage_hours")) {
+                shortageHours = sec.getDouble("shortage_hours");
+            } else if (shortageSec != null && shortageSec.isDouble(key)) {
+                shortageHours = shortageSec.getDouble(key);
+            }
+
+            items.put(key, new ShopDataSnapshot.ItemState(stock, purchases, lastUpdate, shortageHours));
+        }
+
+        Map<String, ShopDataSnapshot.ItemState> variants = new HashMap<>();
+        ConfigurationSection variantsSec = document.getConfigurationSection("variants");
+        if (variantsSec != null) {
+            for (String variantId : variantsSec.getKeys(false)) {
+                ConfigurationSection sec = variantsSec.getConfigurationSection(variantId);
+                if (sec == null) continue;
+                variants.put(variantId, new ShopDataSnapshot.ItemState(
+                        sec.getDouble("stock", 0.0),
+                        sec.getDouble("purchases", 0.0),
+                        sec.getLong("last_update", now),
+                        sec.getDouble("shortage_hours", 0.0)));
+            }
+        }
+
+        return new ShopDataSnapshot(items, variants, true);
+    }
+
+    @Override
+    public synchronized void write(ShopDataSnapshot snapshot) throws IOException {
+        if (snapshot.full()) {
+            // Old root-level sections were migrated into items.* on load
+            document.set("stock", null);
+            document.set("last_update", null);
+            document.set("purchases", null);
+            document.set("shortage_hours", null);
+        }
+
+        ConfigurationSection itemsSec = section(document, "items");
+        snapshot.items().forEach((key, state) -> write(section(itemsSec, key), state));
+
+        ConfigurationSection variantsSec = section(document, "variants");
+        snapshot.variants().forEach((key, state) -> write(section(variantsSec, key), state));
+
+        writeAtomically(document.saveToString());
+    }
+
+    @Override
+    public void close() {
+        // Nothing held open between writes
+    }
+
+    @Override
+    public String describe() {
+        return file.getName();
+    }
+
+    private static ConfigurationSection section(ConfigurationSection parent, String key) {
+        ConfigurationSection sec = parent.getConfigurationSection(key);
+        return sec != null ? sec : parent.createSection(key);
+    }
+
+    private static void write(ConfigurationSection sec, ShopDataSnapshot.ItemState state) {
+        sec.set("stock", state.stock());
+        sec.set("purchases", state.purchases());
+        sec.set("last_update", state.lastUpdate());
+        sec.set("shortage_hours", state.shortageHours());
+    }
+
+    private void writeAtomically(String data) throws IOException {
+        Path targetPath = file.toPath();
+        Path tmp = targetPath.resolveSibling(file.getName() + ".tmp");
+
+        Files.createDirectories(targetPath.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(tmp, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,715 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary, day-partitioned transaction archive (transactions/archive/).
+ *
+ * One segment file per day (yyyy-MM-dd.seg) holds blocks of rows, one block
+ * per flushed batch. Inside a block every field is a fixed-width column, so a
+ * reader can skip a whole block by its time range and touch only the columns it
+ * needs. Player, item, category and metadata strings are stored once in
+ * strings.dict and referenced by id. The dictionary stops growing at
+ * {@link #MAX_DICT_STRINGS} entries; after that a new string (in practice
+ * one-off metadata) is stored inline in the block that uses it and referenced
+ * by a negative id ({@code ~index}), so the dictionary kept in memory stays
+ * bounded however long the server runs.
+ *
+ * Block layout:
+ *
+ * <pre>
+ * [magic:4][rows:4][minTs:8][maxTs:8][crc32:4][inlineBytes:4]
+ * [timestamp:8 x rows][price:8 x rows]
+ * [player:4 x rows][item:4 x rows][category:4 x rows][metadata:4 x rows][amount:4 x rows]
+ * [type:1 x rows][pad to 8]
+ * [count:4][length:2, utf8 x count][pad to 8]   (only if inlineBytes > 0)
+ * </pre>
+ *
+ * Timestamps are epoch millis of the transaction's wall-clock time read as
+ * UTC, which round-trips {@link Transaction#getTimestampRaw()} exactly.
+ * Segments are read through read-only memory maps. A torn block at the end of
+ * a segment (crash mid-write) fails its CRC, is ignored by readers and is cut
+ * off the next time the segment is opened for writing.
+ */
+public class TransactionArchive {
+
+    private static final int BLOCK_MAGIC = 0x44534231; // "DSB1"
+    private static final int HEADER_SIZE = 32;
+    private static final int ROW_SIZE = 8 + 8 + 4 * 5 + 1;
+    private static final int MAX_DICT_STRINGS = 1 << 16;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final DynamicShop plugin;
+    private final File dir;
+    private final File dictFile;
+
+    // Dictionary: id -> string and back. Append-only up to MAX_DICT_STRINGS, shared by all segments.
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private FileChannel dictChannel;
+
+    // Segment currently open for appends
+    private LocalDate openDay;
+    private FileChannel segment;
+
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * A point in the archive: everything before {@code offset} in the segment
+     * for {@code day}, and every earlier day.
+     */
+    public record Position(LocalDate day, long offset) {
+    }
+
+    public TransactionArchive(DynamicShop plugin, File dir) {
+        this.plugin = plugin;
+        this.dir = dir;
+        this.dictFile = new File(dir, "strings.dict");
+    }
+
+    // ------------------------------------------------------------------------
+    // LIFECYCLE
+    // ------------------------------------------------------------------------
+
+    /**
+     * Load the string dictionary and open it for appends.
+     */
+    public synchronized void open() throws IOException {
+        if (!dir.exists()) dir.mkdirs();
+
+        dictChannel = FileChannel.open(dictFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = dictChannel.size();
+        long valid = 0;
+        if (size > 0) {
+            MappedByteBuffer map = dictChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (map.remaining() >= 2) {
+                int length = map.getShort() & 0xFFFF;
+                if (map.remaining() < length) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                map.get(bytes);
+                String value = new String(bytes, StandardCharsets.UTF_8);
+                ids.put(value, strings.size());
+                strings.add(value);
+                valid = map.position();
+            }
+        }
+        if (valid < size) {
+            plugin.getLogger().warning("[TransactionLogger] Ignoring truncated entry at end of strings.dict");
+            dictChannel.truncate(valid);
+        }
+        dictChannel.position(valid);
+    }
+
+    public synchronized void close() {
+        closeSegment();
+        if (dictChannel != null) {
+            try {
+                dictChannel.close();
+            } catch (IOException ignored) {
+            }
+            dictChannel = null;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return segmentDays().isEmpty();
+    }
+
+    // ------------------------------------------------------------------------
+    // APPEND
+    // ------------------------------------------------------------------------
+
+    /**
+     * Append a batch (in log order). Each day's rows go to that day's segment
+     * as one block. With {@code force} the dictionary and segment are fsynced
+     * before returning.
+     */
+    public synchronized void append(List<Transaction> batch, boolean force) {
+        if (dictChannel == null || batch.isEmpty()) {
+            return;
+        }
+
+        int start = 0;
+        while (start < batch.size()) {
+            LocalDate day = batch.get(start).getTimestampRaw().toLocalDate();
+            int end = start + 1;
+            while (end < batch.size() && batch.get(end).getTimestampRaw().toLocalDate().equals(day)) {
+                end++;
+            }
+            try {
+                writeBlock(day, batch.subList(start, end));
+                if (force) {
+                    dictChannel.force(false);
+                    segment.force(false);
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("[TransactionLogger] Failed to append to archive " + day + ".seg: "
+                        + e.getMessage());
+                closeSegment();
+            }
+            start = end;
+        }
+    }
+
+    private void writeBlock(LocalDate day, List<Transaction> rows) throws IOException {
+        int n = rows.size();
+        int[] player = new int[n];
+        int[] item = new int[n];
+        int[] category = new int[n];
+        int[] metadata = new int[n];
+        Map<String, Integer> inline = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Transaction tx = rows.get(i);
+            player[i] = idOf(tx.getPlayerName(), inline);
+            item[i] = idOf(tx.getItem(), inline);
+            category[i] = idOf(tx.getCategory(), inline);
+            metadata[i] = idOf(tx.getMetadata(), inline);
+        }
+
+        List<byte[]> inlineBytes = new ArrayList<>(inline.size());
+        int inlineLength = 0;
+        if (!inline.isEmpty()) {
+            String[] byIndex = new String[inline.size()];
+            inline.forEach((value, index) -> byIndex[index] = value);
+            inlineLength = 4;
+            for (String value : byIndex) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > MAX_STRING_BYTES) {
+                    bytes = Arrays.copyOf(bytes, MAX_STRING_BYTES); // a truncated character re-encoded wider
+                }
+                inlineBytes.add(bytes);
+                inlineLength += 2 + bytes.length;
+            }
+        }
+
+        int length = blockSize(n) + align8(inlineLength);
+        ByteBuffer block = ByteBuffer.allocate(length);
+        block.position(HEADER_SIZE);
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        for (Transaction tx : rows) {
+            long ts = toMillis(tx.getTimestampRaw());
+            minTs = Math.min(minTs, ts);
+            maxTs = Math.max(maxTs, ts);
+            block.putLong(ts);
+        }
+        for (Transaction tx : rows) block.putDouble(tx.getPrice());
+        for (int id : player) block.putInt(id);
+        for (int id : item) block.putInt(id);
+        for (int id : category) block.putInt(id);
+        for (int id : metadata) block.putInt(id);
+        for (Transaction tx : rows) block.putInt(tx.getAmount());
+        for (Transaction tx : rows) block.put((byte) tx.getType().ordinal());
+        if (inlineLength > 0) {
+            block.position(blockSize(n));
+            block.putInt(inlineBytes.size());
+            for (byte[] bytes : inlineBytes) {
+                block.putShort((short) bytes.length).put(bytes);
+            }
+        }
+
+        crc.reset();
+        crc.update(block.array(), HEADER_SIZE, length - HEADER_SIZE);
+        block.putInt(0, BLOCK_MAGIC);
+        block.putInt(4, n);
+        block.putLong(8, minTs);
+        block.putLong(16, maxTs);
+        block.putInt(24, (int) crc.getValue());
+        block.putInt(28, inlineLength);
+        block.position(0).limit(length);
+
+        FileChannel channel = segmentFor(day);
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+    }
+
+    /**
+     * Dictionary id for a string, appending it to strings.dict first if new, so
+     * a block never references an id that is not on disk. Once the dictionary
+     * is full a new string gets an index in the block's {@code inline} table
+     * instead, returned as {@code ~index}.
+     */
+    private int idOf(String value, Map<String, Integer> inline) throws IOException {
+        String key = value != null ? value : "";
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            bytes = Arrays.copyOf(bytes, MAX_STRING_BYTES);
+            key = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (strings.size() >= MAX_DICT_STRINGS) {
+            return ~inline.computeIfAbsent(key, k -> inline.size());
+        }
+        ByteBuffer entry = ByteBuffer.allocate(2 + bytes.length);
+        entry.putShort((short) bytes.length).put(bytes).flip();
+        long before = dictChannel.position();
+        try {
+            while (entry.hasRemaining()) {
+                dictChannel.write(entry);
+            }
+        } catch (IOException e) {
+            // drop the partial entry so later ones stay aligned
+            dictChannel.truncate(before);
+            dictChannel.position(before);
+            throw e;
+        }
+
+        int newId = strings.size();
+        strings.add(key);
+        ids.put(value != null ? value : "", newId);
+        return newId;
+    }
+
+    private FileChannel segmentFor(LocalDate day) throws IOException {
+        if (segment != null && day.equals(openDay)) {
+            return segment;
+        }
+        closeSegment();
+
+        FileChannel channel = FileChannel.open(segmentFile(day).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        long valid = validLength(channel, size);
+        if (valid < size) {
+            plugin.getLogger().warning("[TransactionLogger] Cutting torn block off " + day + ".seg");
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+
+        segment = channel;
+        openDay = day;
+        return channel;
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException ignored) {
+            }
+        }
+        segment = null;
+        openDay = null;
+    }
+
+    // ------------------------------------------------------------------------
+    // READ
+    // ------------------------------------------------------------------------
+
+    /**
+     * The newest {@code limit} transactions, oldest first. Reads whole days
+     * backwards from today, so the cost depends on {@code limit}, not on how
+     * much history is archived.
+     */
+    public synchronized List<Transaction> loadRecent(int limit) {
+        List<Transaction> newestFirst = new ArrayList<>(Math.min(limit, 1 << 16));
+        List<LocalDate> days = segmentDays();
+        for (int d = days.size() - 1; d >= 0 && newestFirst.size() < limit; d--) {
+            MappedByteBuffer map = mapSegment(days.get(d));
+            if (map == null) {
+                continue;
+            }
+            List<Integer> blocks = blockOffsets(map);
+            for (int b = blocks.size() - 1; b >= 0 && newestFirst.size() < limit; b--) {
+                int offset = blocks.get(b);
+                int rows = map.getInt(offset + 4);
+                List<String> inline = inlineStrings(map, offset, rows);
+                for (int r = rows - 1; r >= 0 && newestFirst.size() < limit; r--) {
+                    newestFirst.add(readRow(map, offset, rows, r, strings, inline));
+                }
+            }
+        }
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    /**
+     * Visit every archived transaction with {@code fromMillis <= timestamp < toMillis}
+     * in log order. Days outside the range are not opened and blocks outside it
+     * are skipped by their header.
+     */
+    public synchronized void scan(long fromMillis, long toMillis, Consumer<Transaction> visitor) {
+        LocalDate firstDay = toDateTime(fromMillis).toLocalDate();
+        LocalDate lastDay = toDateTime(toMillis).toLocalDate();
+        for (LocalDate day : segmentDays()) {
+            if (day.isBefore(firstDay) || day.isAfter(lastDay)) {
+                continue;
+            }
+            MappedByteBuffer map = mapSegment(day);
+            if (map == null) {
+                continue;
+            }
+            for (int offset : blockOffsets(map)) {
+                if (map.getLong(offset + 16) < fromMillis || map.getLong(offset + 8) >= toMillis) {
+                    continue;
+                }
+                int rows = map.getInt(offset + 4);
+                int tsColumn = offset + HEADER_SIZE;
+                List<String> inline = inlineStrings(map, offset, rows);
+                for (int r = 0; r < rows; r++) {
+                    long ts = map.getLong(tsColumn + r * 8);
+                    if (ts >= fromMillis && ts < toMillis) {
+                        visitor.accept(readRow(map, offset, rows, r, strings, inline));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Current end of the archive, or null if it is empty.
+     */
+    public synchronized Position end() {
+        List<LocalDate> days = segmentDays();
+        if (days.isEmpty()) {
+            return null;
+        }
+        LocalDate last = days.get(days.size() - 1);
+        return new Position(last, segmentFile(last).length());
+    }
+
+    /**
+     * Visit every transaction appended after {@code from} (all of them if
+     * null), in log order.
+     */
+    public synchronized void scanFrom(Position from, Consumer<Transaction> visitor) {
+        for (LocalDate day : segmentDays()) {
+            if (from != null && day.isBefore(from.day())) {
+                continue;
+            }
+            long skipBefore = from != null && day.equals(from.day()) ? from.offset() : 0L;
+            MappedByteBuffer map = mapSegment(day);
+            if (map == null) {
+                continue;
+            }
+            for (int offset : blockOffsets(map)) {
+                if (offset < skipBefore) {
+                    continue;
+                }
+                int rows = map.getInt(offset + 4);
+                List<String> inline = inlineStrings(map, offset, rows);
+                for (int r = 0; r < rows; r++) {
+                    visitor.accept(readRow(map, offset, rows, r, strings, inline));
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives rows from {@link #export}; may throw to stop the export.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void accept(Transaction tx) throws IOException;
+    }
+
+    /**
+     * A segment's valid blocks and the dictionary they can reference, captured
+     * under the archive lock so the rows can be read without it.
+     */
+    private record SegmentView(MappedByteBuffer map, List<Integer> blocks, String[] strings) {
+    }
+
+    /**
+     * Like {@link #scan}, restricted to a player and/or item (case-insensitive,
+     * null for any), for exports of the whole history.
+     *
+     * The archive lock is only held while each day's segment is mapped, never
+     * while {@code visitor} runs, so a slow reader does not hold up logging.
+     * Rows are read straight from the mapping and filters compare dictionary
+     * ids (or the block's inline strings), so rows that do not match are
+     * never decoded. Blocks appended to a
+     * day after it was mapped are not included.
+     */
+    public void export(long fromMillis, long toMillis, String player, String item, RowVisitor visitor)
+            throws IOException {
+        LocalDate firstDay = toDateTime(fromMillis).toLocalDate();
+        LocalDate lastDay = toDateTime(toMillis).toLocalDate();
+
+        String[] dict = null;
+        List<String> dictView = null;
+        boolean[] playerMask = null;
+        boolean[] itemMask = null;
+        for (LocalDate day : segmentDays()) {
+            if (day.isBefore(firstDay) || day.isAfter(lastDay)) {
+                continue;
+            }
+            SegmentView view = view(day, dict);
+            if (view == null) {
+                continue;
+            }
+            if (view.strings() != dict) {
+                dict = view.strings();
+                dictView = Arrays.asList(dict);
+                playerMask = mask(dict, player);
+                itemMask = mask(dict, item);
+            }
+
+            MappedByteBuffer map = view.map();
+            for (int offset : view.blocks()) {
+                if (map.getLong(offset + 16) < fromMillis || map.getLong(offset + 8) >= toMillis) {
+                    continue;
+                }
+                int rows = map.getInt(offset + 4);
+                int tsColumn = offset + HEADER_SIZE;
+                int playerColumn = tsColumn + rows * 16;
+                int itemColumn = playerColumn + rows * 4;
+                List<String> inline = inlineStrings(map, offset, rows);
+                for (int r = 0; r < rows; r++) {
+                    long ts = map.getLong(tsColumn + r * 8);
+                    if (ts < fromMillis || ts >= toMillis
+                            || !matches(playerMask, player, map.getInt(playerColumn + r * 4), inline)
+                            || !matches(itemMask, item, map.getInt(itemColumn + r * 4), inline)) {
+                        continue;
+                    }
+                    visitor.accept(readRow(map, offset, rows, r, dictView, inline));
+                }
+            }
+        }
+    }
+
+    /**
+     * Map a day and list its valid blocks. The dictionary is copied again only
+     * if it grew since {@code dict} was taken.
+     */
+    private synchronized SegmentView view(LocalDate day, String[] dict) {
+        MappedByteBuffer map = mapSegment(day);
+        if (map == null) {
+            return null;
+        }
+        String[] current = dict != null && dict.length == strings.size() ? dict : strings.toArray(new String[0]);
+        return new SegmentView(map, blockOffsets(map), current);
+    }
+
+    /**
+     * Dictionary ids equal to {@code value} ignoring case, or null to match all.
+     */
+    private static boolean[] mask(String[] dict, String value) {
+        if (value == null) {
+            return null;
+        }
+        boolean[] mask = new boolean[dict.length];
+        for (int i = 0; i < dict.length; i++) {
+            mask[i] = dict[i].equalsIgnoreCase(value);
+        }
+        return mask;
+    }
+
+    private static boolean matches(boolean[] mask, String value, int id, List<String> inline) {
+        if (mask == null) {
+            return true;
+        }
+        if (id < 0) {
+            return string(null, inline, id).equalsIgnoreCase(value);
+        }
+        return id < mask.length && mask[id];
+    }
+
+    private static Transaction readRow(ByteBuffer map, int offset, int rows, int r, List<String> dict,
+            List<String> inline) {
+        int ts = offset + HEADER_SIZE;
+        int price = ts + rows * 8;
+        int player = price + rows * 8;
+        int item = player + rows * 4;
+        int category = item + rows * 4;
+        int metadata = category + rows * 4;
+        int amount = metadata + rows * 4;
+        int type = amount + rows * 4;
+
+        return new Transaction(
+                toDateTime(map.getLong(ts + r * 8)),
+                string(dict, inline, map.getInt(player + r * 4)),
+                Transaction.TransactionType.values()[map.get(type + r)],
+                string(dict, inline, map.getInt(item + r * 4)),
+                map.getInt(amount + r * 4),
+                map.getDouble(price + r * 8),
+                string(dict, inline, map.getInt(category + r * 4)),
+                string(dict, inline, map.getInt(metadata + r * 4)));
+    }
+
+    /**
+     * String for an id: a dictionary entry, or {@code ~index} into the block's
+     * inline strings.
+     */
+    private static String string(List<String> dict, List<String> inline, int id) {
+        if (id < 0) {
+            int index = ~id;
+            return index < inline.size() ? inline.get(index) : "";
+        }
+        return id < dict.size() ? dict.get(id) : "";
+    }
+
+    /**
+     * The strings stored inline in the block at {@code offset} (empty for
+     * blocks written while the dictionary had room).
+     */
+    private static List<String> inlineStrings(ByteBuffer map, int offset, int rows) {
+        if (map.getInt(offset + 28) == 0) {
+            return Collections.emptyList();
+        }
+        int position = offset + blockSize(rows);
+        int count = map.getInt(position);
+        position += 4;
+        List<String> inline = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = map.getShort(position) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            map.get(position + 2, bytes);
+            inline.add(new String(bytes, StandardCharsets.UTF_8));
+            position += 2 + length;
+        }
+        return inline;
+    }
+
+    private MappedByteBuffer mapSegment(LocalDate day) {
+        File file = segmentFile(day);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            plugin.getLogger().warning("[TransactionLogger] Failed to read archive " + file.getName() + ": "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Start offsets of the complete, valid blocks in a mapped segment.
+     */
+    private List<Integer> blockOffsets(ByteBuffer map) {
+        List<Integer> offsets = new ArrayList<>();
+        int offset = 0;
+        int limit = map.limit();
+        while (offset + HEADER_SIZE <= limit) {
+            int length = checkBlock(map, offset, limit);
+            if (length < 0) {
+                break;
+            }
+            offsets.add(offset);
+            offset += length;
+        }
+        return offsets;
+    }
+
+    private long validLength(FileChannel channel, long size) throws IOException {
+        if (size == 0) {
+            return 0;
+        }
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        List<Integer> offsets = blockOffsets(map);
+        if (offsets.isEmpty()) {
+            return 0;
+        }
+        int last = offsets.get(offsets.size() - 1);
+        return last + checkBlock(map, last, map.limit());
+    }
+
+    /**
+     * Length of the block at {@code offset}, or -1 if it is torn or corrupt.
+     */
+    private int checkBlock(ByteBuffer map, int offset, int limit) {
+        if (map.getInt(offset) != BLOCK_MAGIC) {
+            return -1;
+        }
+        int rows = map.getInt(offset + 4);
+        int inlineLength = map.getInt(offset + 28);
+        if (rows <= 0 || inlineLength < 0) {
+            return -1;
+        }
+        long length = blockSize(rows) + ((inlineLength + 7L) & ~7L);
+        if (offset + length > limit) {
+            return -1;
+        }
+
+        ByteBuffer body = map.duplicate();
+        body.position(offset + HEADER_SIZE).limit((int) (offset + length));
+        CRC32 check = new CRC32();
+        check.update(body);
+        if ((int) check.getValue() != map.getInt(offset + 24)) {
+            return -1;
+        }
+        return (int) length;
+    }
+
+    /**
+     * Size of a block's header and columns, without inline strings.
+     */
+    private static int blockSize(int rows) {
+        return align8(HEADER_SIZE + rows * ROW_SIZE);
+    }
+
+    private static int align8(int length) {
+        return (length + 7) & ~7;
+    }
+
+    // ------------------------------------------------------------------------
+    // FILES / TIME
+    // ------------------------------------------------------------------------
+
+    private File segmentFile(LocalDate day) {
+        return new File(dir, day + ".seg");
+    }
+
+    /**
+     * Days that have a segment, oldest first.
+     */
+    private List<LocalDate> segmentDays() {
+        String[] names = dir.list((d, name) -> name.endsWith(".seg"));
+        if (names == null) {
+            return Collections.emptyList();
+        }
+        List<LocalDate> days = new ArrayList<>(names.length);
+        for (String name : names) {
+            try {
+                days.add(LocalDate.parse(name.substring(0, name.length() - 4)));
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        Collections.sort(days);
+        return days;
+    }
+
+    /**
+     * Archive clock: the wall-clock time read as UTC, in epoch millis.
+     */
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,44 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends transactions to the binary archive, one block per bus flush. The
+ * archive itself stays open after this sink is closed; TransactionLogger owns it.
+ */
+final class TransactionArchiveSink implements TransactionSink {
+
+    private static final int MAX_BUFFERED_ROWS = 16_384;
+
+    private final TransactionArchive archive;
+    private final List<Transaction> rows = new ArrayList<>();
+    private final boolean fsync;
+
+    TransactionArchiveSink(TransactionArchive archive, boolean fsync) {
+        this.archive = archive;
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void write(List<Transaction> batch) {
+        rows.addAll(batch);
+        if (rows.size() >= MAX_BUFFERED_ROWS) {
+            flush(false);
+        }
+    }
+
+    @Override
+    public void flush(boolean last) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        archive.append(rows, fsync);
+        rows.clear();
+    }
+
+    @Override
+    public String name() {
+        return "archive";
+    }
+}
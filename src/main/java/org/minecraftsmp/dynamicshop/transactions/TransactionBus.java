@@ -0,0 +1,398 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands logged transactions from the trade path to the {@link TransactionSink}s
+ * on a dedicated thread.
+ *
+ * {@link #publish} only puts the transaction on a bounded lock-free queue
+ * ({@link TransactionQueue}); the bus thread drains it in batches, passes each
+ * batch to every sink in order, and flushes the sinks every few seconds. Sinks
+ * can be added at any time without touching the callers of
+ * {@link TransactionLogger#log}.
+ *
+ * When the queue is full the {@link OverflowPolicy} decides: wait for room,
+ * drop the transaction, or spill it to a file. Once something is spilled,
+ * later transactions are spilled too until the bus thread has caught up and
+ * replayed the file, so sinks still see log order. A spill file left by a
+ * crash is replayed on the next start.
+ *
+ * A bus that is not running (stopping, or closed by a reload or shutdown)
+ * spills every transaction, so the next bus to start on the same file
+ * delivers it to all sinks instead of it being lost.
+ */
+public final class TransactionBus {
+
+    public enum OverflowPolicy {
+        /** Wait on the publishing thread until the queue has room. */
+        BLOCK,
+        /** Discard the transaction (counted in {@link #getDropped()}). */
+        DROP,
+        /** Append it to the spill file; the bus thread replays it later. */
+        SPILL;
+
+        /**
+         * Policy from its config name, or null if unknown.
+         */
+        public static OverflowPolicy parse(String name) {
+            if (name == null) return null;
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final int MAX_BATCH = 1024;
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000L;
+    private static final long DROP_WARNING_INTERVAL_MS = 60_000L;
+
+    private final DynamicShop plugin;
+    private final TransactionQueue queue;
+    private final OverflowPolicy policy;
+    private final long flushIntervalMs;
+    private final List<TransactionSink> sinks = new CopyOnWriteArrayList<>();
+
+    private Thread thread;
+    private volatile boolean running;
+    private volatile boolean parked;
+
+    // Spill file: written by publishers under SPILL_LOCK, replayed by the bus thread.
+    // The lock is shared so a closed bus and its replacement agree on the file.
+    private static final Object SPILL_LOCK = new Object();
+    private final File spillFile;
+    private final File replayFile;
+    private final TransactionFileAppender spillAppender;
+    private volatile boolean spilling;
+    private boolean replayPending; // bus thread only after start
+    private boolean replayFailed;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private long droppedReported;
+    private long lastDropWarning;
+
+    /**
+     * @param spillFile where {@link OverflowPolicy#SPILL} writes; also checked
+     *                  for leftovers on start whatever the policy
+     */
+    public TransactionBus(DynamicShop plugin, int capacity, OverflowPolicy policy, File spillFile,
+            long flushIntervalMs) {
+        this.plugin = plugin;
+        this.queue = new TransactionQueue(capacity);
+        this.policy = policy;
+        this.flushIntervalMs = flushIntervalMs;
+        this.spillFile = spillFile;
+        this.replayFile = new File(spillFile.getParentFile(), spillFile.getName() + ".replay");
+        this.spillAppender = new TransactionFileAppender(plugin);
+        this.spillAppender.target(spillFile);
+    }
+
+    // ------------------------------------------------------------------------
+    // LIFECYCLE
+    // ------------------------------------------------------------------------
+
+    /**
+     * Add a sink. Sinks receive batches in the order they were added; one
+     * added while the bus runs starts with the next batch.
+     */
+    public void addSink(TransactionSink sink) {
+        sinks.add(sink);
+    }
+
+    public void removeSink(TransactionSink sink) {
+        sinks.remove(sink);
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        replayPending = replayFile.exists();
+        spilling = spillFile.length() > 0;
+        running = true;
+        thread = new Thread(this::run, "DynamicShop-TransactionBus");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop accepting transactions, deliver everything queued or spilled, give
+     * the sinks their final flush and close them. Blocks until done (or the
+     * shutdown timeout passes).
+     */
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            plugin.getLogger().severe("[TransactionLogger] Transaction bus did not finish within "
+                    + SHUTDOWN_TIMEOUT_MS / 1000 + "s; " + queue.size() + " transactions not written");
+            return;
+        }
+
+        // Publishers that raced with the stop flag
+        List<Transaction> batch = new ArrayList<>(MAX_BATCH);
+        while (queue.drain(batch, MAX_BATCH) > 0) {
+            dispatch(batch);
+            batch.clear();
+        }
+        flushSinks(true);
+        for (TransactionSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (Exception e) {
+                plugin.getLogger().warning("[TransactionLogger] Failed to close " + sink.name() + ": " + e.getMessage());
+            }
+        }
+        synchronized (SPILL_LOCK) {
+            spillAppender.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ------------------------------------------------------------------------
+    // PUBLISH (any thread)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Queue a transaction for the sinks. Returns false only if it was dropped
+     * under {@link OverflowPolicy#DROP}; when the bus is not running it is
+     * spilled for the next start.
+     */
+    public boolean publish(Transaction tx) {
+        if (running && !spilling) {
+            if (queue.offer(tx)) {
+                wake();
+                return true;
+            }
+            if (policy == OverflowPolicy.DROP) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (policy == OverflowPolicy.BLOCK) {
+                while (running) {
+                    if (queue.offer(tx)) {
+                        wake();
+                        return true;
+                    }
+                    wake();
+                    LockSupport.parkNanos(50_000L);
+                }
+            }
+        }
+
+        spillOrQueue(tx);
+        return true;
+    }
+
+    private void wake() {
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Spill {@code tx}, unless the bus thread replayed the spill file since
+     * the caller looked and the queue has room again. Decided under the lock
+     * that covers the rotation, so nothing is queued ahead of a transaction
+     * that is still waiting in the spill file.
+     */
+    private void spillOrQueue(Transaction tx) {
+        synchronized (SPILL_LOCK) {
+            if (running && !spilling && queue.offer(tx)) {
+                wake();
+                return;
+            }
+            spilling = true;
+            spillAppender.write(TransactionDailyLogSink.logLine(tx) + System.lineSeparator(), false);
+            if (!running) {
+                // the next bus may rotate the file; don't hold it open
+                spillAppender.close();
+            }
+        }
+        spilled.incrementAndGet();
+    }
+
+    // ------------------------------------------------------------------------
+    // BUS THREAD
+    // ------------------------------------------------------------------------
+
+    private void run() {
+        List<Transaction> batch = new ArrayList<>(MAX_BATCH);
+        long nextFlush = System.currentTimeMillis() + flushIntervalMs;
+
+        while (true) {
+            int drained = queue.drain(batch, MAX_BATCH);
+            if (drained > 0) {
+                dispatch(batch);
+                batch.clear();
+            } else if ((spilling || replayPending) && !replayFailed) {
+                // Caught up with the queue: everything spilled is older than what comes next
+                replaySpill(batch);
+            } else if (!running) {
+                break;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now >= nextFlush) {
+                flushSinks(false);
+                reportDrops(now);
+                nextFlush = now + flushIntervalMs;
+            }
+
+            if (drained == 0 && running) {
+                parked = true;
+                if (queue.isEmpty() && (!spilling || replayFailed)) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, nextFlush - now)));
+                } else if (!queue.isEmpty()) {
+                    Thread.onSpinWait(); // claimed but not yet published
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private void dispatch(List<Transaction> batch) {
+        for (TransactionSink sink : sinks) {
+            try {
+                sink.write(batch);
+            } catch (Exception e) {
+                plugin.getLogger().warning("[TransactionLogger] " + sink.name() + " failed to take "
+                        + batch.size() + " transactions: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flushSinks(boolean last) {
+        for (TransactionSink sink : sinks) {
+            try {
+                sink.flush(last);
+            } catch (Exception e) {
+                plugin.getLogger().warning("[TransactionLogger] Failed to flush " + sink.name() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Move the spill file aside (publishers go back to the queue from here on)
+     * and deliver it in batches. A replay file left by a crash is delivered
+     * first.
+     */
+    private void replaySpill(List<Transaction> batch) {
+        if (!replayPending) {
+            synchronized (SPILL_LOCK) {
+                spillAppender.close();
+                try {
+                    if (spillFile.exists()) {
+                        Files.move(spillFile.toPath(), replayFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    // keep spilling; the file is replayed on the next start
+                    plugin.getLogger().severe("[TransactionLogger] Failed to rotate " + spillFile.getName()
+                            + ": " + e.getMessage());
+                    replayFailed = true;
+                    return;
+                }
+                spilling = false;
+            }
+        }
+        replayPending = false;
+        if (!replayFile.exists()) {
+            return;
+        }
+
+        int replayed = 0;
+        TransactionCsvReader parser = new TransactionCsvReader();
+        try (BufferedReader reader = Files.newBufferedReader(replayFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Transaction tx = parser.parseLogLine(line);
+                if (tx == null) continue;
+                batch.add(tx);
+                if (batch.size() == MAX_BATCH) {
+                    dispatch(batch);
+                    replayed += batch.size();
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("[TransactionLogger] Failed to replay " + replayFile.getName()
+                    + ": " + e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+            replayed += batch.size();
+            batch.clear();
+        }
+
+        if (!replayFile.delete()) {
+            // it would be replayed again on the next start
+            plugin.getLogger().severe("[TransactionLogger] Could not delete " + replayFile.getName());
+        }
+        plugin.getLogger().info("[TransactionLogger] Replayed " + replayed + " spilled transactions");
+    }
+
+    private void reportDrops(long now) {
+        long total = dropped.get();
+        if (total > droppedReported && now - lastDropWarning >= DROP_WARNING_INTERVAL_MS) {
+            plugin.getLogger().warning("[TransactionLogger] Queue full: dropped " + (total - droppedReported)
+                    + " transactions (logging.overflow: drop)");
+            droppedReported = total;
+            lastDropWarning = now;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // STATS
+    // ------------------------------------------------------------------------
+
+    /**
+     * Transactions waiting on the queue (approximate).
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSpilled() {
+        return spilled.get();
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,213 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Hand-written readers for transactions.csv and the daily .log files.
+ *
+ * {@link #tailOffset} finds where the last N lines of a file start by reading
+ * backwards from the end, so startup only reads what it keeps. The line
+ * parsers split fields in a single pass (a comma inside double quotes does
+ * not split, like the regex they replace) and parse numbers and timestamps in
+ * place instead of through String.split and DateTimeFormatter.
+ */
+final class TransactionCsvReader {
+
+    private static final int TAIL_BLOCK = 64 * 1024;
+
+    // field boundaries of the line being parsed; callers are single-threaded
+    private final int[] starts = new int[16];
+    private final int[] ends = new int[16];
+    private int fields;
+
+    /**
+     * Byte offset of the first of the last {@code lines} lines in the file
+     * (0 if the file has fewer). A trailing newline does not count as an
+     * empty last line.
+     */
+    static long tailOffset(FileChannel channel, int lines) throws IOException {
+        long size = channel.size();
+        if (lines <= 0) {
+            return size;
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(TAIL_BLOCK);
+        long end = size;
+        int found = 0;
+        boolean skipTrailing = true;
+        while (end > 0) {
+            long start = Math.max(0, end - TAIL_BLOCK);
+            block.clear().limit((int) (end - start));
+            long position = start;
+            while (block.hasRemaining()) {
+                int n = channel.read(block, position);
+                if (n < 0) break;
+                position += n;
+            }
+
+            for (int i = (int) (end - start) - 1; i >= 0; i--) {
+                if (block.get(i) != '\n') {
+                    skipTrailing = false;
+                    continue;
+                }
+                if (skipTrailing) {
+                    skipTrailing = false;
+                    continue;
+                }
+                if (++found == lines) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    // ------------------------------------------------------------------------
+    // LINE PARSERS
+    // ------------------------------------------------------------------------
+
+    /**
+     * transactions.csv row:
+     * transactionId,playerId,player,type,item,displayName,amount,price,unitPrice,timestamp
+     */
+    Transaction parseCSVLine(String line) {
+        split(line);
+        if (fields < 10) return null;
+
+        try {
+            LocalDateTime ts = parseTimestamp(line, starts[9], ends[9]);
+            if (ts == null) return null;
+            Transaction.TransactionType type = parseType(line, starts[3], ends[3]);
+            if (type == null) return null;
+            return new Transaction(ts, text(line, 2), type, text(line, 4),
+                    parseInt(line, starts[6], ends[6]),
+                    Double.parseDouble(line.substring(starts[7], ends[7])),
+                    "", ""); // category/metadata not stored in the CSV format
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Daily log row: timestamp,player,type,item,amount,price[,category[,metadata]]
+     */
+    Transaction parseLogLine(String line) {
+        split(line);
+        if (fields < 6) return null;
+
+        try {
+            LocalDateTime ts = parseTimestamp(line, starts[0], ends[0]);
+            if (ts == null) return null;
+            Transaction.TransactionType type = parseType(line, starts[2], ends[2]);
+            if (type == null) return null;
+            return new Transaction(ts, text(line, 1), type, text(line, 3),
+                    parseInt(line, starts[4], ends[4]),
+                    Double.parseDouble(line.substring(starts[5], ends[5])),
+                    fields > 6 ? text(line, 6) : "",
+                    fields > 7 ? text(line, 7) : "");
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void split(String line) {
+        fields = 0;
+        int start = 0;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                addField(start, i);
+                start = i + 1;
+            }
+        }
+        addField(start, line.length());
+    }
+
+    private void addField(int start, int end) {
+        if (fields < starts.length) {
+            starts[fields] = start;
+            ends[fields] = end;
+        }
+        fields++;
+    }
+
+    /**
+     * Field text with quotes removed (values are quoted when they hold a comma).
+     */
+    private String text(String line, int field) {
+        int start = starts[field];
+        int end = ends[field];
+        int quote = line.indexOf('"', start);
+        if (quote < 0 || quote >= end) {
+            return line.substring(start, end);
+        }
+        StringBuilder out = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c != '"') out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static Transaction.TransactionType parseType(String line, int start, int end) {
+        if (line.startsWith("BUY", start) && end - start == 3) return Transaction.TransactionType.BUY;
+        if (line.startsWith("SELL", start) && end - start == 4) return Transaction.TransactionType.SELL;
+        return null;
+    }
+
+    private static int parseInt(String line, int start, int end) {
+        if (start >= end) throw new NumberFormatException("empty amount");
+        boolean negative = line.charAt(start) == '-';
+        int value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException(line.substring(start, end));
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * yyyy-MM-dd HH:mm:ss, or null if the field is not in that shape.
+     */
+    private static LocalDateTime parseTimestamp(String line, int start, int end) {
+        if (end - start != 19
+                || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-'
+                || line.charAt(start + 10) != ' '
+                || line.charAt(start + 13) != ':' || line.charAt(start + 16) != ':') {
+            return null;
+        }
+        int year = digits(line, start, 4);
+        int month = digits(line, start + 5, 2);
+        int day = digits(line, start + 8, 2);
+        int hour = digits(line, start + 11, 2);
+        int minute = digits(line, start + 14, 2);
+        int second = digits(line, start + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(String line, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,92 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Appends transactions to transactions.csv. Rows are buffered between bus
+ * flushes and written in one call per flush.
+ */
+final class TransactionCsvSink implements TransactionSink {
+
+    // write early if a burst fills this much between flushes
+    private static final int MAX_BUFFERED_CHARS = 1 << 20;
+
+    private final TransactionFileAppender appender;
+    private final StringBuilder lines = new StringBuilder(8192);
+    private final boolean fsync;
+
+    TransactionCsvSink(DynamicShop plugin, File csvFile, boolean fsync) {
+        this.appender = new TransactionFileAppender(plugin);
+        this.appender.target(csvFile);
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void write(List<Transaction> batch) {
+        for (Transaction tx : batch) {
+            lines.append(csvLine(tx)).append(System.lineSeparator());
+        }
+        if (lines.length() >= MAX_BUFFERED_CHARS) {
+            flush(false);
+        }
+    }
+
+    @Override
+    public void flush(boolean last) {
+        if (lines.length() == 0) {
+            return;
+        }
+        appender.write(lines, fsync);
+        lines.setLength(0);
+    }
+
+    @Override
+    public void close() {
+        appender.close();
+    }
+
+    @Override
+    public String name() {
+        return "transactions.csv";
+    }
+
+    private static String csvLine(Transaction tx) {
+        return String.join(",",
+                UUID.randomUUID().toString(), // transactionID
+                UUID.randomUUID().toString(), // playerID (random placeholder)
+                safe(tx.getPlayerName()),
+                tx.getType().name(),
+                safe(tx.getItem()),
+                safe(prettify(tx.getItem())), // displayName
+                String.valueOf(tx.getAmount()),
+                String.valueOf(tx.getPrice()),
+                String.valueOf(tx.getPrice() / tx.getAmount()), // unitPrice
+                tx.getTimestamp()
+        );
+    }
+
+    /**
+     * Escape commas and quotes in CSV values
+     */
+    static String safe(String s) {
+        if (s == null) return "";
+        if (s.contains(",")) return "\"" + s.replace("\"", "\"\"") + "\"";
+        return s;
+    }
+
+    /**
+     * Prettify material names for display
+     * STONE_BRICKS -> Stone Bricks
+     */
+    private static String prettify(String name) {
+        return Arrays.stream(name.toLowerCase().split("_"))
+                .map(w -> w.isEmpty() ? "" : Character.toUpperCase(w.charAt(0)) + w.substring(1))
+                .collect(Collectors.joining(" "));
+    }
+}
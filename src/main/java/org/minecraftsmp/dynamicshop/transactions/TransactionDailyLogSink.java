@@ -0,0 +1,79 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Appends transactions to the daily backup logs (logs/yyyy-MM-dd.log). Rows
+ * are buffered between bus flushes; the appender moves to the next day's file
+ * when the buffered rows cross midnight.
+ */
+final class TransactionDailyLogSink implements TransactionSink {
+
+    private static final int MAX_BUFFERED_CHARS = 1 << 20;
+
+    private final File logDir;
+    private final TransactionFileAppender appender;
+    private final StringBuilder lines = new StringBuilder(8192);
+    private final boolean fsync;
+    private String bufferedDay;
+
+    TransactionDailyLogSink(DynamicShop plugin, File logDir, boolean fsync) {
+        this.logDir = logDir;
+        this.appender = new TransactionFileAppender(plugin);
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void write(List<Transaction> batch) {
+        for (Transaction tx : batch) {
+            String date = tx.getDate();
+            if (!date.equals(bufferedDay)) {
+                flush(false);
+                bufferedDay = date;
+                appender.target(new File(logDir, date + ".log"));
+            }
+            lines.append(logLine(tx)).append(System.lineSeparator());
+        }
+        if (lines.length() >= MAX_BUFFERED_CHARS) {
+            flush(false);
+        }
+    }
+
+    @Override
+    public void flush(boolean last) {
+        if (lines.length() == 0) {
+            return;
+        }
+        appender.write(lines, fsync);
+        lines.setLength(0);
+    }
+
+    @Override
+    public void close() {
+        appender.close();
+    }
+
+    @Override
+    public String name() {
+        return "daily log";
+    }
+
+    /**
+     * Daily log row, read back by {@link TransactionCsvReader#parseLogLine}.
+     */
+    static String logLine(Transaction tx) {
+        return String.join(",",
+                tx.getTimestamp(),
+                TransactionCsvSink.safe(tx.getPlayerName()),
+                tx.getType().name(),
+                TransactionCsvSink.safe(tx.getItem()),
+                String.valueOf(tx.getAmount()),
+                String.valueOf(tx.getPrice()),
+                TransactionCsvSink.safe(tx.getCategory() != null ? tx.getCategory() : ""),
+                TransactionCsvSink.safe(tx.getMetadata() != null ? tx.getMetadata() : "")
+        );
+    }
+}
@@ -0,0 +1,144 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes archived transactions as CSV or NDJSON, one row at a time, for the
+ * admin export endpoint. Rows come from {@link TransactionArchive#export} and
+ * go straight to the writer, so memory use does not grow with the number of
+ * rows exported.
+ */
+public final class TransactionExporter {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    private static final String CSV_HEADER = "timestamp,player,type,item,amount,price,unit_price,category,metadata";
+
+    private final Format format;
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(256);
+    private long rows;
+
+    public TransactionExporter(Format format, Writer out) {
+        this.format = format;
+        this.out = out;
+    }
+
+    /**
+     * Write every archived row in [fromMillis, toMillis) matching the filters
+     * (null for any) and return how many were written. The writer is not
+     * flushed or closed.
+     */
+    public long export(TransactionArchive archive, long fromMillis, long toMillis, String player, String item)
+            throws IOException {
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+        archive.export(fromMillis, toMillis, player, item, this::write);
+        return rows;
+    }
+
+    private void write(Transaction tx) throws IOException {
+        line.setLength(0);
+        if (format == Format.CSV) {
+            csvRow(tx);
+        } else {
+            jsonRow(tx);
+        }
+        line.append('\n');
+        out.append(line);
+        rows++;
+    }
+
+    private void csvRow(Transaction tx) {
+        line.append(tx.getTimestamp()).append(',');
+        csv(tx.getPlayerName()).append(',');
+        line.append(tx.getType().name()).append(',');
+        csv(tx.getItem()).append(',');
+        line.append(tx.getAmount()).append(',');
+        line.append(tx.getPrice()).append(',');
+        line.append(tx.getAmount() != 0 ? tx.getPrice() / tx.getAmount() : 0.0).append(',');
+        csv(tx.getCategory()).append(',');
+        csv(tx.getMetadata());
+    }
+
+    private void jsonRow(Transaction tx) {
+        line.append("{\"timestamp\":");
+        json(tx.getTimestamp());
+        line.append(",\"player\":");
+        json(tx.getPlayerName());
+        line.append(",\"type\":\"").append(tx.getType().name()).append('"');
+        line.append(",\"item\":");
+        json(tx.getItem());
+        line.append(",\"amount\":").append(tx.getAmount());
+        line.append(",\"price\":").append(tx.getPrice());
+        line.append(",\"category\":");
+        json(tx.getCategory());
+        line.append(",\"metadata\":");
+        json(tx.getMetadata());
+        line.append('}');
+    }
+
+    /**
+     * RFC 4180 field: quoted when it holds a comma, quote or line break.
+     */
+    private StringBuilder csv(String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private void json(String value) {
+        if (value == null) {
+            line.append("\"\"");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
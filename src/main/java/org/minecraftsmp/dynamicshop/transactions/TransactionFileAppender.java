@@ -0,0 +1,126 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import org.minecraftsmp.dynamicshop.DynamicShop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Long-lived append channel for one text target (transactions.csv or the
+ * current day's log). The channel stays open between flushes and is only
+ * reopened when the target file changes, which for the daily log happens at
+ * the first flush after midnight.
+ *
+ * A flush encodes the whole batch into pooled direct buffers and hands them
+ * to the channel in one gathering write, so a batch costs one write call
+ * instead of an open/write/close per line.
+ */
+final class TransactionFileAppender {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final DynamicShop plugin;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    private File file;
+    private FileChannel channel;
+
+    TransactionFileAppender(DynamicShop plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Point the appender at a file. A different file closes the current
+     * channel; the new one is opened on the next write.
+     */
+    void target(File target) {
+        if (!target.equals(file)) {
+            close();
+            file = target;
+        }
+    }
+
+    /**
+     * Append {@code text} to the target. With {@code force} the bytes are
+     * fsynced before returning.
+     */
+    void write(CharSequence text, boolean force) {
+        if (file == null || text.length() == 0) {
+            return;
+        }
+
+        int used = encode(text);
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+
+            ByteBuffer[] buffers = chunks.toArray(new ByteBuffer[0]);
+            ByteBuffer last = buffers[used - 1];
+            while (last.hasRemaining()) {
+                channel.write(buffers, 0, used);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("[TransactionLogger] Failed to write " + file.getName() + ": " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Encode into as many pooled chunks as needed; returns how many were used,
+     * each flipped for reading.
+     */
+    private int encode(CharSequence text) {
+        CharBuffer in = CharBuffer.wrap(text);
+        encoder.reset();
+
+        int used = 0;
+        while (true) {
+            ByteBuffer chunk = chunk(used++);
+            CoderResult result = encoder.encode(in, chunk, true);
+            if (result.isOverflow()) {
+                chunk.flip();
+                continue;
+            }
+            encoder.flush(chunk); // UTF-8 keeps no trailing state
+            chunk.flip();
+            return used;
+        }
+    }
+
+    private ByteBuffer chunk(int i) {
+        if (i == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+        }
+        ByteBuffer chunk = chunks.get(i);
+        chunk.clear();
+        return chunk;
+    }
+
+    void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-player, per-item and per-day posting lists over the logger's window.
+ * Each list holds the ring sequence numbers of the matching transactions in
+ * append order, so a filtered query walks only its own entries, newest first,
+ * without scanning or sorting the whole history.
+ *
+ * Transactions leave the window in sequence order, so an evicted entry is
+ * always the oldest in each of its lists and removal is O(1).
+ *
+ * Player and item keys are case-insensitive, like the web lookups they serve.
+ */
+final class TransactionIndex {
+
+    private final Map<String, Postings> byPlayer = new HashMap<>();
+    private final Map<String, Postings> byItem = new HashMap<>();
+    private final Map<LocalDate, Postings> byDay = new HashMap<>();
+
+    /**
+     * Growable circular deque of sequence numbers.
+     */
+    private static final class Postings {
+        long[] seqs = new long[8];
+        int first;
+        int size;
+
+        void addLast(long seq) {
+            if (size == seqs.length) {
+                long[] grown = new long[seqs.length * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = seqs[(first + i) % seqs.length];
+                }
+                seqs = grown;
+                first = 0;
+            }
+            seqs[(first + size) % seqs.length] = seq;
+            size++;
+        }
+
+        void removeFirst(long seq) {
+            if (size > 0 && seqs[first] == seq) {
+                first = (first + 1) % seqs.length;
+                size--;
+            }
+        }
+
+        /**
+         * Up to {@code limit} sequence numbers below {@code before}, newest
+         * first. The list is ascending, so the starting point is a binary search.
+         */
+        long[] newest(long before, int limit) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (seqs[(first + mid) % seqs.length] < before) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            int n = Math.min(limit, lo);
+            long[] out = new long[n];
+            for (int i = 0; i < n; i++) {
+                out[i] = seqs[(first + lo - 1 - i) % seqs.length];
+            }
+            return out;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // UPDATES
+    // ------------------------------------------------------------------------
+
+    synchronized void add(long seq, Transaction tx) {
+        byPlayer.computeIfAbsent(playerKey(tx.getPlayerName()), k -> new Postings()).addLast(seq);
+        byItem.computeIfAbsent(itemKey(tx.getItem()), k -> new Postings()).addLast(seq);
+        byDay.computeIfAbsent(tx.getTimestampRaw().toLocalDate(), k -> new Postings()).addLast(seq);
+    }
+
+    synchronized void remove(long seq, Transaction tx) {
+        removeFrom(byPlayer, playerKey(tx.getPlayerName()), seq);
+        removeFrom(byItem, itemKey(tx.getItem()), seq);
+        removeFrom(byDay, tx.getTimestampRaw().toLocalDate(), seq);
+    }
+
+    synchronized void clear() {
+        byPlayer.clear();
+        byItem.clear();
+        byDay.clear();
+    }
+
+    private static <K> void removeFrom(Map<K, Postings> index, K key, long seq) {
+        Postings postings = index.get(key);
+        if (postings == null) {
+            return;
+        }
+        postings.removeFirst(seq);
+        if (postings.size == 0) {
+            index.remove(key);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // LOOKUPS (sequence numbers below {@code before}, newest first)
+    // ------------------------------------------------------------------------
+
+    synchronized long[] player(String playerName, long before, int limit) {
+        return lookup(byPlayer, playerKey(playerName), before, limit);
+    }
+
+    synchronized long[] item(String item, long before, int limit) {
+        return lookup(byItem, itemKey(item), before, limit);
+    }
+
+    synchronized long[] day(LocalDate day, long before, int limit) {
+        return lookup(byDay, day, before, limit);
+    }
+
+    private static <K> long[] lookup(Map<K, Postings> index, K key, long before, int limit) {
+        Postings postings = index.get(key);
+        return postings == null ? new long[0] : postings.newest(before, limit);
+    }
+
+    private static String playerKey(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+
+    private static String itemKey(String item) {
+        return item.toUpperCase(Locale.ROOT);
+    }
+}
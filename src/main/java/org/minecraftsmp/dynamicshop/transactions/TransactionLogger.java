@@ -1,35 +1,69 @@
 package org.minecraftsmp.dynamicshop.transactions;
 
-import org.bukkit.scheduler.BukkitTask;
 import org.minecraftsmp.dynamicshop.DynamicShop;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class TransactionLogger {
 
     private final DynamicShop plugin;
     private File logDir;
     private File csvFile;
-
-    private final Deque<Transaction> recent = new ArrayDeque<>();
+    // Binary day-partitioned archive (null when logging.archive is off)
+    private TransactionArchive archive;
+    private boolean fsync;
+
+    // Carries logged transactions to the sinks on its own thread
+    private static final long FLUSH_INTERVAL_MS = 5_000L;
+    private TransactionBus bus;
+    // Logged before init(), under writeLock; bounded, the rest is counted and reported
+    private static final int MAX_BEFORE_INIT = 4096;
+    private final List<Transaction> beforeInit = new ArrayList<>();
+    private long droppedBeforeInit;
+
+    // In-memory history: written under writeLock, read lock-free
+    private TransactionRing recent = new TransactionRing(5000);
+    private final Object writeLock = new Object();
+    // Running totals over the window, updated on append and eviction
+    private final TransactionStats stats = new TransactionStats();
+    // Player / item / day lookups over the window (ring sequence numbers)
+    private final TransactionIndex index = new TransactionIndex();
+    // Bumped on every change to the history above; never goes back, even across init()
+    private volatile long version;
     private int maxRecent = 5000;
 
-    // Queue for pending disk writes
-    private final java.util.concurrent.ConcurrentLinkedQueue<Transaction> pendingWrites =
-            new java.util.concurrent.ConcurrentLinkedQueue<>();
-
-    // Batch update system - writes to disk periodically
-    private BukkitTask periodicTask = null;
+    // Minute/hour/day buckets over the full history, saved to rollups.bin
+    private static final int ROLLUP_MAGIC = 0x44535231; // "DSR1"
+    private static final long ROLLUP_SAVE_INTERVAL_MS = 5 * 60 * 1000L;
+    private final TransactionRollups rollups = new TransactionRollups();
+    private File rollupsFile;
+    private boolean rollupsDirty;
+    private long lastRollupSave;
 
     public TransactionLogger(DynamicShop plugin) {
         this.plugin = plugin;
     }
 
     public void init() {
+        // Deliver anything still queued before the history is reloaded. The
+        // closed bus stays in place and spills what is logged until the new
+        // one starts and replays it.
+        if (bus != null) {
+            bus.close();
+        }
+
         logDir = new File(plugin.getDataFolder(), "logs");
 
         // Create transactions directory
@@ -42,151 +76,529 @@ public class TransactionLogger {
         if (!logDir.exists()) logDir.mkdirs();
 
         maxRecent = plugin.getConfig().getInt("logging.max_recent_transactions", 5000);
-
-        // Load from transactions.csv on startup
-        loadFromCSV();
+        fsync = plugin.getConfig().getBoolean("logging.fsync", false);
+        recent = new TransactionRing(maxRecent);
+        stats.clear();
+        index.clear();
+        version++;
+
+        openArchive(new File(transactionsDir, "archive"));
+
+        // Load from the archive, else transactions.csv
+        if (archive != null && !archive.isEmpty()) {
+            loadFromArchive();
+        } else {
+            loadFromCSV();
+        }
 
         // Load from daily logs if CSV is empty or missing
         if (recent.isEmpty()) loadFromLogs();
 
         plugin.getLogger().info("Loaded " + recent.size() + " recent transactions");
 
-        // Start batch write task - writes queued transactions every 5 seconds
-        startBatchWriteTask();
+        rollupsFile = new File(transactionsDir, "rollups.bin");
+        loadRollups();
+
+        startBus(transactionsDir);
     }
 
     /**
-     * Start background task to flush transaction writes every 5 seconds
+     * Start the transaction bus with the built-in sinks, in this order: the
+     * in-memory history, transactions.csv, the daily logs, the archive and the
+     * rollups. Rollups come after the archive so a rollup save always matches
+     * what the archive holds.
      */
-    private void startBatchWriteTask() {
-        if (periodicTask != null) {
-            periodicTask.cancel();
+    private void startBus(File transactionsDir) {
+        int capacity = plugin.getConfig().getInt("logging.queue_size", 65536);
+        String policyName = plugin.getConfig().getString("logging.overflow", "spill");
+        TransactionBus.OverflowPolicy policy = TransactionBus.OverflowPolicy.parse(policyName);
+        if (policy == null) {
+            plugin.getLogger().warning("[TransactionLogger] Unknown logging.overflow '" + policyName
+                    + "', using spill");
+            policy = TransactionBus.OverflowPolicy.SPILL;
         }
 
-        periodicTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(
-                plugin, this::flushPendingWrites, 100L, 100L);
+        bus = new TransactionBus(plugin, capacity, policy, new File(transactionsDir, "spill.log"), FLUSH_INTERVAL_MS);
+        bus.addSink(new MemorySink());
+        bus.addSink(new TransactionCsvSink(plugin, csvFile, fsync));
+        bus.addSink(new TransactionDailyLogSink(plugin, logDir, fsync));
+        if (archive != null) {
+            bus.addSink(new TransactionArchiveSink(archive, fsync));
+        }
+        bus.addSink(new RollupSink());
+        bus.start();
+
+        List<Transaction> early;
+        long dropped;
+        synchronized (writeLock) {
+            early = new ArrayList<>(beforeInit);
+            beforeInit.clear();
+            dropped = droppedBeforeInit;
+            droppedBeforeInit = 0;
+        }
+        if (dropped > 0) {
+            plugin.getLogger().warning("[TransactionLogger] Dropped " + dropped
+                    + " transactions logged before the logger was initialised");
+        }
+        for (Transaction tx : early) {
+            bus.publish(tx); // outside writeLock: a blocking publish waits on the sinks
+        }
     }
 
     /**
-     * Flush all pending transaction writes to disk
+     * Deliver everything still queued, write it out and close the sinks
+     * (called on plugin disable)
      */
-    private void flushPendingWrites() {
-        if (pendingWrites.isEmpty()) {
-            return;
+    public void shutdown() {
+        if (bus != null) {
+            plugin.getLogger().info("[TransactionLogger] Flushing pending writes on shutdown...");
+            bus.close(); // later transactions are spilled and replayed on the next start
+        }
+
+        if (archive != null) {
+            archive.close();
         }
+    }
 
-        int flushed = 0;
-        Transaction tx;
+    // ================================================================
+    // SINKS
+    // ================================================================
 
-        while ((tx = pendingWrites.poll()) != null) {
-            writeToCSV(tx);
-            writeToDailyLog(tx);
-            flushed++;
+    /**
+     * Register another output for logged transactions (replication, webhooks,
+     * ...). It receives every transaction logged from now on, on the bus
+     * thread. Ignored before {@link #init()}.
+     */
+    public void addSink(TransactionSink sink) {
+        if (bus != null) {
+            bus.addSink(sink);
         }
+    }
 
-        if (flushed > 0) {
-            plugin.getLogger().fine("[TransactionLogger] Flushed " + flushed + " transactions to disk");
+    public void removeSink(TransactionSink sink) {
+        if (bus != null) {
+            bus.removeSink(sink);
         }
     }
 
     /**
-     * Stop any background tasks and flush pending writes (called on plugin disable)
+     * The transaction bus, for queue statistics. Null before init; after
+     * shutdown it is the closed bus.
      */
-    public void shutdown() {
-        if (periodicTask != null) {
-            periodicTask.cancel();
-            periodicTask = null;
+    public TransactionBus getBus() {
+        return bus;
+    }
+
+    /**
+     * The in-memory history: ring, running totals and indexes.
+     */
+    private final class MemorySink implements TransactionSink {
+        @Override
+        public void write(List<Transaction> batch) {
+            synchronized (writeLock) {
+                for (Transaction tx : batch) {
+                    append(tx);
+                }
+            }
         }
 
-        // Flush any remaining pending writes
-        plugin.getLogger().info("[TransactionLogger] Flushing pending writes on shutdown...");
-        flushPendingWrites();
+        @Override
+        public String name() {
+            return "recent history";
+        }
     }
 
     /**
-     * Log a transaction to memory and queue for disk write
+     * Rollup buckets, saved to rollups.bin every few minutes and on shutdown.
+     * Runs after the archive sink, so the archive already holds every
+     * transaction in a snapshot taken here.
      */
-    public void log(Transaction tx) {
-        // Add to in-memory buffer (instant)
-        recent.addLast(tx);
+    private final class RollupSink implements TransactionSink {
+        @Override
+        public void write(List<Transaction> batch) {
+            synchronized (writeLock) {
+                for (Transaction tx : batch) {
+                    rollups.add(tx);
+                }
+                rollupsDirty = true;
+            }
+        }
+
+        @Override
+        public void flush(boolean last) {
+            byte[] snapshot = null;
+            synchronized (writeLock) {
+                long now = System.currentTimeMillis();
+                if (rollupsDirty && (last || now - lastRollupSave >= ROLLUP_SAVE_INTERVAL_MS)) {
+                    snapshot = snapshotRollups();
+                    rollupsDirty = false;
+                    lastRollupSave = now;
+                }
+            }
+            if (snapshot != null) {
+                saveRollups(snapshot);
+            }
+        }
+
+        @Override
+        public String name() {
+            return "rollups";
+        }
+    }
+
+    // ================================================================
+    // BINARY ARCHIVE
+    // ================================================================
+
+    /**
+     * Open the binary archive. The first time it is enabled, transactions.csv
+     * is imported so the archive starts with the full history.
+     */
+    private void openArchive(File archiveDir) {
+        if (archive != null) {
+            archive.close();
+            archive = null;
+        }
+        if (!plugin.getConfig().getBoolean("logging.archive", true)) {
+            return;
+        }
+
+        TransactionArchive opened = new TransactionArchive(plugin, archiveDir);
+        try {
+            opened.open();
+        } catch (IOException e) {
+            plugin.getLogger().severe("[TransactionLogger] Failed to open transaction archive, using CSV only: "
+                    + e.getMessage());
+            opened.close();
+            return;
+        }
+        archive = opened;
+
+        if (archive.isEmpty() && csvFile.exists()) {
+            importCSV();
+        }
+    }
 
-        // Keep it bounded
-        while (recent.size() > maxRecent) {
-            recent.removeFirst();
+    /**
+     * Stream transactions.csv into the archive in blocks.
+     */
+    private void importCSV() {
+        int imported = 0;
+        TransactionCsvReader parser = new TransactionCsvReader();
+        List<Transaction> batch = new ArrayList<>(4096);
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Transaction tx = parser.parseCSVLine(line);
+                if (tx == null) continue;
+                batch.add(tx);
+                if (batch.size() == 4096) {
+                    archive.append(batch, false);
+                    imported += batch.size();
+                    batch.clear();
+                }
+            }
+            archive.append(batch, false);
+            imported += batch.size();
+            plugin.getLogger().info("[TransactionLogger] Imported " + imported + " transactions from CSV into the archive");
+        } catch (IOException e) {
+            plugin.getLogger().warning("[TransactionLogger] Failed to import transactions.csv: " + e.getMessage());
         }
+    }
 
-        // Queue for disk write (batched every 5 seconds)
-        pendingWrites.offer(tx);
+    /**
+     * Load the newest maxRecent transactions from the archive. Only the most
+     * recent days are read, however long the history is.
+     */
+    private void loadFromArchive() {
+        List<Transaction> loaded = archive.loadRecent(maxRecent);
+        for (Transaction tx : loaded) {
+            append(tx);
+        }
+        plugin.getLogger().info("Loaded " + loaded.size() + " transactions from archive");
     }
 
     /**
-     * Get recent transactions for web dashboard
+     * The binary archive, for range scans over the full history. Null when
+     * logging.archive is disabled.
      */
-    public synchronized List<Transaction> getRecentTransactions() {
-        return new ArrayList<>(recent);
+    public TransactionArchive getArchive() {
+        return archive;
     }
 
     // ================================================================
-    // CSV PERSISTENCE
+    // ROLLUPS
     // ================================================================
 
     /**
-     * Write a transaction to the CSV file
-     */
-    private void writeToCSV(Transaction tx) {
-        String entry = String.join(",",
-                UUID.randomUUID().toString(), // transactionID
-                UUID.randomUUID().toString(), // playerID (random placeholder)
-                safe(tx.getPlayerName()),
-                tx.getType().name(),
-                safe(tx.getItem()),
-                safe(prettify(tx.getItem())), // displayName
-                String.valueOf(tx.getAmount()),
-                String.valueOf(tx.getPrice()),
-                String.valueOf(tx.getPrice() / tx.getAmount()), // unitPrice
-                tx.getTimestamp()
-        );
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(csvFile, true))) {
-            writer.write(entry);
-            writer.newLine();
+     * Minute/hour/day buckets per item and shop-wide, for the analytics
+     * endpoints. Covers the full history, not just the in-memory window.
+     */
+    public TransactionRollups getRollups() {
+        return rollups;
+    }
+
+    /**
+     * Restore rollups.bin and replay whatever the archive gained after it was
+     * saved. Without a saved file the rollups are rebuilt from the archive
+     * (once), or seeded from the in-memory window when there is no archive.
+     */
+    private void loadRollups() {
+        rollups.clear();
+        rollupsDirty = false;
+        lastRollupSave = System.currentTimeMillis();
+
+        boolean restored = false;
+        TransactionArchive.Position savedAt = null;
+        if (rollupsFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(rollupsFile)))) {
+                if (in.readInt() != ROLLUP_MAGIC) {
+                    throw new IOException("not a rollup file");
+                }
+                if (in.readBoolean()) {
+                    savedAt = new TransactionArchive.Position(LocalDate.ofEpochDay(in.readLong()), in.readLong());
+                }
+                rollups.read(in);
+                restored = true;
+            } catch (IOException e) {
+                plugin.getLogger().warning("[TransactionLogger] Failed to read rollups.bin, rebuilding: " + e.getMessage());
+                rollups.clear();
+                savedAt = null;
+            }
+        }
+
+        if (archive != null && (!restored || savedAt != null)) {
+            int[] replayed = {0};
+            archive.scanFrom(restored ? savedAt : null, tx -> {
+                rollups.add(tx);
+                replayed[0]++;
+            });
+            if (replayed[0] > 0) {
+                rollupsDirty = true;
+                plugin.getLogger().info("[TransactionLogger] Rolled up " + replayed[0] + " archived transactions");
+            }
+        } else if (!restored) {
+            for (Transaction tx : recent.view()) {
+                rollups.add(tx);
+            }
+            rollupsDirty = !recent.isEmpty();
+        }
+
+        rollups.prune(TransactionArchive.toMillis(LocalDateTime.now()));
+    }
+
+    /**
+     * Serialize the rollups (called under writeLock, see RollupSink).
+     */
+    private byte[] snapshotRollups() {
+        rollups.prune(TransactionArchive.toMillis(LocalDateTime.now()));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            rollups.write(out);
         } catch (IOException e) {
-            plugin.getLogger().warning("Failed to append to CSV: " + e.getMessage());
+            plugin.getLogger().warning("[TransactionLogger] Failed to serialize rollups: " + e.getMessage());
+            return null;
         }
+        return bytes.toByteArray();
     }
 
     /**
-     * Write a transaction to the daily log file (backup)
+     * Write rollups.bin atomically, stamped with the archive position the
+     * snapshot corresponds to.
      */
-    private void writeToDailyLog(Transaction tx) {
-        String fileName = tx.getDate() + ".log";
-        File file = new File(logDir, fileName);
-        String entry = String.join(",",
-                tx.getTimestamp(),
-                safe(tx.getPlayerName()),
-                tx.getType().name(),
-                safe(tx.getItem()),
-                String.valueOf(tx.getAmount()),
-                String.valueOf(tx.getPrice()),
-                safe(tx.getCategory() != null ? tx.getCategory() : ""),
-                safe(tx.getMetadata() != null ? tx.getMetadata() : "")
-        );
+    private void saveRollups(byte[] snapshot) {
+        TransactionArchive.Position position = archive != null ? archive.end() : null;
+        Path target = rollupsFile.toPath();
+        Path tmp = target.resolveSibling(rollupsFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(ROLLUP_MAGIC);
+            out.writeBoolean(position != null);
+            if (position != null) {
+                out.writeLong(position.day().toEpochDay());
+                out.writeLong(position.offset());
+            }
+            out.write(snapshot);
+        } catch (IOException e) {
+            plugin.getLogger().warning("[TransactionLogger] Failed to save rollups.bin: " + e.getMessage());
+            return;
+        }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
-            writer.write(entry);
-            writer.newLine();
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ex) {
+                plugin.getLogger().warning("[TransactionLogger] Failed to save rollups.bin: " + ex.getMessage());
+            }
         } catch (IOException e) {
-            plugin.getLogger().warning("Failed to write daily log: " + e.getMessage());
+            plugin.getLogger().warning("[TransactionLogger] Failed to save rollups.bin: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Log a transaction to memory and queue for disk write
+     */
+    public void log(Transaction tx) {
+        // The bus thread adds it to the in-memory ring and writes it out; the
+        // caller only pays for one queue offer. A stopped bus spills it for the
+        // next start, so it still reaches every sink.
+        TransactionBus current = bus;
+        if (current != null) {
+            current.publish(tx);
+            return;
+        }
+
+        // Before init: hand it to the bus once it starts
+        synchronized (writeLock) {
+            if (beforeInit.size() < MAX_BEFORE_INIT) {
+                beforeInit.add(tx);
+            } else {
+                droppedBeforeInit++;
+            }
+        }
+    }
+
+    /**
+     * Add to the ring and roll the entry that just left the window out of the
+     * running totals and indexes. The evicted entry is still readable: the ring
+     * keeps slack slots past the window.
+     */
+    private void append(Transaction tx) {
+        synchronized (writeLock) {
+            long seq = recent.append(tx);
+            stats.add(tx);
+            index.add(seq, tx);
+            version++;
+
+            long evictedSeq = seq - recent.window();
+            Transaction evicted = recent.get(evictedSeq);
+            if (evicted != null) {
+                stats.remove(evicted);
+                index.remove(evictedSeq, evicted);
+            }
         }
     }
 
     /**
-     * Escape commas and quotes in CSV values
+     * Get recent transactions for web dashboard, oldest first.
+     * Returns a read-only view of the in-memory ring, not a copy; safe to
+     * iterate or stream from any thread while transactions are being logged
+     * (entries the writer laps meanwhile are skipped).
+     */
+    public List<Transaction> getRecentTransactions() {
+        return recent.view();
+    }
+
+    /**
+     * Recent transactions, newest first (view, not a copy).
+     */
+    public List<Transaction> getRecentTransactionsNewestFirst() {
+        return recent.newestFirst();
+    }
+
+    // ================================================================
+    // INDEXED LOOKUPS (newest first, only matching entries are touched)
+    // ================================================================
+
+    /**
+     * Recent transactions by a player (case-insensitive), newest first.
+     */
+    public List<Transaction> getTransactionsByPlayer(String playerName, int limit) {
+        return resolve(index.player(playerName, Long.MAX_VALUE, limit));
+    }
+
+    /**
+     * Recent transactions for an item or variant id (case-insensitive), newest first.
+     */
+    public List<Transaction> getTransactionsByItem(String item, int limit) {
+        return resolve(index.item(item, Long.MAX_VALUE, limit));
+    }
+
+    /**
+     * Recent transactions on a day (yyyy-MM-dd), newest first. Empty if the
+     * date does not parse.
      */
-    private String safe(String s) {
-        if (s == null) return "";
-        if (s.contains(",")) return "\"" + s.replace("\"", "\"\"") + "\"";
-        return s;
+    public List<Transaction> getTransactionsByDate(String date, int limit) {
+        LocalDate day = parseDay(date);
+        return day == null ? Collections.emptyList() : resolve(index.day(day, Long.MAX_VALUE, limit));
+    }
+
+    /**
+     * Look the sequence numbers up in the ring. An entry overwritten since the
+     * index was read (reader fell behind by more than the ring's slack) is skipped.
+     */
+    private List<Transaction> resolve(long[] seqs) {
+        List<Transaction> result = new ArrayList<>(seqs.length);
+        for (long seq : seqs) {
+            Transaction tx = recent.get(seq);
+            if (tx != null) {
+                result.add(tx);
+            }
+        }
+        return result;
+    }
+
+    private static LocalDate parseDay(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // ================================================================
+    // PAGED LOOKUPS (sequence-number cursors, newest first)
+    // ================================================================
+
+    /**
+     * Up to {@code limit} recent transactions logged before sequence number
+     * {@code before} (Long.MAX_VALUE for the newest page).
+     */
+    public TransactionPage getRecentTransactions(long before, int limit) {
+        long to = Math.min(before, recent.head());
+        long from = Math.max(recent.tail(), to - limit - 1);
+        long[] seqs = new long[(int) Math.max(0, to - from)];
+        for (int i = 0; i < seqs.length; i++) {
+            seqs[i] = to - 1 - i;
+        }
+        return page(seqs, limit);
+    }
+
+    public TransactionPage getTransactionsByPlayer(String playerName, long before, int limit) {
+        return page(index.player(playerName, before, plusOne(limit)), limit);
+    }
+
+    public TransactionPage getTransactionsByItem(String item, long before, int limit) {
+        return page(index.item(item, before, plusOne(limit)), limit);
+    }
+
+    public TransactionPage getTransactionsByDate(String date, long before, int limit) {
+        LocalDate day = parseDay(date);
+        return day == null ? new TransactionPage(Collections.emptyList(), -1)
+                : page(index.day(day, before, plusOne(limit)), limit);
+    }
+
+    /**
+     * Resolve up to {@code limit} of {@code seqs} (fetched one longer, to tell
+     * whether another page follows).
+     */
+    private TransactionPage page(long[] seqs, int limit) {
+        List<Transaction> result = new ArrayList<>(Math.min(limit, seqs.length));
+        long last = -1;
+        int i = 0;
+        for (; i < seqs.length && result.size() < limit; i++) {
+            Transaction tx = recent.get(seqs[i]);
+            if (tx != null) {
+                result.add(tx);
+                last = seqs[i];
+            }
+        }
+        return new TransactionPage(result, i < seqs.length ? last : -1);
+    }
+
+    private static int plusOne(int limit) {
+        return limit == Integer.MAX_VALUE ? limit : limit + 1;
     }
 
     // ================================================================
@@ -194,7 +606,9 @@ public class TransactionLogger {
     // ================================================================
 
     /**
-     * Load recent transactions from CSV on startup
+     * Load recent transactions from CSV on startup. Only the tail of the file
+     * is read: the start of the last maxRecent lines is found by scanning
+     * backwards from the end, so a large CSV costs no more than a small one.
      */
     private void loadFromCSV() {
         if (!csvFile.exists()) {
@@ -202,56 +616,37 @@ public class TransactionLogger {
             return;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
-            String line;
-            int loaded = 0;
+        try (FileChannel channel = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ)) {
+            // a few extra lines in case some at the end do not parse
+            long offset = TransactionCsvReader.tailOffset(channel, maxRecent + 64);
+            channel.position(offset);
 
-            // Read all lines into a temporary list
-            List<Transaction> temp = new ArrayList<>();
-            while ((line = reader.readLine()) != null) {
-                Transaction tx = parseCSVLine(line);
-                if (tx != null) {
-                    temp.add(tx);
+            TransactionCsvReader parser = new TransactionCsvReader();
+            Deque<Transaction> temp = new ArrayDeque<>();
+            try (BufferedReader reader = new BufferedReader(
+                    Channels.newReader(channel, StandardCharsets.UTF_8), 64 * 1024)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Transaction tx = parser.parseCSVLine(line);
+                    if (tx == null) continue;
+                    temp.addLast(tx);
+                    if (temp.size() > maxRecent) temp.removeFirst();
                 }
             }
 
-            // Keep only the most recent maxRecent transactions
-            int start = Math.max(0, temp.size() - maxRecent);
-            for (int i = start; i < temp.size(); i++) {
-                recent.addLast(temp.get(i));
-                loaded++;
+            for (Transaction tx : temp) {
+                append(tx);
             }
 
-            plugin.getLogger().info("Loaded " + loaded + " transactions from CSV");
+            plugin.getLogger().info("Loaded " + temp.size() + " transactions from CSV");
         } catch (IOException e) {
             plugin.getLogger().warning("Failed to load transactions.csv: " + e.getMessage());
         }
     }
 
     /**
-     * Parse a CSV line into a Transaction object
-     */
-    private Transaction parseCSVLine(String line) {
-        String[] p = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-        if (p.length < 10) return null;
-
-        try {
-            LocalDateTime ts = LocalDateTime.parse(p[9], DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String player = p[2].replace("\"", "");
-            Transaction.TransactionType type = Transaction.TransactionType.valueOf(p[3]);
-            String item = p[4].replace("\"", "");
-            int amount = Integer.parseInt(p[6]);
-            double price = Double.parseDouble(p[7]);
-            String category = ""; // Not stored in old CSV format
-            String metadata = ""; // Not stored in old CSV format
-            return new Transaction(ts, player, type, item, amount, price, category, metadata);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * Load transactions from daily log files (fallback)
+     * Load transactions from daily log files (fallback). Files are read newest
+     * first, each from its tail, until maxRecent transactions are collected.
      */
     private void loadFromLogs() {
         File[] logFiles = logDir.listFiles((dir, name) -> name.matches("\\d{4}-\\d{2}-\\d{2}\\.log"));
@@ -260,67 +655,50 @@ public class TransactionLogger {
         // Sort by date, newest first
         Arrays.sort(logFiles, Comparator.comparing(File::getName).reversed());
 
-        int loaded = 0;
+        TransactionCsvReader parser = new TransactionCsvReader();
+        Deque<Transaction> loadedTxs = new ArrayDeque<>();
         for (File file : logFiles) {
-            if (loaded >= maxRecent) break;
-
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null && loaded < maxRecent) {
-                    Transaction tx = parseLogLine(line);
-                    if (tx != null) {
-                        recent.addFirst(tx); // Add in reverse order
-                        loaded++;
+            int wanted = maxRecent - loadedTxs.size();
+            if (wanted <= 0) break;
+
+            List<Transaction> day = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                channel.position(TransactionCsvReader.tailOffset(channel, wanted + 64));
+                try (BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        Transaction tx = parser.parseLogLine(line);
+                        if (tx != null) day.add(tx);
                     }
                 }
             } catch (IOException e) {
                 plugin.getLogger().warning("Failed to load log " + file.getName() + ": " + e.getMessage());
             }
-        }
-
-        plugin.getLogger().info("Loaded " + loaded + " transactions from daily logs");
-    }
-
-    /**
-     * Parse a daily log line into a Transaction object
-     */
-    private Transaction parseLogLine(String line) {
-        String[] p = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-        if (p.length < 6) return null;
 
-        try {
-            LocalDateTime ts = LocalDateTime.parse(p[0], DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String player = p[1].replace("\"", "");
-            Transaction.TransactionType type = Transaction.TransactionType.valueOf(p[2]);
-            String item = p[3].replace("\"", "");
-            int amount = Integer.parseInt(p[4]);
-            double price = Double.parseDouble(p[5]);
-            String category = p.length > 6 ? p[6].replace("\"", "") : "";
-            String metadata = p.length > 7 ? p[7].replace("\"", "") : "";
-            return new Transaction(ts, player, type, item, amount, price, category, metadata);
-        } catch (Exception e) {
-            return null;
+            // keep the newest of this day, in front of the newer days already loaded
+            for (int k = day.size() - 1; k >= Math.max(0, day.size() - wanted); k--) {
+                loadedTxs.addFirst(day.get(k));
+            }
+        }
+        for (Transaction tx : loadedTxs) {
+            append(tx);
         }
+
+        plugin.getLogger().info("Loaded " + loadedTxs.size() + " transactions from daily logs");
     }
 
     // ================================================================
-    // UTILITY METHODS
+    // STATISTICS METHODS (for PlaceholderAPI)
     // ================================================================
 
     /**
-     * Prettify material names for display
-     * STONE_BRICKS -> Stone Bricks
+     * Version of the in-memory history and its totals: grows with every
+     * change, so a response built from them can be cached until it moves.
      */
-    private String prettify(String name) {
-        return Arrays.stream(name.toLowerCase().split("_"))
-                .map(w -> w.isEmpty() ? "" : Character.toUpperCase(w.charAt(0)) + w.substring(1))
-                .collect(Collectors.joining(" "));
+    public long getVersion() {
+        return version;
     }
 
-    // ================================================================
-    // STATISTICS METHODS (for PlaceholderAPI)
-    // ================================================================
-
     /**
      * Get total number of transactions
      */
@@ -332,51 +710,67 @@ public class TransactionLogger {
      * Get total items bought across all transactions
      */
     public int getTotalItemsBought() {
-        return recent.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.BUY)
-                .mapToInt(Transaction::getAmount)
-                .sum();
+        return (int) stats.itemsBought();
     }
 
     /**
      * Get total items sold across all transactions
      */
     public int getTotalItemsSold() {
-        return recent.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.SELL)
-                .mapToInt(Transaction::getAmount)
-                .sum();
+        return (int) stats.itemsSold();
     }
 
     /**
      * Get total money exchanged (buy + sell)
      */
     public double getTotalMoneyExchanged() {
-        return recent.stream()
-                .mapToDouble(Transaction::getPrice)
-                .sum();
+        return stats.moneyExchanged();
+    }
+
+    public int getBuyCount() {
+        return stats.buyCount();
+    }
+
+    public int getSellCount() {
+        return stats.sellCount();
+    }
+
+    public double getTotalBuyValue() {
+        return stats.buyValue();
+    }
+
+    public double getTotalSellValue() {
+        return stats.sellValue();
+    }
+
+    public int getUniqueItemCount() {
+        return stats.uniqueItems();
+    }
+
+    public int getUniquePlayerCount() {
+        return stats.uniquePlayers();
     }
 
     /**
      * Get the most recent transaction
      */
     public Transaction getMostRecentTransaction() {
-        return recent.isEmpty() ? null : recent.getLast();
+        return recent.newest();
     }
 
     /**
      * Get the most traded item (by transaction count)
      */
     public String getMostTradedItem() {
-        if (recent.isEmpty()) return "None";
-
-        Map<String, Long> itemCounts = recent.stream()
-                .collect(Collectors.groupingBy(Transaction::getItem, Collectors.counting()));
+        String item = stats.mostTradedItem();
+        return item != null ? item : "None";
+    }
 
-        return itemCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("None");
+    /**
+     * Get the {@code limit} most traded items (by transaction count), highest first
+     */
+    public List<String> getTopTradedItems(int limit) {
+        return stats.topItems(limit);
     }
 
     /**
@@ -384,38 +778,7 @@ public class TransactionLogger {
      * Returns map with keys: purchases, sales, total_spent, total_earned
      */
     public Map<String, Object> getPlayerStats(String playerName) {
-        Map<String, Object> stats = new HashMap<>();
-
-        List<Transaction> playerTxs = recent.stream()
-                .filter(t -> t.getPlayerName().equalsIgnoreCase(playerName))
-                .collect(Collectors.toList());
-
-        if (playerTxs.isEmpty()) return null;
-
-        int purchases = (int) playerTxs.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.BUY)
-                .count();
-
-        int sales = (int) playerTxs.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.SELL)
-                .count();
-
-        double totalSpent = playerTxs.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.BUY)
-                .mapToDouble(Transaction::getPrice)
-                .sum();
-
-        double totalEarned = playerTxs.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.SELL)
-                .mapToDouble(Transaction::getPrice)
-                .sum();
-
-        stats.put("purchases", purchases);
-        stats.put("sales", sales);
-        stats.put("total_spent", String.format("%.2f", totalSpent));
-        stats.put("total_earned", String.format("%.2f", totalEarned));
-
-        return stats;
+        return stats.playerStats(playerName);
     }
 
     // Add this method anywhere in TransactionLogger class
@@ -423,7 +786,7 @@ public class TransactionLogger {
         if (recent.isEmpty()) {
             return 0L;
         }
-        Transaction last = recent.getLast();
+        Transaction last = recent.newest();
         return last != null ? last.getTimestampRaw().atZone(java.time.ZoneOffset.UTC).toInstant().toEpochMilli() : 0L;
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.util.List;
+
+/**
+ * One page of a newest-first lookup from {@link TransactionLogger}.
+ *
+ * @param transactions newest first
+ * @param next         sequence number to pass as {@code before} for the next
+ *                     page, or -1 if this is the last one
+ */
+public record TransactionPage(List<Transaction> transactions, long next) {
+}
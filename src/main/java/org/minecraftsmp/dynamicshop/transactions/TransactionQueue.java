@@ -0,0 +1,125 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+/**
+ * Bounded, lock-free queue for many producers and one consumer (the
+ * {@link TransactionBus} thread).
+ *
+ * Each slot carries a sequence number. A producer claims position {@code p}
+ * with a CAS on {@code tail} when slot {@code p % capacity} has sequence
+ * {@code p} (free for that lap), stores the entry, then publishes sequence
+ * {@code p + 1}. The consumer takes the entry once it sees {@code head + 1}
+ * and frees the slot for the next lap by setting {@code head + capacity}. A
+ * full queue makes {@link #offer} return false instead of waiting.
+ */
+final class TransactionQueue {
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle TAIL;
+    private static final VarHandle HEAD;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(TransactionQueue.class, "tail", long.class);
+            HEAD = lookup.findVarHandle(TransactionQueue.class, "head", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Transaction[] slots;
+    private final long[] sequences;
+    private final int mask;
+    @SuppressWarnings("unused") // accessed through TAIL
+    private volatile long tail;
+    @SuppressWarnings("unused") // accessed through HEAD; written by the consumer only
+    private volatile long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    TransactionQueue(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1;
+        this.slots = new Transaction[size];
+        this.sequences = new long[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Add from any thread. False if the queue is full.
+     */
+    boolean offer(Transaction tx) {
+        long pos = (long) TAIL.getVolatile(this);
+        while (true) {
+            int slot = (int) pos & mask;
+            long seq = (long) SEQUENCES.getAcquire(sequences, slot);
+            long diff = seq - pos;
+            if (diff == 0) {
+                if (TAIL.compareAndSet(this, pos, pos + 1)) {
+                    slots[slot] = tx;
+                    SEQUENCES.setRelease(sequences, slot, pos + 1);
+                    return true;
+                }
+                pos = (long) TAIL.getVolatile(this);
+            } else if (diff < 0) {
+                return false; // the consumer has not freed this slot yet
+            } else {
+                pos = (long) TAIL.getVolatile(this); // another producer took it
+            }
+        }
+    }
+
+    /**
+     * Move up to {@code max} published entries into {@code into}, oldest
+     * first. Consumer thread only.
+     *
+     * @return how many were moved
+     */
+    int drain(List<Transaction> into, int max) {
+        long pos = (long) HEAD.getOpaque(this);
+        int moved = 0;
+        while (moved < max) {
+            int slot = (int) pos & mask;
+            if ((long) SEQUENCES.getAcquire(sequences, slot) != pos + 1) {
+                break; // empty, or claimed but not yet published
+            }
+            into.add(slots[slot]);
+            slots[slot] = null;
+            SEQUENCES.setRelease(sequences, slot, pos + slots.length);
+            pos++;
+            moved++;
+        }
+        if (moved > 0) {
+            HEAD.setVolatile(this, pos);
+        }
+        return moved;
+    }
+
+    /**
+     * True if no position has been claimed past the consumer. Reads
+     * {@code tail} with a volatile load, so a consumer that sets a flag and
+     * then sees an empty queue cannot miss a producer that checks the flag
+     * after claiming.
+     */
+    boolean isEmpty() {
+        return (long) TAIL.getVolatile(this) == (long) HEAD.getOpaque(this);
+    }
+
+    /**
+     * Entries claimed and not yet drained (approximate while producers run).
+     */
+    int size() {
+        return (int) Math.max(0, (long) TAIL.getVolatile(this) - (long) HEAD.getVolatile(this));
+    }
+}
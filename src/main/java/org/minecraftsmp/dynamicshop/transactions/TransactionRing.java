@@ -0,0 +1,239 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity ring of the most recent transactions, written by one thread
+ * and read by any number of threads without locks.
+ *
+ * Every transaction gets a sequence number (0, 1, 2, ...). The writer stores
+ * the entry in slot {@code seq % capacity} and then publishes {@code head =
+ * seq + 1}. A reader that loads a slot and then still sees a head that has not
+ * reached {@code seq + capacity} knows the writer had not started overwriting
+ * it, so the entry it read is the right one.
+ *
+ * Readers get {@link View}s: a fixed range of sequence numbers read straight
+ * from the ring, never copied. The ring keeps {@code slack} entries beyond the
+ * logical window so a view stays complete while that many more transactions
+ * are logged. Iterating a view that falls further behind skips the entries the
+ * writer has lapped (always the oldest ones) instead of failing.
+ */
+public final class TransactionRing {
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Transaction[].class);
+    private static final VarHandle HEAD;
+
+    static {
+        try {
+            HEAD = MethodHandles.lookup().findVarHandle(TransactionRing.class, "head", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Transaction[] slots;
+    private final int window;
+    @SuppressWarnings("unused") // accessed through HEAD
+    private volatile long head;
+
+    /**
+     * @param window number of transactions readers see (max_recent_transactions)
+     */
+    public TransactionRing(int window) {
+        this.window = Math.max(1, window);
+        int slack = Math.max(1024, this.window / 4);
+        this.slots = new Transaction[this.window + slack];
+    }
+
+    // ------------------------------------------------------------------------
+    // WRITER
+    // ------------------------------------------------------------------------
+
+    /**
+     * Append a transaction. Only one thread may call this at a time.
+     *
+     * @return the sequence number assigned to it
+     */
+    public long append(Transaction tx) {
+        long seq = (long) HEAD.getOpaque(this);
+        SLOTS.setRelease(slots, (int) (seq % slots.length), tx);
+        HEAD.setRelease(this, seq + 1);
+        return seq;
+    }
+
+    // ------------------------------------------------------------------------
+    // READERS
+    // ------------------------------------------------------------------------
+
+    /**
+     * Sequence number the next transaction will get (= total ever appended).
+     */
+    public long head() {
+        return (long) HEAD.getAcquire(this);
+    }
+
+    /**
+     * Oldest sequence number inside the window.
+     */
+    public long tail() {
+        return Math.max(0L, head() - window);
+    }
+
+    public int window() {
+        return window;
+    }
+
+    public int size() {
+        return (int) Math.min(head(), window);
+    }
+
+    public boolean isEmpty() {
+        return head() == 0;
+    }
+
+    /**
+     * Entry with the given sequence number, or null if it is no longer (or not
+     * yet) in the ring.
+     */
+    public Transaction get(long seq) {
+        if (seq < 0) {
+            return null;
+        }
+        Transaction tx = (Transaction) SLOTS.getAcquire(slots, (int) (seq % slots.length));
+        long h = head();
+        if (seq >= h || h - seq >= slots.length) {
+            return null;
+        }
+        return tx;
+    }
+
+    public Transaction newest() {
+        return get(head() - 1);
+    }
+
+    /**
+     * The current window, oldest first.
+     */
+    public View view() {
+        long h = head();
+        return new View(Math.max(0L, h - window), h, false);
+    }
+
+    /**
+     * The current window, newest first.
+     */
+    public View newestFirst() {
+        long h = head();
+        return new View(Math.max(0L, h - window), h, true);
+    }
+
+    /**
+     * Read-only list over a fixed range of sequence numbers [from, to).
+     *
+     * Iteration, forEach and streams skip entries overwritten since the view
+     * was taken, so they may yield fewer than {@link #size()} elements;
+     * {@link #get(int)} on such an entry throws
+     * {@link ConcurrentModificationException}.
+     */
+    public final class View extends AbstractList<Transaction> implements RandomAccess {
+
+        private final long from;
+        private final long to;
+        private final boolean reversed;
+
+        private View(long from, long to, boolean reversed) {
+            this.from = from;
+            this.to = to;
+            this.reversed = reversed;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            long seq = reversed ? to - 1 - index : from + index;
+            Transaction tx = TransactionRing.this.get(seq);
+            if (tx == null) {
+                throw new ConcurrentModificationException("Transaction #" + seq + " was overwritten");
+            }
+            return tx;
+        }
+
+        @Override
+        public int size() {
+            return (int) (to - from);
+        }
+
+        /**
+         * Sequence number of the entry at {@code index}.
+         */
+        public long sequenceAt(int index) {
+            return reversed ? to - 1 - index : from + index;
+        }
+
+        @Override
+        public Iterator<Transaction> iterator() {
+            return new Cursor();
+        }
+
+        @Override
+        public Spliterator<Transaction> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+
+        @Override
+        public void forEach(Consumer<? super Transaction> action) {
+            iterator().forEachRemaining(action);
+        }
+
+        /**
+         * Walks the range, stepping over lapped entries: oldest first it jumps
+         * to the oldest entry still in the ring, newest first it stops there.
+         */
+        private final class Cursor implements Iterator<Transaction> {
+
+            private long seq = reversed ? to - 1 : from;
+            private Transaction next = advance();
+
+            private Transaction advance() {
+                while (reversed ? seq >= from : seq < to) {
+                    Transaction tx = TransactionRing.this.get(seq);
+                    if (tx != null) {
+                        seq += reversed ? -1 : 1;
+                        return tx;
+                    }
+                    if (reversed) {
+                        return null; // everything older is gone too
+                    }
+                    seq = Math.max(seq + 1, head() - slots.length + 1);
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Transaction tx = next;
+                next = advance();
+                return tx;
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Minute, hour and day buckets of trading activity, per item and for the
+ * whole shop. Every logged transaction is added to the bucket it falls in at
+ * each resolution, so the analytics endpoints read finished series instead of
+ * grouping raw transactions, and can reach further back than the in-memory
+ * window.
+ *
+ * Bucket starts use the same clock as {@link TransactionArchive}: epoch millis
+ * of the wall-clock time read as UTC, so a day bucket is a calendar day.
+ *
+ * Older buckets are dropped per resolution ({@link Resolution#retentionMillis})
+ * when {@link #prune} runs. The whole set is written with {@link #write} and
+ * restored with {@link #read}; TransactionLogger keeps that file in step with
+ * the archive.
+ */
+public class TransactionRollups {
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Key of the shop-wide series.
+     */
+    public static final String GLOBAL = "*";
+
+    public enum Resolution {
+        MINUTE(60_000L, 48L * 3_600_000L),
+        HOUR(3_600_000L, 90L * 86_400_000L),
+        DAY(86_400_000L, Long.MAX_VALUE);
+
+        public final long millis;
+        public final long retentionMillis;
+
+        Resolution(long millis, long retentionMillis) {
+            this.millis = millis;
+            this.retentionMillis = retentionMillis;
+        }
+
+        public long bucketStart(long timestamp) {
+            return Math.floorDiv(timestamp, millis) * millis;
+        }
+    }
+
+    /**
+     * Read-only copy of one bucket. Unit prices are price / amount.
+     */
+    public record Bucket(long start, int count, int buyCount, int sellCount,
+                         long buyAmount, long sellAmount, double buyValue, double sellValue,
+                         double minUnitPrice, double maxUnitPrice) {
+
+        public long volume() {
+            return buyAmount + sellAmount;
+        }
+
+        public double value() {
+            return buyValue + sellValue;
+        }
+
+        /**
+         * Volume-weighted average buy price per unit, 0 without buys.
+         */
+        public double buyVwap() {
+            return buyAmount > 0 ? buyValue / buyAmount : 0.0;
+        }
+
+        public double sellVwap() {
+            return sellAmount > 0 ? sellValue / sellAmount : 0.0;
+        }
+
+        public double vwap() {
+            long volume = volume();
+            return volume > 0 ? value() / volume : 0.0;
+        }
+    }
+
+    private static final class Acc {
+        int count;
+        int buyCount;
+        int sellCount;
+        long buyAmount;
+        long sellAmount;
+        double buyValue;
+        double sellValue;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(boolean buy, int amount, double price) {
+            count++;
+            if (buy) {
+                buyCount++;
+                buyAmount += amount;
+                buyValue += price;
+            } else {
+                sellCount++;
+                sellAmount += amount;
+                sellValue += price;
+            }
+            if (amount > 0) {
+                double unit = price / amount;
+                min = Math.min(min, unit);
+                max = Math.max(max, unit);
+            }
+        }
+
+        void merge(Acc other) {
+            count += other.count;
+            buyCount += other.buyCount;
+            sellCount += other.sellCount;
+            buyAmount += other.buyAmount;
+            sellAmount += other.sellAmount;
+            buyValue += other.buyValue;
+            sellValue += other.sellValue;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        Bucket toBucket(long start) {
+            return new Bucket(start, count, buyCount, sellCount, buyAmount, sellAmount, buyValue, sellValue,
+                    count > 0 && min != Double.POSITIVE_INFINITY ? min : 0.0,
+                    count > 0 && max != Double.NEGATIVE_INFINITY ? max : 0.0);
+        }
+    }
+
+    // resolution -> series key (GLOBAL or upper-case item) -> bucket start -> totals
+    private final Map<Resolution, Map<String, TreeMap<Long, Acc>>> series = new EnumMap<>(Resolution.class);
+
+    public TransactionRollups() {
+        for (Resolution resolution : Resolution.values()) {
+            series.put(resolution, new HashMap<>());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // UPDATES
+    // ------------------------------------------------------------------------
+
+    public synchronized void add(Transaction tx) {
+        long ts = TransactionArchive.toMillis(tx.getTimestampRaw());
+        boolean buy = tx.getType() == Transaction.TransactionType.BUY;
+        String item = itemKey(tx.getItem());
+        for (Resolution resolution : Resolution.values()) {
+            long start = resolution.bucketStart(ts);
+            Map<String, TreeMap<Long, Acc>> byKey = series.get(resolution);
+            bucket(byKey, GLOBAL, start).add(buy, tx.getAmount(), tx.getPrice());
+            bucket(byKey, item, start).add(buy, tx.getAmount(), tx.getPrice());
+        }
+    }
+
+    private static Acc bucket(Map<String, TreeMap<Long, Acc>> byKey, String key, long start) {
+        return byKey.computeIfAbsent(key, k -> new TreeMap<>()).computeIfAbsent(start, s -> new Acc());
+    }
+
+    /**
+     * Drop buckets older than each resolution's retention.
+     */
+    public synchronized void prune(long now) {
+        for (Resolution resolution : Resolution.values()) {
+            if (resolution.retentionMillis == Long.MAX_VALUE) {
+                continue;
+            }
+            long cutoff = resolution.bucketStart(now - resolution.retentionMillis);
+            series.get(resolution).values().removeIf(buckets -> {
+                buckets.headMap(cutoff, false).clear();
+                return buckets.isEmpty();
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        for (Map<String, TreeMap<Long, Acc>> byKey : series.values()) {
+            byKey.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // READS
+    // ------------------------------------------------------------------------
+
+    /**
+     * Buckets of {@code item} (or {@link #GLOBAL}) starting in [fromMillis, toMillis),
+     * oldest first. Empty buckets are not included.
+     */
+    public synchronized List<Bucket> series(String item, Resolution resolution, long fromMillis, long toMillis) {
+        TreeMap<Long, Acc> buckets = series.get(resolution).get(key(item));
+        if (buckets == null) {
+            return new ArrayList<>();
+        }
+        NavigableMap<Long, Acc> range = buckets.subMap(resolution.bucketStart(fromMillis), true, toMillis, false);
+        List<Bucket> result = new ArrayList<>(range.size());
+        for (Map.Entry<Long, Acc> entry : range.entrySet()) {
+            result.add(entry.getValue().toBucket(entry.getKey()));
+        }
+        return result;
+    }
+
+    /**
+     * All buckets of {@code item} in the range merged into one (start = fromMillis).
+     */
+    public synchronized Bucket total(String item, Resolution resolution, long fromMillis, long toMillis) {
+        Acc total = new Acc();
+        TreeMap<Long, Acc> buckets = series.get(resolution).get(key(item));
+        if (buckets != null) {
+            for (Acc acc : buckets.subMap(resolution.bucketStart(fromMillis), true, toMillis, false).values()) {
+                total.merge(acc);
+            }
+        }
+        return total.toBucket(fromMillis);
+    }
+
+    /**
+     * Items with at least one bucket at this resolution (upper-case, without GLOBAL).
+     */
+    public synchronized List<String> items(Resolution resolution) {
+        List<String> items = new ArrayList<>(series.get(resolution).keySet());
+        items.remove(GLOBAL);
+        return items;
+    }
+
+    private static String key(String item) {
+        return item == null || GLOBAL.equals(item) ? GLOBAL : itemKey(item);
+    }
+
+    private static String itemKey(String item) {
+        return item.toUpperCase(Locale.ROOT);
+    }
+
+    // ------------------------------------------------------------------------
+    // PERSISTENCE
+    // ------------------------------------------------------------------------
+
+    public synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        for (Resolution resolution : Resolution.values()) {
+            Map<String, TreeMap<Long, Acc>> byKey = series.get(resolution);
+            out.writeInt(byKey.size());
+            for (Map.Entry<String, TreeMap<Long, Acc>> keyed : byKey.entrySet()) {
+                out.writeUTF(keyed.getKey());
+                out.writeInt(keyed.getValue().size());
+                for (Map.Entry<Long, Acc> entry : keyed.getValue().entrySet()) {
+                    Acc acc = entry.getValue();
+                    out.writeLong(entry.getKey());
+                    out.writeInt(acc.count);
+                    out.writeInt(acc.buyCount);
+                    out.writeInt(acc.sellCount);
+                    out.writeLong(acc.buyAmount);
+                    out.writeLong(acc.sellAmount);
+                    out.writeDouble(acc.buyValue);
+                    out.writeDouble(acc.sellValue);
+                    out.writeDouble(acc.min);
+                    out.writeDouble(acc.max);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace the current buckets with those in {@code in}.
+     */
+    public synchronized void read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported rollup format " + version);
+        }
+
+        Map<Resolution, Map<String, TreeMap<Long, Acc>>> loaded = new EnumMap<>(Resolution.class);
+        for (Resolution resolution : Resolution.values()) {
+            Map<String, TreeMap<Long, Acc>> byKey = new HashMap<>();
+            int keys = in.readInt();
+            for (int k = 0; k < keys; k++) {
+                String key = in.readUTF();
+                TreeMap<Long, Acc> buckets = new TreeMap<>();
+                int count = in.readInt();
+                for (int b = 0; b < count; b++) {
+                    long start = in.readLong();
+                    Acc acc = new Acc();
+                    acc.count = in.readInt();
+                    acc.buyCount = in.readInt();
+                    acc.sellCount = in.readInt();
+                    acc.buyAmount = in.readLong();
+                    acc.sellAmount = in.readLong();
+                    acc.buyValue = in.readDouble();
+                    acc.sellValue = in.readDouble();
+                    acc.min = in.readDouble();
+                    acc.max = in.readDouble();
+                    buckets.put(start, acc);
+                }
+                byKey.put(key, buckets);
+            }
+            loaded.put(resolution, byKey);
+        }
+        series.putAll(loaded);
+    }
+}
@@ -0,0 +1,46 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.util.List;
+
+/**
+ * Receives logged transactions from the {@link TransactionBus}.
+ *
+ * Methods are called from one thread at a time (the bus thread, and on
+ * shutdown the thread closing the bus once the bus thread has stopped), one
+ * sink after another in the order they were added, so a sink needs no locking
+ * for state only it touches.
+ *
+ * {@link #write} gets each batch as soon as it is taken off the queue; sinks
+ * that write files should buffer there and do the I/O in {@link #flush},
+ * which the bus calls every few seconds and once more on shutdown.
+ *
+ * A sink that throws is logged and skipped for that batch; the other sinks
+ * still get it.
+ */
+public interface TransactionSink {
+
+    /**
+     * Transactions in log order. Never empty; do not keep the list.
+     */
+    void write(List<Transaction> batch) throws Exception;
+
+    /**
+     * Write out anything buffered. {@code last} is set for the final flush on
+     * shutdown.
+     */
+    default void flush(boolean last) throws Exception {
+    }
+
+    /**
+     * Release files or connections. Called once, after the final flush.
+     */
+    default void close() {
+    }
+
+    /**
+     * Name used in log messages.
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,245 @@
+package org.minecraftsmp.dynamicshop.transactions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Running totals over the transactions currently in the logger's window.
+ * {@link #add} is called when a transaction enters the window and
+ * {@link #remove} when it is evicted, so every statistic is read in O(1)
+ * instead of by streaming the history.
+ *
+ * Money is summed in fixed point ({@link #MONEY_SCALE} units per coin) so
+ * adding and later removing the same transaction cancels exactly and totals
+ * do not drift over millions of evictions.
+ *
+ * Item counts only ever move by one, so the most-traded item is tracked with
+ * count buckets: each bucket holds the items with that count, and the highest
+ * non-empty bucket is the answer.
+ */
+final class TransactionStats {
+
+    private static final double MONEY_SCALE = 10_000.0;
+
+    private long itemsBought;
+    private long itemsSold;
+    private long moneyUnits;
+    private int buyCount;
+    private int sellCount;
+    private long buyUnits;
+
+    private final Map<String, Long> itemCounts = new HashMap<>();
+    private final Map<Long, LinkedHashSet<String>> buckets = new HashMap<>();
+    private long maxCount;
+
+    private final Map<String, PlayerTotals> players = new HashMap<>();
+
+    private static final class PlayerTotals {
+        int purchases;
+        int sales;
+        long spentUnits;
+        long earnedUnits;
+
+        boolean isEmpty() {
+            return purchases == 0 && sales == 0;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // UPDATES
+    // ------------------------------------------------------------------------
+
+    synchronized void add(Transaction tx) {
+        apply(tx, 1);
+    }
+
+    synchronized void remove(Transaction tx) {
+        apply(tx, -1);
+    }
+
+    synchronized void clear() {
+        itemsBought = 0;
+        itemsSold = 0;
+        moneyUnits = 0;
+        buyCount = 0;
+        sellCount = 0;
+        buyUnits = 0;
+        itemCounts.clear();
+        buckets.clear();
+        maxCount = 0;
+        players.clear();
+    }
+
+    private void apply(Transaction tx, int sign) {
+        boolean buy = tx.getType() == Transaction.TransactionType.BUY;
+        long units = Math.round(tx.getPrice() * MONEY_SCALE);
+
+        if (buy) {
+            itemsBought += sign * (long) tx.getAmount();
+            buyCount += sign;
+            buyUnits += sign * units;
+        } else {
+            itemsSold += sign * (long) tx.getAmount();
+            sellCount += sign;
+        }
+        moneyUnits += sign * units;
+
+        if (sign > 0) {
+            incrementItem(tx.getItem());
+        } else {
+            decrementItem(tx.getItem());
+        }
+
+        String key = tx.getPlayerName().toLowerCase(Locale.ROOT);
+        PlayerTotals totals = players.computeIfAbsent(key, k -> new PlayerTotals());
+        if (buy) {
+            totals.purchases += sign;
+            totals.spentUnits += sign * units;
+        } else {
+            totals.sales += sign;
+            totals.earnedUnits += sign * units;
+        }
+        if (totals.isEmpty()) {
+            players.remove(key);
+        }
+    }
+
+    private void incrementItem(String item) {
+        long count = itemCounts.getOrDefault(item, 0L);
+        if (count > 0) {
+            bucket(count).remove(item);
+        }
+        count++;
+        itemCounts.put(item, count);
+        bucket(count).add(item);
+        if (count > maxCount) {
+            maxCount = count;
+        }
+    }
+
+    private void decrementItem(String item) {
+        Long current = itemCounts.get(item);
+        if (current == null) {
+            return;
+        }
+        long count = current;
+        LinkedHashSet<String> from = bucket(count);
+        from.remove(item);
+        if (from.isEmpty()) {
+            buckets.remove(count);
+            if (count == maxCount) {
+                // the item itself now sits in count - 1, so that bucket is non-empty
+                maxCount = count - 1;
+            }
+        }
+        count--;
+        if (count == 0) {
+            itemCounts.remove(item);
+        } else {
+            itemCounts.put(item, count);
+            bucket(count).add(item);
+        }
+    }
+
+    private LinkedHashSet<String> bucket(long count) {
+        return buckets.computeIfAbsent(count, c -> new LinkedHashSet<>());
+    }
+
+    // ------------------------------------------------------------------------
+    // READS
+    // ------------------------------------------------------------------------
+
+    synchronized long itemsBought() {
+        return itemsBought;
+    }
+
+    synchronized long itemsSold() {
+        return itemsSold;
+    }
+
+    synchronized double moneyExchanged() {
+        return moneyUnits / MONEY_SCALE;
+    }
+
+    synchronized int buyCount() {
+        return buyCount;
+    }
+
+    synchronized int sellCount() {
+        return sellCount;
+    }
+
+    synchronized double buyValue() {
+        return buyUnits / MONEY_SCALE;
+    }
+
+    synchronized double sellValue() {
+        return (moneyUnits - buyUnits) / MONEY_SCALE;
+    }
+
+    synchronized int uniqueItems() {
+        return itemCounts.size();
+    }
+
+    synchronized int uniquePlayers() {
+        return players.size();
+    }
+
+    /**
+     * Item with the most transactions in the window, or null if empty.
+     */
+    synchronized String mostTradedItem() {
+        if (maxCount == 0) {
+            return null;
+        }
+        return buckets.get(maxCount).iterator().next();
+    }
+
+    /**
+     * Up to {@code k} items by transaction count, highest first. Costs O(k)
+     * plus the number of empty counts skipped between them.
+     */
+    synchronized List<String> topItems(int k) {
+        List<String> top = new ArrayList<>(Math.min(k, itemCounts.size()));
+        for (long count = maxCount; count > 0 && top.size() < k; count--) {
+            LinkedHashSet<String> bucket = buckets.get(count);
+            if (bucket == null) {
+                continue;
+            }
+            for (String item : bucket) {
+                if (top.size() >= k) break;
+                top.add(item);
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Number of transactions for an item in the window.
+     */
+    synchronized long itemCount(String item) {
+        return itemCounts.getOrDefault(item, 0L);
+    }
+
+    /**
+     * Same shape as {@link TransactionLogger#getPlayerStats(String)}; null if
+     * the player has no transactions in the window.
+     */
+    synchronized Map<String, Object> playerStats(String playerName) {
+        PlayerTotals totals = players.get(playerName.toLowerCase(Locale.ROOT));
+        if (totals == null) {
+            return null;
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("purchases", totals.purchases);
+        stats.put("sales", totals.sales);
+        stats.put("total_spent", String.format("%.2f", totals.spentUnits / MONEY_SCALE));
+        stats.put("total_earned", String.format("%.2f", totals.earnedUnits / MONEY_SCALE));
+        return stats;
+    }
+}
@@ -0,0 +1,79 @@
+package org.minecraftsmp.dynamicshop.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Admin changes submitted from Jetty threads, applied on the main thread.
+ *
+ * A request enqueues its change as a command and gets a future back instead of
+ * blocking a Jetty thread until the scheduler gets to it. The web server's
+ * per-tick task runs everything queued ({@link #runPending()}), publishes the
+ * catalog and only then completes the futures, so the response to a write is
+ * sent after the read model already shows it.
+ *
+ * A command whose future was already completed by the time its tick comes
+ * (the request timed out) is skipped rather than applied late.
+ */
+final class AdminCommandQueue {
+
+    private record Command<T>(Callable<T> action, CompletableFuture<T> result) {
+
+        /**
+         * Run the action; the returned task completes the future with the outcome.
+         */
+        Runnable run() {
+            try {
+                T value = action.call();
+                return () -> result.complete(value);
+            } catch (Exception e) {
+                return () -> result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Command<?>> queue = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * Queue {@code action} for the next tick, from any thread.
+     */
+    <T> CompletableFuture<T> submit(Callable<T> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new IllegalStateException("Web server is stopping"));
+            return result;
+        }
+        queue.add(new Command<>(action, result));
+        return result;
+    }
+
+    /**
+     * Run every queued command (main thread). Returns the tasks that complete
+     * their futures, for the caller to run once the results are visible.
+     */
+    List<Runnable> runPending() {
+        List<Runnable> completions = new ArrayList<>();
+        Command<?> command;
+        while ((command = queue.poll()) != null) {
+            if (!command.result().isDone()) {
+                completions.add(command.run());
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Refuse new commands and fail the ones still waiting.
+     */
+    void close() {
+        closed = true;
+        Command<?> command;
+        while ((command = queue.poll()) != null) {
+            command.result().completeExceptionally(new IllegalStateException("Web server is stopping"));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.minecraftsmp.dynamicshop.web;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * ?fields= support for endpoints that return lists of a DTO record: keeps
+ * only the named components of each row, so a client that needs two columns
+ * does not download all of them.
+ */
+final class FieldProjection<T extends Record> {
+
+    private final Map<String, Method> accessors = new LinkedHashMap<>();
+
+    FieldProjection(Class<T> type) {
+        for (RecordComponent component : type.getRecordComponents()) {
+            Method accessor = component.getAccessor();
+            accessor.setAccessible(true);
+            accessors.put(component.getName(), accessor);
+        }
+    }
+
+    /**
+     * The requested fields in declaration order, or null for all of them
+     * (parameter missing or blank).
+     *
+     * @throws IllegalArgumentException naming the first unknown field
+     */
+    List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> requested = new HashSet<>();
+        for (String part : fields.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!accessors.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            requested.add(name);
+        }
+        List<String> selected = new ArrayList<>();
+        for (String name : accessors.keySet()) {
+            if (requested.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * {@code rows} unchanged when {@code fields} is null, otherwise one map
+     * per row holding just those fields.
+     */
+    List<?> apply(List<T> rows, List<String> fields) {
+        if (fields == null) {
+            return rows;
+        }
+        List<Map<String, Object>> out = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String name : fields) {
+                try {
+                    values.put(name, accessors.get(name).invoke(row));
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new IllegalStateException(e); // plain record accessor
+                }
+            }
+            out.add(values);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,188 @@
+package org.minecraftsmp.dynamicshop.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded JSON for one public endpoint, reused until the data behind it
+ * changes.
+ *
+ * Each response is serialized once per data version (and per query, for
+ * endpoints with filters) and kept as plain and gzip bytes with a strong ETag
+ * over the content. A client that sends the ETag back in If-None-Match gets a
+ * bodyless 304; anyone else gets the stored bytes, gzip when accepted.
+ *
+ * Versions are monotonic longs. Encoding happens outside the lock, so one
+ * slow query shape does not hold up the others; a result is only stored if
+ * its version is still the newest, and a request holding an older version
+ * never evicts what was stored for a newer one.
+ */
+final class JsonResponseCache {
+
+    private static final int MAX_QUERIES = 64;
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    /**
+     * One encoded response. {@code gzip} is null for small bodies.
+     */
+    record Encoded(byte[] json, byte[] gzip, String tag) {
+    }
+
+    private final ObjectMapper mapper;
+    private long version = Long.MIN_VALUE;
+    private final Map<String, Encoded> byQuery = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Encoded> eldest) {
+            return size() > MAX_QUERIES;
+        }
+    };
+
+    JsonResponseCache(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * The encoded response for {@code query} at {@code version}, serializing
+     * {@code body} if this version has not been encoded yet. A newer version
+     * drops everything stored for the old one; an older one is encoded for
+     * this request only.
+     */
+    Encoded get(long version, String query, Supplier<?> body) throws JsonProcessingException {
+        synchronized (this) {
+            if (version > this.version) {
+                this.version = version;
+                byQuery.clear();
+            } else if (version == this.version) {
+                Encoded encoded = byQuery.get(query);
+                if (encoded != null) {
+                    return encoded;
+                }
+            }
+        }
+
+        Encoded encoded = encode(mapper.writeValueAsBytes(body.get()));
+        synchronized (this) {
+            if (version == this.version) {
+                Encoded raced = byQuery.putIfAbsent(query, encoded);
+                if (raced != null) {
+                    return raced; // keep one ETag per version and query
+                }
+            }
+        }
+        return encoded;
+    }
+
+    private static Encoded encode(byte[] json) {
+        byte[] gzip = null;
+        if (json.length >= GZIP_MIN_BYTES) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // in-memory stream
+            }
+            gzip = out.toByteArray();
+        }
+        return new Encoded(json, gzip, hash(json));
+    }
+
+    private static String hash(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // RESPONSE
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write {@code encoded} to the client, or 304 if its copy is current.
+     * The gzip body gets its own ETag, as strong ETags are per encoding.
+     */
+    static void send(Context ctx, Encoded encoded, String cacheControl) throws IOException {
+        boolean gzip = encoded.gzip() != null && acceptsGzip(ctx.header("Accept-Encoding"));
+        ctx.header("ETag", "\"" + encoded.tag() + (gzip ? GZIP_SUFFIX : "") + "\"");
+        ctx.header("Cache-Control", cacheControl);
+        ctx.header("Vary", "Accept-Encoding");
+
+        if (matches(ctx.header("If-None-Match"), encoded.tag())) {
+            ctx.status(304);
+            return;
+        }
+
+        byte[] body = gzip ? encoded.gzip() : encoded.json();
+        ctx.contentType("application/json");
+        if (gzip) {
+            ctx.header("Content-Encoding", "gzip");
+        }
+        ctx.res().setContentLength(body.length);
+        ctx.res().getOutputStream().write(body);
+    }
+
+    /**
+     * True if If-None-Match lists this content in either encoding (or "*").
+     */
+    private static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String t = candidate.trim();
+            if (t.equals("*")) {
+                return true;
+            }
+            if (t.startsWith("W/")) {
+                t = t.substring(2);
+            }
+            if (t.length() < 2 || t.charAt(0) != '"' || t.charAt(t.length() - 1) != '"') {
+                continue;
+            }
+            t = t.substring(1, t.length() - 1);
+            if (t.endsWith(GZIP_SUFFIX)) {
+                t = t.substring(0, t.length() - GZIP_SUFFIX.length());
+            }
+            if (t.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].replace(" ", "");
+                if (param.equals("q=0") || param.startsWith("q=0.") && param.substring(4).matches("0*")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,406 @@
+package org.minecraftsmp.dynamicshop.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.sse.SseClient;
+import org.bukkit.scheduler.BukkitTask;
+import org.minecraftsmp.dynamicshop.DynamicShop;
+import org.minecraftsmp.dynamicshop.transactions.Transaction;
+import org.minecraftsmp.dynamicshop.transactions.TransactionLogger;
+import org.minecraftsmp.dynamicshop.transactions.TransactionSink;
+import org.minecraftsmp.dynamicshop.web.WebServer.ShopItemDTO;
+import org.minecraftsmp.dynamicshop.web.WebServer.TransactionDTO;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes shop changes to open dashboards over Server-Sent Events
+ * (GET /api/live?topics=trades,prices,catalog&items=DIAMOND,...).
+ *
+ * Events:
+ * - {@code trades}: transactions logged since the last tick (from the transaction bus)
+ * - {@code price}: one item's new buy/sell price and stock
+ * - {@code catalog}: entries added, renamed or recategorized, and ids removed
+ * - {@code resync}: trades were dropped because the producer fell behind; reload
+ *   them over REST (/api/recent) instead of trusting the pushed ones
+ *
+ * plus {@code hello} on connect and {@code refused} when webserver.live.max-clients
+ * is reached.
+ *
+ * One producer task builds and serializes each event once per tick, from the
+ * catalog snapshot and the trades received, and offers it to every subscribed
+ * client. Each client has a bounded queue in which a newer price event for an
+ * item replaces the one still waiting, so a client that falls behind skips to
+ * the latest value. A client whose queue fills up anyway is disconnected; it
+ * reconnects and reloads over REST. Every client is written by its own virtual
+ * thread, so a slow connection only holds up itself.
+ */
+public final class LiveFeed implements TransactionSink {
+
+    static final String TOPIC_TRADES = "trades";
+    static final String TOPIC_PRICES = "prices";
+    static final String TOPIC_CATALOG = "catalog";
+    private static final Set<String> ALL_TOPICS = Set.of(TOPIC_TRADES, TOPIC_PRICES, TOPIC_CATALOG);
+
+    private static final long TICK_INTERVAL = 10L; // ticks (0.5 s)
+    private static final int MAX_QUEUE = 256;
+    private static final int MAX_PENDING_TRADES = 4096;
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final DynamicShop plugin;
+    private final ShopCatalog catalog;
+    private final ObjectMapper mapper;
+    private final int maxClients;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private BukkitTask task;
+
+    // Trades received on the bus thread, sent on the next tick
+    private final ConcurrentLinkedQueue<Transaction> pendingTrades = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTradeCount = new AtomicInteger();
+    // Set when trades were dropped; cleared by the tick that drains the backlog
+    private final AtomicBoolean tradesDropped = new AtomicBoolean();
+
+    // Catalog as last sent (producer task only); null while nobody is connected
+    private Map<String, ShopItemDTO> sentItems;
+    private long sentVersion;
+
+    record Event(String name, String data, String key) {
+    }
+
+    private record PriceUpdate(String item, double buyPrice, double sellPrice, double stock) {
+    }
+
+    private record CatalogUpdate(long version, List<ShopItemDTO> updated, List<String> removed) {
+    }
+
+    LiveFeed(DynamicShop plugin, ShopCatalog catalog, ObjectMapper mapper, int maxClients) {
+        this.plugin = plugin;
+        this.catalog = catalog;
+        this.mapper = mapper;
+        this.maxClients = maxClients;
+    }
+
+    // ------------------------------------------------------------------------
+    // LIFECYCLE
+    // ------------------------------------------------------------------------
+
+    void start() {
+        task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::tick,
+                TICK_INTERVAL, TICK_INTERVAL);
+        TransactionLogger logger = plugin.getTransactionLogger();
+        if (logger != null) {
+            logger.addSink(this);
+        }
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        TransactionLogger logger = plugin.getTransactionLogger();
+        if (logger != null) {
+            logger.removeSink(this);
+        }
+        for (Client client : clients) {
+            client.close(); // its writer closes the connection on the way out
+        }
+    }
+
+    /**
+     * SSE handler: register the client and start its writer.
+     */
+    void connect(SseClient sse) {
+        if (clients.size() >= maxClients) {
+            sse.sendEvent("refused", "{\"error\":\"Too many live connections\"}");
+            sse.close();
+            return;
+        }
+
+        Set<String> topics = parseList(sse.ctx().queryParam("topics"), false);
+        topics.retainAll(ALL_TOPICS);
+        if (topics.isEmpty()) {
+            topics = ALL_TOPICS;
+        }
+        Set<String> items = parseList(sse.ctx().queryParam("items"), true);
+
+        Client client = new Client(sse, topics, items);
+        clients.add(client);
+        sse.onClose(() -> {
+            clients.remove(client);
+            client.close();
+        });
+        sse.keepAlive();
+
+        client.offer(new Event("hello", "{\"topics\":" + json(topics) + "}", null));
+        Thread.ofVirtual().name("DynamicShop-LiveFeed-Client").start(client::run);
+    }
+
+    private static Set<String> parseList(String value, boolean upperCase) {
+        Set<String> result = new HashSet<>();
+        if (value == null) {
+            return result;
+        }
+        for (String part : value.split(",")) {
+            String s = part.trim();
+            if (!s.isEmpty()) {
+                result.add(upperCase ? s.toUpperCase(Locale.ROOT) : s.toLowerCase(Locale.ROOT));
+            }
+        }
+        return result;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    // ------------------------------------------------------------------------
+    // TRADES (bus thread)
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void write(List<Transaction> batch) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        for (Transaction tx : batch) {
+            if (pendingTradeCount.incrementAndGet() > MAX_PENDING_TRADES) {
+                // producer is behind; drop the rest of the batch and tell clients to reload
+                pendingTradeCount.decrementAndGet();
+                tradesDropped.set(true);
+                return;
+            }
+            pendingTrades.add(tx);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "live feed";
+    }
+
+    // ------------------------------------------------------------------------
+    // PRODUCER (async task)
+    // ------------------------------------------------------------------------
+
+    private synchronized void tick() {
+        List<TransactionDTO> trades = new ArrayList<>();
+        Transaction tx;
+        while ((tx = pendingTrades.poll()) != null) {
+            pendingTradeCount.decrementAndGet();
+            trades.add(new TransactionDTO(tx));
+        }
+        // Read after draining, so a drop during the drain is not missed
+        boolean resync = tradesDropped.getAndSet(false);
+
+        if (clients.isEmpty()) {
+            sentItems = null; // catch up from the current catalog when someone connects
+            return;
+        }
+
+        if (resync) {
+            // The pushed list has a gap: clients reload /api/recent, which also covers these trades
+            broadcast(new Event("resync", "{\"topic\":\"trades\"}", null), TOPIC_TRADES, null);
+        } else if (!trades.isEmpty()) {
+            broadcast(new Event("trades", json(trades), null), TOPIC_TRADES, null);
+        }
+
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
+        if (sentItems == null) {
+            sentItems = index(snapshot.items());
+            sentVersion = snapshot.version();
+        } else if (snapshot.version() != sentVersion) {
+            sendChanges(snapshot);
+        }
+    }
+
+    /**
+     * Compare the catalog with what was last sent: price and stock moves go out
+     * as one price event per item, anything else as a single catalog event.
+     */
+    private void sendChanges(ShopCatalog.Snapshot snapshot) {
+        Map<String, ShopItemDTO> next = index(snapshot.items());
+        List<ShopItemDTO> updated = new ArrayList<>();
+        List<ShopItemDTO> repriced = new ArrayList<>();
+
+        for (ShopItemDTO dto : snapshot.items()) {
+            ShopItemDTO old = sentItems.get(dto.item());
+            if (old == null) {
+                updated.add(dto);
+            } else if (!old.equals(dto)) {
+                boolean sameListing = old.displayName().equals(dto.displayName())
+                        && old.category().equals(dto.category())
+                        && old.categoryDisplayName().equals(dto.categoryDisplayName())
+                        && old.basePrice() == dto.basePrice()
+                        && old.imageUrl().equals(dto.imageUrl());
+                (sameListing ? repriced : updated).add(dto);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String id : sentItems.keySet()) {
+            if (!next.containsKey(id)) {
+                removed.add(id);
+            }
+        }
+
+        if (!updated.isEmpty() || !removed.isEmpty()) {
+            broadcast(new Event("catalog", json(new CatalogUpdate(snapshot.version(), updated, removed)), null),
+                    TOPIC_CATALOG, null);
+        }
+        for (ShopItemDTO dto : repriced) {
+            String data = json(new PriceUpdate(dto.item(), dto.buyPrice(), dto.sellPrice(), dto.stock()));
+            broadcast(new Event("price", data, dto.item()), TOPIC_PRICES, dto.item());
+        }
+
+        sentItems = next;
+        sentVersion = snapshot.version();
+    }
+
+    private static Map<String, ShopItemDTO> index(List<ShopItemDTO> items) {
+        Map<String, ShopItemDTO> map = new HashMap<>(items.size() * 2);
+        for (ShopItemDTO dto : items) {
+            map.put(dto.item(), dto);
+        }
+        return map;
+    }
+
+    private void broadcast(Event event, String topic, String item) {
+        for (Client client : clients) {
+            if (client.wants(topic, item) && !client.offer(event)) {
+                plugin.getLogger().fine("[LiveFeed] Disconnecting slow client " + client.sse.ctx().ip());
+                client.close();
+            }
+        }
+    }
+
+    private String json(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e); // plain DTOs
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // CLIENT
+    // ------------------------------------------------------------------------
+
+    private static final class Client {
+        final SseClient sse;
+        final Set<String> topics;
+        final Set<String> items;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition ready = lock.newCondition();
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        // Latest event per key; the queue holds one placeholder per key
+        private final Map<String, Event> latest = new HashMap<>();
+        private boolean closed;
+
+        Client(SseClient sse, Set<String> topics, Set<String> items) {
+            this.sse = sse;
+            this.topics = topics;
+            this.items = items;
+        }
+
+        boolean wants(String topic, String item) {
+            return topics.contains(topic) && (item == null || items.isEmpty() || items.contains(item));
+        }
+
+        /**
+         * Queue an event, replacing a waiting one with the same key. False if
+         * the queue is full.
+         */
+        boolean offer(Event event) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return true;
+                }
+                if (event.key() != null && latest.containsKey(event.key())) {
+                    latest.put(event.key(), event); // coalesced into the waiting entry
+                    return true;
+                }
+                if (queue.size() >= MAX_QUEUE) {
+                    return false;
+                }
+                if (event.key() != null) {
+                    latest.put(event.key(), event);
+                }
+                queue.add(event);
+                ready.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                queue.clear();
+                latest.clear();
+                ready.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Writer loop: send queued events, or a comment after a quiet spell so
+         * dead connections are noticed. The connection is only ever closed
+         * here, once the loop ends, so it is never closed during a write.
+         */
+        void run() {
+            try {
+                writeEvents();
+            } finally {
+                if (!sse.terminated()) {
+                    sse.close();
+                }
+            }
+        }
+
+        private void writeEvents() {
+            while (true) {
+                Event event;
+                lock.lock();
+                try {
+                    long wait = HEARTBEAT_NANOS;
+                    while (queue.isEmpty() && !closed && wait > 0) {
+                        wait = ready.awaitNanos(wait);
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    event = queue.poll();
+                    if (event != null && event.key() != null) {
+                        event = latest.remove(event.key());
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+
+                if (event == null) {
+                    sse.sendComment("ping");
+                } else {
+                    sse.sendEvent(event.name(), event.data());
+                }
+                if (sse.terminated()) {
+                    return;
+                }
+            }
+        }
+    }
+}
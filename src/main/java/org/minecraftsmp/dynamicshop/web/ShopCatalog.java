@@ -0,0 +1,585 @@
+package org.minecraftsmp.dynamicshop.web;
+
+import org.bukkit.Material;
+import org.minecraftsmp.dynamicshop.DynamicShop;
+import org.minecraftsmp.dynamicshop.category.ItemCategory;
+import org.minecraftsmp.dynamicshop.category.SpecialShopItem;
+import org.minecraftsmp.dynamicshop.managers.CategoryConfigManager;
+import org.minecraftsmp.dynamicshop.managers.ConfigCacheManager;
+import org.minecraftsmp.dynamicshop.managers.PlayerShopManager;
+import org.minecraftsmp.dynamicshop.managers.PriceQuoteBatch;
+import org.minecraftsmp.dynamicshop.managers.QuoteKind;
+import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
+import org.minecraftsmp.dynamicshop.managers.SpecialShopManager;
+import org.minecraftsmp.dynamicshop.models.PlayerShopListing;
+import org.minecraftsmp.dynamicshop.util.PaperCompat;
+import org.minecraftsmp.dynamicshop.web.WebServer.ShopItemDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Read model of the shop for the web server, kept up to date one entry at a
+ * time and published by the main thread.
+ *
+ * Stock, price and config changes mark the affected item ({@link #markItem});
+ * special item and player shop changes mark their whole section, which is
+ * small and diffed by id. Marking only records the change and is cheap from
+ * any thread. Once per tick the web server's main-thread task calls
+ * {@link #publish()}, which re-prices just the marked entries, moves them within
+ * the sorted order and swaps in a new immutable {@link Snapshot}. Jetty threads
+ * only ever read the current snapshot, so no request touches Bukkit state
+ * (item meta, player shop listings, category detection) and none waits on the
+ * server's tick rate.
+ *
+ * A config reload ({@link ConfigCacheManager#generation}) or
+ * {@link #markAll()} re-prices everything once.
+ */
+public final class ShopCatalog {
+
+    private static final String SPECIAL_PREFIX = "special:";
+    private static final String PLAYER_SHOP_PREFIX = "playershop:";
+    private static final String IMAGE_URL = "https://mc.nerothe.com/img/1.21/minecraft_";
+
+    private static final Comparator<ShopItemDTO> ORDER =
+            Comparator.comparing(ShopItemDTO::displayName).thenComparing(ShopItemDTO::item);
+
+    private final DynamicShop plugin;
+
+    // Pending changes, recorded from any thread
+    private final Set<Material> dirtyItems = ConcurrentHashMap.newKeySet();
+    private volatile boolean specialsDirty = true;
+    private volatile boolean playerShopsDirty = true;
+    private volatile boolean rebuild = true;
+    private volatile int generation = -1;
+
+    // Current entries (main thread only)
+    private final Map<String, ShopItemDTO> byId = new HashMap<>();
+    private final Map<String, ItemDetails> details = new HashMap<>();
+    private final TreeSet<ShopItemDTO> sorted = new TreeSet<>(ORDER);
+    private volatile Snapshot snapshot = new Snapshot(0, List.of(), Map.of());
+
+    /**
+     * Admin-only state of a shop material, alongside its catalog entry.
+     */
+    record ItemDetails(
+            String customName,
+            double stockRate,
+            Double maxStock,
+            Integer maxStockStorage,
+            double shortageHours,
+            double priceIncreasePercent,
+            boolean buyDisabled,
+            boolean sellDisabled,
+            boolean disabled) {
+    }
+
+    /**
+     * Orders the catalog can be paged in; {@code param} is the ?sort= value.
+     * Every order breaks ties by item id, so positions are unique.
+     */
+    enum SortKey {
+        NAME("name", null),
+        BUY_PRICE("buyPrice", ShopItemDTO::buyPrice),
+        SELL_PRICE("sellPrice", ShopItemDTO::sellPrice),
+        STOCK("stock", ShopItemDTO::stock),
+        CHANGE("change", SortKey::changePercent);
+
+        final String param;
+        private final ToDoubleFunction<ShopItemDTO> value;
+        final Comparator<ShopItemDTO> order;
+
+        SortKey(String param, ToDoubleFunction<ShopItemDTO> value) {
+            this.param = param;
+            this.value = value;
+            this.order = value == null ? ORDER
+                    : Comparator.comparingDouble(value).thenComparing(ShopItemDTO::item);
+        }
+
+        /**
+         * The key for a ?sort= value ("price" is buyPrice), or null if unknown.
+         */
+        static SortKey parse(String param) {
+            if (param == null || param.isEmpty()) {
+                return NAME;
+            }
+            if (param.equalsIgnoreCase("price")) {
+                return BUY_PRICE;
+            }
+            for (SortKey key : values()) {
+                if (key.param.equalsIgnoreCase(param)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Buy price relative to base price, in percent.
+         */
+        static double changePercent(ShopItemDTO dto) {
+            return dto.basePrice() > 0 ? (dto.buyPrice() - dto.basePrice()) / dto.basePrice() * 100.0 : 0.0;
+        }
+
+        /**
+         * Where {@code dto} sorts relative to the entry a cursor was taken at.
+         */
+        int compare(ShopItemDTO dto, Cursor cursor) {
+            int c = value == null ? dto.displayName().compareTo(cursor.name())
+                    : Double.compare(value.applyAsDouble(dto), cursor.value());
+            return c != 0 ? c : dto.item().compareTo(cursor.id());
+        }
+    }
+
+    /**
+     * Position after the last entry of a page: the sort it belongs to and the
+     * sort key and id of that entry. Resuming by key rather than by index keeps
+     * pages from skipping or repeating entries when the catalog changes between
+     * requests; an entry whose price moves meanwhile shows up where it now sorts.
+     */
+    record Cursor(SortKey sort, boolean descending, String id, String name, double value) {
+
+        static Cursor after(SortKey sort, boolean descending, ShopItemDTO last) {
+            return new Cursor(sort, descending, last.item(), last.displayName(),
+                    sort.value == null ? 0.0 : sort.value.applyAsDouble(last));
+        }
+
+        String encode() {
+            String key = sort.value == null ? name : Double.toString(value);
+            String raw = sort.param + "\n" + (descending ? "d" : "a") + "\n" + id + "\n" + key;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code encoded} is not a cursor
+         */
+        static Cursor decode(String encoded) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\n", 4);
+                SortKey sort = parts.length == 4 && !parts[0].isEmpty() ? SortKey.parse(parts[0]) : null;
+                if (sort != null) {
+                    boolean descending = parts[1].equals("d");
+                    return sort.value == null ? new Cursor(sort, descending, parts[2], parts[3], 0.0)
+                            : new Cursor(sort, descending, parts[2], null, Double.parseDouble(parts[3]));
+                }
+            } catch (IllegalArgumentException e) {
+                // bad base64 or number; reported below
+            }
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * One page of entries; {@code nextCursor} is null on the last page.
+     */
+    record Page(List<ShopItemDTO> items, String nextCursor) {
+    }
+
+    /**
+     * The published catalog. {@code version} moves on whenever the list or an
+     * item's admin details change.
+     *
+     * Per-category lists, other sort orders and lower-cased search text are
+     * built the first time a request needs them and kept for the rest of this
+     * version, so paging walks a ready index and touches only the entries on
+     * (or, with a search query, scanned for) the page.
+     */
+    static final class Snapshot {
+        private final long version;
+        private final List<ShopItemDTO> items;
+        private final Map<String, ItemDetails> details;
+
+        private volatile Map<String, ShopItemDTO> byId;
+        private volatile Map<String, List<ShopItemDTO>> byCategory;
+        private volatile Map<String, String> searchText;
+        private final Map<String, List<ShopItemDTO>> orders = new ConcurrentHashMap<>();
+
+        Snapshot(long version, List<ShopItemDTO> items, Map<String, ItemDetails> details) {
+            this.version = version;
+            this.items = items;
+            this.details = details;
+        }
+
+        long version() {
+            return version;
+        }
+
+        /**
+         * All entries sorted by display name.
+         */
+        List<ShopItemDTO> items() {
+            return items;
+        }
+
+        /**
+         * The entry with this id (material name, special:..., playershop:...), or null.
+         */
+        ShopItemDTO item(String id) {
+            Map<String, ShopItemDTO> map = byId;
+            if (map == null) {
+                Map<String, ShopItemDTO> built = new HashMap<>(items.size() * 2);
+                for (ShopItemDTO dto : items) {
+                    built.put(dto.item(), dto);
+                }
+                byId = map = built;
+            }
+            return map.get(id);
+        }
+
+        /**
+         * Admin state of a shop material, or null if it is not in the shop.
+         */
+        ItemDetails details(Material mat) {
+            return details.get(mat.name());
+        }
+
+        /**
+         * Entries per category id, each sorted by display name.
+         */
+        Map<String, List<ShopItemDTO>> byCategory() {
+            Map<String, List<ShopItemDTO>> map = byCategory;
+            if (map == null) {
+                Map<String, List<ShopItemDTO>> built = new HashMap<>();
+                for (ShopItemDTO dto : items) {
+                    built.computeIfAbsent(dto.category(), k -> new ArrayList<>()).add(dto);
+                }
+                built.replaceAll((k, list) -> List.copyOf(list));
+                byCategory = map = built;
+            }
+            return map;
+        }
+
+        /**
+         * Entries in {@code category} (all if empty), ascending by {@code sort}.
+         */
+        List<ShopItemDTO> ordered(SortKey sort, String category) {
+            List<ShopItemDTO> base = category.isEmpty() ? items : byCategory().getOrDefault(category, List.of());
+            if (sort == SortKey.NAME || base.isEmpty()) {
+                return base;
+            }
+            return orders.computeIfAbsent(sort.name() + "\n" + category, k -> {
+                List<ShopItemDTO> list = new ArrayList<>(base);
+                list.sort(sort.order);
+                return List.copyOf(list);
+            });
+        }
+
+        /**
+         * Up to {@code limit} entries matching {@code category} and {@code query}
+         * (lower case; empty for none) in {@code sort} order, starting after
+         * {@code after} (null for the first page).
+         */
+        Page page(SortKey sort, boolean descending, String category, String query, Cursor after, int limit) {
+            List<ShopItemDTO> list = ordered(sort, category);
+            int step = descending ? -1 : 1;
+            int i;
+            if (after == null) {
+                i = descending ? list.size() - 1 : 0;
+            } else {
+                int pos = lowerBound(list, sort, after);
+                if (descending) {
+                    i = pos - 1;
+                } else {
+                    i = pos < list.size() && sort.compare(list.get(pos), after) == 0 ? pos + 1 : pos;
+                }
+            }
+
+            List<ShopItemDTO> out = new ArrayList<>(Math.min(limit, list.size()));
+            boolean more = false;
+            for (; i >= 0 && i < list.size(); i += step) {
+                ShopItemDTO dto = list.get(i);
+                if (!query.isEmpty() && !searchText().get(dto.item()).contains(query)) {
+                    continue;
+                }
+                if (out.size() == limit) {
+                    more = true;
+                    break;
+                }
+                out.add(dto);
+            }
+            String next = more ? Cursor.after(sort, descending, out.get(out.size() - 1)).encode() : null;
+            return new Page(out, next);
+        }
+
+        /**
+         * Index of the first entry not before the cursor position.
+         */
+        private static int lowerBound(List<ShopItemDTO> list, SortKey sort, Cursor cursor) {
+            int lo = 0;
+            int hi = list.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sort.compare(list.get(mid), cursor) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private Map<String, String> searchText() {
+            Map<String, String> map = searchText;
+            if (map == null) {
+                Map<String, String> built = new HashMap<>(items.size() * 2);
+                for (ShopItemDTO dto : items) {
+                    built.put(dto.item(), (dto.displayName() + "\n" + dto.item()).toLowerCase());
+                }
+                searchText = map = built;
+            }
+            return map;
+        }
+    }
+
+    ShopCatalog(DynamicShop plugin) {
+        this.plugin = plugin;
+    }
+
+    // ------------------------------------------------------------------------
+    // CHANGE NOTIFICATIONS (any thread)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Stock, price or config of a shop item changed.
+     */
+    public void markItem(Material mat) {
+        if (mat != null) {
+            dirtyItems.add(mat);
+        }
+    }
+
+    public void markItems(Collection<Material> materials) {
+        dirtyItems.addAll(materials);
+    }
+
+    /**
+     * A special item was added, removed or edited.
+     */
+    public void markSpecialItems() {
+        specialsDirty = true;
+    }
+
+    /**
+     * A player shop listing was added or removed.
+     */
+    public void markPlayerShops() {
+        playerShopsDirty = true;
+    }
+
+    /**
+     * Re-price everything at the next {@link #publish()} (reload, category names).
+     */
+    public void markAll() {
+        rebuild = true;
+    }
+
+    // ------------------------------------------------------------------------
+    // READ
+    // ------------------------------------------------------------------------
+
+    /**
+     * The last published catalog, from any thread. A snapshot is immutable
+     * and never changes after it is returned.
+     */
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Apply pending changes and publish them (main thread, once per tick).
+     */
+    void publish() {
+        if (pending()) {
+            apply();
+        }
+    }
+
+    private boolean pending() {
+        return rebuild || specialsDirty || playerShopsDirty || !dirtyItems.isEmpty()
+                || generation != ConfigCacheManager.generation;
+    }
+
+    /**
+     * Apply pending changes. Each flag is cleared before its section is read,
+     * so a change made meanwhile is picked up next time.
+     */
+    private void apply() {
+        boolean changed = false;
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+
+        if (rebuild || generation != ConfigCacheManager.generation) {
+            rebuild = false;
+            generation = ConfigCacheManager.generation;
+            specialsDirty = true;
+            playerShopsDirty = true;
+            byId.clear();
+            details.clear();
+            sorted.clear();
+            materials.addAll(ShopDataManager.getAllTrackedMaterials());
+            changed = true;
+        }
+
+        for (Iterator<Material> it = dirtyItems.iterator(); it.hasNext(); ) {
+            materials.add(it.next());
+            it.remove();
+        }
+        if (!materials.isEmpty()) {
+            changed |= applyItems(materials);
+        }
+        if (specialsDirty) {
+            specialsDirty = false;
+            changed |= applySpecialItems();
+        }
+        if (playerShopsDirty) {
+            playerShopsDirty = false;
+            changed |= applyPlayerShops();
+        }
+
+        if (changed) {
+            snapshot = new Snapshot(snapshot.version() + 1, List.copyOf(sorted), Map.copyOf(details));
+        }
+    }
+
+    private boolean applyItems(Set<Material> materials) {
+        boolean changed = false;
+        PriceQuoteBatch quotes = ShopDataManager.quoteBatch(materials, QuoteKind.PRICES);
+        double maxPercent = (ConfigCacheManager.maxPriceMultiplier - 1.0) * 100.0;
+        for (int i = 0; i < quotes.size(); i++) {
+            Material mat = quotes.material(i);
+            double basePrice = quotes.basePrice(i);
+            if (basePrice < 0) {
+                changed |= remove(mat.name()); // disabled or no longer tracked
+                continue;
+            }
+
+            ItemCategory category = ShopDataManager.detectCategory(mat);
+            String customName = ShopDataManager.getCustomName(mat);
+            ShopDataManager.ShopItemConfig config = ShopDataManager.itemConfigs.get(mat);
+            changed |= putDetails(mat.name(), new ItemDetails(
+                    customName,
+                    ShopDataManager.getStockRate(mat),
+                    config != null ? config.maxStock() : null,
+                    config != null ? config.maxStockStorage() : null,
+                    quotes.shortageHours(i),
+                    Math.min(quotes.inflationPercent(i), maxPercent),
+                    ShopDataManager.isBuyDisabled(mat),
+                    ShopDataManager.isSellDisabled(mat),
+                    ShopDataManager.isItemDisabled(mat)));
+            changed |= put(new ShopItemDTO(
+                    mat.name(),
+                    customName != null ? customName : WebServer.prettifyItemName(mat.name()),
+                    category.name(),
+                    CategoryConfigManager.getDisplayName(category),
+                    quotes.buy(i),
+                    quotes.sell(i),
+                    quotes.stock(i),
+                    basePrice,
+                    imageUrl(mat)));
+        }
+        return changed;
+    }
+
+    private boolean applySpecialItems() {
+        SpecialShopManager manager = plugin.getSpecialShopManager();
+        if (manager == null) {
+            return false;
+        }
+
+        boolean changed = false;
+        Set<String> seen = new HashSet<>();
+        for (SpecialShopItem specialItem : manager.getAllSpecialItems().values()) {
+            String id = SPECIAL_PREFIX + specialItem.getId();
+            seen.add(id);
+            changed |= put(new ShopItemDTO(
+                    id,
+                    specialItem.getName() != null ? specialItem.getName() : specialItem.getId(),
+                    specialItem.getCategory().name(),
+                    CategoryConfigManager.getDisplayName(specialItem.getCategory()),
+                    specialItem.getPrice(),
+                    0.0,
+                    0,
+                    specialItem.getPrice(),
+                    specialItem.getDisplayMaterial() != null ? imageUrl(specialItem.getDisplayMaterial())
+                            : IMAGE_URL + "enchanted_book.png"));
+        }
+        return removeMissing(SPECIAL_PREFIX, seen) | changed;
+    }
+
+    private boolean applyPlayerShops() {
+        PlayerShopManager manager = plugin.getPlayerShopManager();
+        if (manager == null) {
+            return false;
+        }
+
+        boolean changed = false;
+        Set<String> seen = new HashSet<>();
+        for (PlayerShopListing ps : manager.getAllListings()) {
+            String id = PLAYER_SHOP_PREFIX + ps.getListingId();
+            seen.add(id);
+            String psName = ps.getItem().hasItemMeta() && ps.getItem().getItemMeta().hasDisplayName()
+                    ? PaperCompat.getPlainDisplayName(ps.getItem().getItemMeta())
+                    : WebServer.prettifyItemName(ps.getItem().getType().name());
+            changed |= put(new ShopItemDTO(
+                    id,
+                    psName,
+                    "PLAYER_SHOPS",
+                    CategoryConfigManager.getDisplayName(ItemCategory.PLAYER_SHOPS),
+                    ps.getPrice(),
+                    0.0,
+                    ps.getItem().getAmount(),
+                    ps.getPrice(),
+                    imageUrl(ps.getItem().getType())));
+        }
+        return removeMissing(PLAYER_SHOP_PREFIX, seen) | changed;
+    }
+
+    // ------------------------------------------------------------------------
+    // SORTED ENTRIES
+    // ------------------------------------------------------------------------
+
+    private boolean put(ShopItemDTO dto) {
+        ShopItemDTO old = byId.put(dto.item(), dto);
+        if (dto.equals(old)) {
+            return false;
+        }
+        if (old != null) {
+            sorted.remove(old);
+        }
+        sorted.add(dto);
+        return true;
+    }
+
+    private boolean putDetails(String id, ItemDetails itemDetails) {
+        return !itemDetails.equals(details.put(id, itemDetails));
+    }
+
+    private boolean remove(String id) {
+        details.remove(id);
+        ShopItemDTO old = byId.remove(id);
+        if (old == null) {
+            return false;
+        }
+        sorted.remove(old);
+        return true;
+    }
+
+    private boolean removeMissing(String prefix, Set<String> seen) {
+        List<String> gone = new ArrayList<>();
+        for (String id : byId.keySet()) {
+            if (id.startsWith(prefix) && !seen.contains(id)) {
+                gone.add(id);
+            }
+        }
+        for (String id : gone) {
+            remove(id);
+        }
+        return !gone.isEmpty();
+    }
+
+    private static String imageUrl(Material mat) {
+        return IMAGE_URL + mat.name().toLowerCase() + ".png";
+    }
+}
@@ -14,25 +14,42 @@ import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.minecraftsmp.dynamicshop.DynamicShop;
 import org.minecraftsmp.dynamicshop.category.ItemCategory;
 import org.minecraftsmp.dynamicshop.managers.ConfigCacheManager;
 import org.minecraftsmp.dynamicshop.managers.CategoryConfigManager;
+import org.minecraftsmp.dynamicshop.managers.PriceHistoryManager;
+import org.minecraftsmp.dynamicshop.managers.PriceHistoryStore;
 import org.minecraftsmp.dynamicshop.managers.ShopDataManager;
 import org.minecraftsmp.dynamicshop.transactions.Transaction;
-import org.minecraftsmp.dynamicshop.models.PlayerShopListing;
+import org.minecraftsmp.dynamicshop.transactions.TransactionArchive;
+import org.minecraftsmp.dynamicshop.transactions.TransactionExporter;
+import org.minecraftsmp.dynamicshop.transactions.TransactionLogger;
+import org.minecraftsmp.dynamicshop.transactions.TransactionPage;
+import org.minecraftsmp.dynamicshop.transactions.TransactionRollups;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.zip.GZIPOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class WebServer {
@@ -43,15 +60,35 @@ public class WebServer {
     private WebAdminUserManager userManager;
     private WebAdminAuditLog auditLog;
 
-    // Cache for /api/shop/items endpoint (60 second TTL)
-    private static final long CACHE_TTL_MS = 60_000; // 60 seconds
-    private List<ShopItemDTO> cachedShopItems = null;
-    private long cacheTimestamp = 0;
+    // Catalog for /api/shop/items, updated per item as things change
+    private final ShopCatalog catalog;
+
+    // Encoded responses for the polled public endpoints (set up in start())
+    private JsonResponseCache itemsCache;
+    private JsonResponseCache categoriesCache;
+    private JsonResponseCache statsCache;
+    private String cacheControl;
+
+    // Server-Sent Events push channel (null when webserver.live.enabled is off)
+    private LiveFeed liveFeed;
+
+    // Admin writes, applied by the main-thread tick that also publishes the catalog
+    private final AdminCommandQueue adminCommands = new AdminCommandQueue();
+    private BukkitTask tickTask;
+    private static final long ADMIN_TASK_TIMEOUT_SECONDS = 10;
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // ?fields= projections for the list endpoints
+    private static final FieldProjection<TransactionDTO> TRANSACTION_FIELDS = new FieldProjection<>(TransactionDTO.class);
+    private static final FieldProjection<ShopItemDTO> SHOP_ITEM_FIELDS = new FieldProjection<>(ShopItemDTO.class);
 
     public WebServer(DynamicShop plugin) {
         this.plugin = plugin;
         this.userManager = new WebAdminUserManager(plugin);
         this.auditLog = new WebAdminAuditLog(plugin);
+        this.catalog = new ShopCatalog(plugin);
     }
 
     public void start() {
@@ -66,6 +103,12 @@ public class WebServer {
             String keyStorePassword = plugin.getConfig().getString("webserver.ssl.keystore-password", "");
             String protocol = sslEnabled ? "https" : "http";
 
+            ObjectMapper mapper = createFixedMapper();
+            itemsCache = new JsonResponseCache(mapper);
+            categoriesCache = new JsonResponseCache(mapper);
+            statsCache = new JsonResponseCache(mapper);
+            cacheControl = "public, max-age=" + Math.max(0, plugin.getConfig().getInt("webserver.cache-max-age", 5));
+
             app = Javalin.create(config -> {
                 File webDir = new File(plugin.getDataFolder(), "web");
                 webDir.mkdirs();
@@ -78,7 +121,7 @@ public class WebServer {
                     sf.location = Location.EXTERNAL;
                 });
 
-                config.jsonMapper(new JavalinJackson(createFixedMapper()));
+                config.jsonMapper(new JavalinJackson(mapper));
 
                 if (plugin.getConfig().getBoolean("webserver.cors.enabled", false)) {
                     config.plugins.enableCors(cors -> cors.add(rule -> rule.anyHost()));
@@ -101,6 +144,7 @@ public class WebServer {
             // NEW ANALYTICS ENDPOINTS
             app.get("/api/analytics/economy", this::handleEconomyHealth);
             app.get("/api/analytics/price-history/{item}", this::handlePriceHistory);
+            app.get("/api/analytics/quoted-history/{item}", this::handleQuotedHistory);
             app.get("/api/analytics/leaderboard", this::handleLeaderboard);
             app.get("/api/analytics/trends", this::handleTrends);
             app.get("/api/analytics/time-distribution", this::handleTimeDistribution);
@@ -110,6 +154,14 @@ public class WebServer {
             app.get("/api/shop/items", this::handleShopItems);
             app.get("/api/shop/item/{item}", this::handleShopItemDetail);
             app.get("/api/shop/categories", this::handleShopCategories);
+
+            // LIVE UPDATES (Server-Sent Events)
+            if (plugin.getConfig().getBoolean("webserver.live.enabled", true)) {
+                liveFeed = new LiveFeed(plugin, catalog, mapper,
+                        plugin.getConfig().getInt("webserver.live.max-clients", 500));
+                app.sse("/api/live", liveFeed::connect);
+                liveFeed.start();
+            }
             // AUTH + ADMIN ENDPOINTS (only if admin panel is enabled)
             if (plugin.getConfig().getBoolean("webserver.admin-enabled", true)) {
                 // AUTH ENDPOINTS (no auth required)
@@ -142,6 +194,7 @@ public class WebServer {
                 app.get("/api/admin/categories", this::handleAdminCategories);
                 app.post("/api/admin/category/{category}", this::handleAdminCategoryUpdate);
                 app.get("/api/admin/audit", this::handleAdminAudit);
+                app.get("/api/admin/export/transactions", this::handleAdminExportTransactions);
                 app.post("/api/admin/items/create", this::handleAdminItemCreate);
                 app.delete("/api/admin/item/{item}", this::handleAdminItemRemove);
                 app.get("/api/admin/special-items", this::handleAdminSpecialItems);
@@ -158,6 +211,7 @@ public class WebServer {
                 plugin.getLogger().info("Web admin panel DISABLED via config.");
             }
 
+            tickTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
             plugin.getLogger().info("Web dashboard → " + protocol + "://" + host + ":" + port);
         } catch (Exception e) {
             plugin.getLogger().severe("╔═══════════════════════════════════════════════════╗");
@@ -192,6 +246,15 @@ public class WebServer {
     }
 
     public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        adminCommands.close();
+        if (liveFeed != null) {
+            liveFeed.stop();
+            liveFeed = null;
+        }
         if (app != null)
             app.stop();
     }
@@ -232,25 +295,43 @@ public class WebServer {
         return file.getAbsolutePath();
     }
 
-    private boolean runSyncAdminTask(Context ctx, Runnable task) {
-        Boolean result = callSyncAdminTask(ctx, () -> {
+    /**
+     * Main-thread tick: apply queued admin commands, publish the catalog with
+     * their effects, then let the requests that sent them reply.
+     */
+    private void tick() {
+        List<Runnable> replies = adminCommands.runPending();
+        catalog.publish();
+        replies.forEach(Runnable::run);
+    }
+
+    /**
+     * Queue an admin change for the next tick and answer asynchronously:
+     * {@code reply} writes the response once the change is applied and
+     * visible in the catalog. No Jetty thread waits on the main thread.
+     */
+    private void submitAdminTask(Context ctx, Runnable task, Runnable reply) {
+        submitAdminCall(ctx, () -> {
             task.run();
             return true;
-        });
-        return Boolean.TRUE.equals(result);
+        }, result -> reply.run());
     }
 
-    private <T> T callSyncAdminTask(Context ctx, Callable<T> task) {
-        try {
-            if (Bukkit.isPrimaryThread()) {
-                return task.call();
-            }
-            return Bukkit.getScheduler().callSyncMethod(plugin, task).get(10, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            plugin.getLogger().warning("[WebAdmin] Failed to apply admin request: " + e.getMessage());
-            ctx.status(500).json(Map.of("error", "Failed to apply admin request"));
-            return null;
-        }
+    private <T> void submitAdminCall(Context ctx, Callable<T> task, Consumer<T> reply) {
+        ctx.future(() -> adminCommands.submit(task)
+                .orTimeout(ADMIN_TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .handleAsync((result, error) -> {
+                    if (error == null) {
+                        reply.accept(result);
+                        return null;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    plugin.getLogger().warning("[WebAdmin] Failed to apply admin request: "
+                            + (cause instanceof TimeoutException ? "not run within " + ADMIN_TASK_TIMEOUT_SECONDS + "s" : cause.getMessage()));
+                    ctx.status(500).json(Map.of("error", "Failed to apply admin request"));
+                    return null;
+                }));
     }
 
     private void extractWebFiles(File webDir) {
@@ -338,45 +419,85 @@ public class WebServer {
     // ═══════════════════════════════════════════════════════════════
 
     private void handleRecent(Context ctx) {
-        send(ctx, 100, null);
+        send(ctx, 100, (before, limit) -> plugin.getTransactionLogger().getRecentTransactions(before, limit));
     }
 
     private void handlePlayer(Context ctx) {
-        send(ctx, 200, t -> t.getPlayerName().equalsIgnoreCase(ctx.pathParam("name")));
+        send(ctx, 200, (before, limit) ->
+                plugin.getTransactionLogger().getTransactionsByPlayer(ctx.pathParam("name"), before, limit));
     }
 
     private void handleItem(Context ctx) {
-        send(ctx, 200, t -> t.getItem().equalsIgnoreCase(ctx.pathParam("item")));
+        send(ctx, 200, (before, limit) ->
+                plugin.getTransactionLogger().getTransactionsByItem(ctx.pathParam("item"), before, limit));
     }
 
     private void handleDate(Context ctx) {
-        send(ctx, 500, t -> t.getDate().equals(ctx.pathParam("date")));
+        send(ctx, 500, (before, limit) ->
+                plugin.getTransactionLogger().getTransactionsByDate(ctx.pathParam("date"), before, limit));
     }
 
-    private void send(Context ctx, int defLimit, Predicate<Transaction> filter) {
-        int limit = parseLimit(ctx.queryParam("limit"), defLimit);
-        List<TransactionDTO> safeList = plugin.getTransactionLogger().getRecentTransactions().stream()
-                .filter(filter == null ? t -> true : filter)
-                .sorted((a, b) -> b.getTimestampRaw().compareTo(a.getTimestampRaw()))
-                .limit(limit)
-                .map(TransactionDTO::new)
-                .collect(Collectors.toList());
-        ctx.json(safeList);
+    private interface TransactionLookup {
+        TransactionPage find(long before, int limit);
     }
 
-    private void handleStats(Context ctx) {
-        var txs = plugin.getTransactionLogger().getRecentTransactions();
-        long buys = txs.stream().filter(t -> t.getType() == Transaction.TransactionType.BUY).count();
-        long sells = txs.stream().filter(t -> t.getType() == Transaction.TransactionType.SELL).count();
-        double money = txs.stream().mapToDouble(Transaction::getPrice).sum();
+    /**
+     * Lookups come back newest first from the logger's indexes, so no filter
+     * or sort over the full history here.
+     * ?fields=item,price keeps only those columns. With ?cursor= (empty for the
+     * first page) the response is {items, nextCursor} instead of a bare array;
+     * nextCursor goes back as ?cursor= for the next page and is null at the end.
+     */
+    private void send(Context ctx, int defLimit, TransactionLookup lookup) {
+        int limit = Math.max(0, parseLimit(ctx.queryParam("limit"), defLimit));
+        String cursor = ctx.queryParam("cursor");
+        List<String> fields;
+        try {
+            fields = TRANSACTION_FIELDS.parse(ctx.queryParam("fields"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(400).json(Map.of("error", e.getMessage()));
+            return;
+        }
+        long before = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                before = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                ctx.status(400).json(Map.of("error", "Invalid cursor"));
+                return;
+            }
+        }
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("total", txs.size());
-        stats.put("buys", buys);
-        stats.put("sells", sells);
-        stats.put("totalMoney", money);
+        TransactionPage page = lookup.find(before, limit);
+        List<TransactionDTO> safeList = page.transactions().stream()
+                .map(TransactionDTO::new)
+                .collect(Collectors.toList());
+        List<?> rows = TRANSACTION_FIELDS.apply(safeList, fields);
+        if (cursor == null) {
+            ctx.json(rows);
+        } else {
+            ctx.json(new PageDTO(rows, page.next() < 0 ? null : Long.toString(page.next())));
+        }
+    }
 
-        ctx.json(stats);
+    private void handleStats(Context ctx) throws IOException {
+        TransactionLogger logger = plugin.getTransactionLogger();
+        long version = logger.getVersion(); // read first: the totals below are at least this new
+        int total = logger.getTotalTransactions();
+        int buys = logger.getBuyCount();
+        int sells = logger.getSellCount();
+        double totalMoney = logger.getTotalMoneyExchanged();
+
+        // Re-encoded only when the history changes
+        JsonResponseCache.Encoded encoded = statsCache.get(version, "", () -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("total", total);
+            stats.put("buys", buys);
+            stats.put("sells", sells);
+            stats.put("totalMoney", totalMoney);
+            return stats;
+        });
+        JsonResponseCache.send(ctx, encoded, cacheControl);
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -388,43 +509,34 @@ public class WebServer {
      * Returns overall economy health metrics
      */
     private void handleEconomyHealth(Context ctx) {
-        var txs = plugin.getTransactionLogger().getRecentTransactions();
-
-        long buys = txs.stream().filter(t -> t.getType() == Transaction.TransactionType.BUY).count();
-        long sells = txs.stream().filter(t -> t.getType() == Transaction.TransactionType.SELL).count();
-
-        double totalBuyValue = txs.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.BUY)
-                .mapToDouble(Transaction::getPrice).sum();
-
-        double totalSellValue = txs.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.SELL)
-                .mapToDouble(Transaction::getPrice).sum();
-
-        double avgTransaction = txs.isEmpty() ? 0 : txs.stream().mapToDouble(Transaction::getPrice).average().orElse(0);
-
-        // Calculate velocity (txs per hour)
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        long recentTxs = txs.stream()
-                .filter(t -> t.getTimestampRaw().isAfter(oneHourAgo))
+        TransactionLogger logger = plugin.getTransactionLogger();
+
+        // Window totals are kept incrementally by the logger
+        int total = logger.getTotalTransactions();
+        long buys = logger.getBuyCount();
+        long sells = logger.getSellCount();
+        double totalBuyValue = logger.getTotalBuyValue();
+        double totalSellValue = logger.getTotalSellValue();
+        double avgTransaction = total == 0 ? 0 : (totalBuyValue + totalSellValue) / total;
+
+        // Calculate velocity (txs per hour) from the minute rollups
+        long now = TransactionArchive.toMillis(LocalDateTime.now());
+        long recentTxs = logger.getRollups()
+                .total(TransactionRollups.GLOBAL, TransactionRollups.Resolution.MINUTE, now - 3_600_000L, now + 1)
                 .count();
 
-        // Get unique items and players
-        long uniqueItems = txs.stream().map(Transaction::getItem).distinct().count();
-        long uniquePlayers = txs.stream().map(Transaction::getPlayerName).distinct().count();
-
         Map<String, Object> health = new HashMap<>();
-        health.put("totalTransactions", txs.size());
+        health.put("totalTransactions", total);
         health.put("buyCount", buys);
         health.put("sellCount", sells);
-        health.put("buyRatio", txs.isEmpty() ? 0 : (double) buys / txs.size());
+        health.put("buyRatio", total == 0 ? 0 : (double) buys / total);
         health.put("totalBuyValue", totalBuyValue);
         health.put("totalSellValue", totalSellValue);
         health.put("netFlow", totalSellValue - totalBuyValue);
         health.put("avgTransaction", avgTransaction);
         health.put("velocity", recentTxs);
-        health.put("uniqueItems", uniqueItems);
-        health.put("uniquePlayers", uniquePlayers);
+        health.put("uniqueItems", logger.getUniqueItemCount());
+        health.put("uniquePlayers", logger.getUniquePlayerCount());
 
         ctx.json(health);
     }
@@ -437,39 +549,63 @@ public class WebServer {
         String item = ctx.pathParam("item");
         int hours = parseLimit(ctx.queryParam("hours"), 24);
 
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(hours);
-        var txs = plugin.getTransactionLogger().getRecentTransactions().stream()
-                .filter(t -> t.getItem().equalsIgnoreCase(item))
-                .filter(t -> t.getTimestampRaw().isAfter(cutoff))
-                .sorted(Comparator.comparing(Transaction::getTimestampRaw))
+        // Hourly rollups reach back past the in-memory window
+        long now = TransactionArchive.toMillis(LocalDateTime.now());
+        List<PricePoint> history = plugin.getTransactionLogger().getRollups()
+                .series(item, TransactionRollups.Resolution.HOUR, now - hours * 3_600_000L, now + 1).stream()
+                .map(b -> new PricePoint(
+                        HOUR_FORMAT.format(TransactionArchive.toDateTime(b.start())),
+                        b.buyVwap(),
+                        b.sellVwap(),
+                        (int) b.volume()))
                 .collect(Collectors.toList());
 
-        // Group by hour
-        Map<String, List<Transaction>> grouped = txs.stream()
-                .collect(Collectors
-                        .groupingBy(t -> t.getTimestampRaw().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00"))));
-
-        List<PricePoint> history = grouped.entrySet().stream()
-                .map(e -> {
-                    var hourTxs = e.getValue();
-                    double avgBuy = hourTxs.stream()
-                            .filter(t -> t.getType() == Transaction.TransactionType.BUY)
-                            .mapToDouble(t -> t.getPrice() / t.getAmount())
-                            .average().orElse(0);
+        ctx.json(history);
+    }
 
-                    double avgSell = hourTxs.stream()
-                            .filter(t -> t.getType() == Transaction.TransactionType.SELL)
-                            .mapToDouble(t -> t.getPrice() / t.getAmount())
-                            .average().orElse(0);
+    /**
+     * GET /api/analytics/quoted-history/{item}?hours=24&resolution=minute
+     * Returns sampled quoted prices for a material or stored-item variant,
+     * recorded whether or not the item is traded. Resolution defaults to
+     * minute up to 24 hours and hour beyond.
+     */
+    private void handleQuotedHistory(Context ctx) {
+        PriceHistoryManager history = plugin.getPriceHistoryManager();
+        if (history == null || !history.isEnabled()) {
+            ctx.status(404).json(Map.of("error", "Price history is disabled"));
+            return;
+        }
 
-                    int volume = hourTxs.stream().mapToInt(Transaction::getAmount).sum();
+        int hours;
+        try {
+            String param = ctx.queryParam("hours");
+            hours = param == null ? 24 : Math.max(1, Math.min(Integer.parseInt(param), 90 * 24));
+        } catch (NumberFormatException e) {
+            hours = 24;
+        }
 
-                    return new PricePoint(e.getKey(), avgBuy, avgSell, volume);
-                })
-                .sorted(Comparator.comparing(PricePoint::timestamp))
+        PriceHistoryStore.Resolution resolution;
+        String res = ctx.queryParam("resolution");
+        if (res == null) {
+            resolution = hours <= 24 ? PriceHistoryStore.Resolution.MINUTE : PriceHistoryStore.Resolution.HOUR;
+        } else {
+            resolution = "hour".equalsIgnoreCase(res)
+                    ? PriceHistoryStore.Resolution.HOUR : PriceHistoryStore.Resolution.MINUTE;
+        }
+        DateTimeFormatter format = resolution == PriceHistoryStore.Resolution.HOUR ? HOUR_FORMAT : MINUTE_FORMAT;
+
+        long now = TransactionArchive.toMillis(LocalDateTime.now());
+        String key = history.resolveKey(ctx.pathParam("item"));
+        List<QuotedPricePoint> points = history.getHistory(key, resolution, now - hours * 3_600_000L, now + 1).stream()
+                .map(p -> new QuotedPricePoint(
+                        format.format(TransactionArchive.toDateTime(p.timestamp())),
+                        p.buy(),
+                        p.sell(),
+                        p.stock(),
+                        p.shortageHours()))
                 .collect(Collectors.toList());
 
-        ctx.json(history);
+        ctx.json(points);
     }
 
     /**
@@ -524,44 +660,28 @@ public class WebServer {
      */
     private void handleTrends(Context ctx) {
         int limit = parseLimit(ctx.queryParam("limit"), 10);
-        var txs = plugin.getTransactionLogger().getRecentTransactions();
-
-        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
+        TransactionRollups rollups = plugin.getTransactionLogger().getRollups();
 
-        // Get recent vs older transactions
-        var recentTxs = txs.stream()
-                .filter(t -> t.getTimestampRaw().isAfter(oneHourAgo))
-                .collect(Collectors.toList());
-
-        var olderTxs = txs.stream()
-                .filter(t -> t.getTimestampRaw().isBefore(oneHourAgo) && t.getTimestampRaw().isAfter(oneDayAgo))
-                .collect(Collectors.toList());
+        long now = TransactionArchive.toMillis(LocalDateTime.now());
+        long oneHourAgo = now - 3_600_000L;
+        long oneDayAgo = now - 86_400_000L;
 
-        // Count transactions per item
-        Map<String, Long> recentCounts = recentTxs.stream()
-                .collect(Collectors.groupingBy(Transaction::getItem, Collectors.counting()));
-
-        Map<String, Long> olderCounts = olderTxs.stream()
-                .collect(Collectors.groupingBy(Transaction::getItem, Collectors.counting()));
-
-        // Calculate trends
-        List<TrendItem> trends = recentCounts.entrySet().stream()
-                .map(e -> {
-                    String item = e.getKey();
-                    long recentCount = e.getValue();
-                    long olderCount = olderCounts.getOrDefault(item, 0L);
-
-                    double changePercent = olderCount == 0 ? 100
-                            : ((double) (recentCount - olderCount) / olderCount) * 100;
+        // Last hour vs. the 23 hours before it, from the minute rollups
+        List<TrendItem> trends = new ArrayList<>();
+        for (String item : rollups.items(TransactionRollups.Resolution.MINUTE)) {
+            TransactionRollups.Bucket recent = rollups.total(item, TransactionRollups.Resolution.MINUTE, oneHourAgo, now + 1);
+            if (recent.count() == 0) {
+                continue;
+            }
+            long olderCount = rollups.total(item, TransactionRollups.Resolution.MINUTE, oneDayAgo, oneHourAgo).count();
+            long recentCount = recent.count();
 
-                    double avgPrice = recentTxs.stream()
-                            .filter(t -> t.getItem().equals(item))
-                            .mapToDouble(t -> t.getPrice() / t.getAmount())
-                            .average().orElse(0);
+            double changePercent = olderCount == 0 ? 100
+                    : ((double) (recentCount - olderCount) / olderCount) * 100;
 
-                    return new TrendItem(item, recentCount, changePercent, avgPrice);
-                })
+            trends.add(new TrendItem(item, recentCount, changePercent, recent.vwap()));
+        }
+        trends = trends.stream()
                 .sorted(Comparator.comparingDouble(TrendItem::changePercent).reversed())
                 .limit(limit)
                 .collect(Collectors.toList());
@@ -582,22 +702,18 @@ public class WebServer {
      */
     private void handleTimeDistribution(Context ctx) {
         int hours = parseLimit(ctx.queryParam("hours"), 24);
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(hours);
+        long now = TransactionArchive.toMillis(LocalDateTime.now());
 
-        var txs = plugin.getTransactionLogger().getRecentTransactions().stream()
-                .filter(t -> t.getTimestampRaw().isAfter(cutoff))
-                .collect(Collectors.toList());
-
-        // Group by hour
-        Map<Integer, Long> hourlyDist = txs.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getTimestampRaw().getHour(),
-                        Collectors.counting()));
+        // Sum the global hourly rollups by hour of day
+        long[] hourlyDist = new long[24];
+        for (TransactionRollups.Bucket bucket : plugin.getTransactionLogger().getRollups()
+                .series(TransactionRollups.GLOBAL, TransactionRollups.Resolution.HOUR, now - hours * 3_600_000L, now + 1)) {
+            hourlyDist[TransactionArchive.toDateTime(bucket.start()).getHour()] += bucket.count();
+        }
 
-        // Fill in missing hours with 0
         List<TimeSlot> distribution = new ArrayList<>();
         for (int h = 0; h < 24; h++) {
-            distribution.add(new TimeSlot(h, hourlyDist.getOrDefault(h, 0L)));
+            distribution.add(new TimeSlot(h, hourlyDist[h]));
         }
 
         ctx.json(distribution);
@@ -643,129 +759,77 @@ public class WebServer {
     // ═══════════════════════════════════════════════════════════════
 
     /**
-     * GET /api/shop/items
-     * Returns all shop items with current prices, stock, and category
-     * Uses 60-second cache to reduce server load
+     * GET /api/shop/items?query=&category=&sort=name&order=asc&fields=&cursor=&limit=100
+     * Returns shop items with current prices, stock, and category
+     * Served from the catalog snapshot that the main-thread tick() applies and publishes,
+     * re-pricing only what changed since the previous tick.
+     * sort is name, price (= buyPrice), sellPrice, stock or change (% off base price);
+     * category lists and sort orders are indexes built once per catalog version.
+     * Without ?cursor= the whole filtered list comes back as an array. With it (empty for
+     * the first page) the response is {items, nextCursor} holding up to limit items
+     * (max 500); nextCursor goes back as ?cursor= with the same sort and order.
+     * Each parameter combination is encoded once per catalog version (ETag / 304, gzip).
      */
-    private void handleShopItems(Context ctx) {
+    private void handleShopItems(Context ctx) throws IOException {
         String query = ctx.queryParam("query");
         String categoryFilter = ctx.queryParam("category");
-
-        // Check if cache needs refresh
-        long now = System.currentTimeMillis();
-        if (cachedShopItems == null || (now - cacheTimestamp) > CACHE_TTL_MS) {
-            refreshShopItemsCache();
-        }
-
-        // Apply filters to cached data
-        List<ShopItemDTO> items = cachedShopItems;
-
-        // Apply search filter if present
-        if (query != null && !query.isEmpty()) {
-            String lowerQuery = query.toLowerCase();
-            items = items.stream()
-                    .filter(item -> item.displayName().toLowerCase().contains(lowerQuery)
-                            || item.item().toLowerCase().contains(lowerQuery))
-                    .collect(Collectors.toList());
+        String lowerQuery = query != null ? query.toLowerCase() : "";
+        String upperCategory = categoryFilter != null ? categoryFilter.toUpperCase() : "";
+        String cursor = ctx.queryParam("cursor");
+        boolean paged = cursor != null;
+        int limit = paged ? Math.min(Math.max(1, parseLimit(ctx.queryParam("limit"), 100)), 500) : Integer.MAX_VALUE;
+        boolean descending = "desc".equalsIgnoreCase(ctx.queryParam("order"));
+
+        ShopCatalog.SortKey sort = ShopCatalog.SortKey.parse(ctx.queryParam("sort"));
+        if (sort == null) {
+            ctx.status(400).json(Map.of("error", "Unknown sort: " + ctx.queryParam("sort")));
+            return;
         }
-
-        // Apply category filter if present
-        if (categoryFilter != null && !categoryFilter.isEmpty()) {
-            String upperCategory = categoryFilter.toUpperCase();
-            items = items.stream()
-                    .filter(item -> item.category().equals(upperCategory))
-                    .collect(Collectors.toList());
+        List<String> fields;
+        ShopCatalog.Cursor after = null;
+        try {
+            fields = SHOP_ITEM_FIELDS.parse(ctx.queryParam("fields"));
+            if (paged && !cursor.isEmpty()) {
+                after = ShopCatalog.Cursor.decode(cursor);
+                if (after.sort() != sort || after.descending() != descending) {
+                    throw new IllegalArgumentException("Cursor is for a different sort order");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            ctx.status(400).json(Map.of("error", e.getMessage()));
+            return;
         }
 
-        ctx.json(items);
+        String key = String.join("\n", lowerQuery, upperCategory, sort.param, descending ? "desc" : "asc",
+                fields != null ? String.join(",", fields) : "", paged ? cursor + "@" + limit : "");
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
+        ShopCatalog.Cursor from = after;
+        JsonResponseCache.Encoded encoded = itemsCache.get(snapshot.version(), key, () -> {
+            ShopCatalog.Page page = snapshot.page(sort, descending, upperCategory, lowerQuery, from, limit);
+            List<?> items = SHOP_ITEM_FIELDS.apply(page.items(), fields);
+            return paged ? new PageDTO(items, page.nextCursor()) : items;
+        });
+        JsonResponseCache.send(ctx, encoded, cacheControl);
     }
 
-    public synchronized void invalidateShopItemsCache() {
-        this.cacheTimestamp = 0;
+    /**
+     * The /api/shop/items catalog, for change notifications from the managers.
+     */
+    public ShopCatalog getCatalog() {
+        return catalog;
     }
 
     /**
-     * Refreshes the shop items cache
+     * Re-price the whole catalog; tick() applies and publishes it on the next
+     * server tick.
      */
-    private synchronized void refreshShopItemsCache() {
-        List<ShopItemDTO> items = new ArrayList<>();
-
-        for (Material mat : ShopDataManager.getAllTrackedMaterials()) {
-            double basePrice = ShopDataManager.getBasePrice(mat);
-            if (basePrice < 0)
-                continue; // Skip disabled items
-
-            ItemCategory category = ShopDataManager.detectCategory(mat);
-            double buyPrice = ShopDataManager.getPrice(mat);
-            double sellPrice = ShopDataManager.getSellPrice(mat);
-            double stock = ShopDataManager.getStock(mat);
-
-            String imageUrl = "https://mc.nerothe.com/img/1.21/minecraft_" + mat.name().toLowerCase() + ".png";
-
-            items.add(new ShopItemDTO(
-                    mat.name(),
-                    ShopDataManager.getCustomName(mat) != null ? ShopDataManager.getCustomName(mat) : prettifyItemName(mat.name()),
-                    category.name(),
-                    getCategoryDisplayName(category),
-                    buyPrice,
-                    sellPrice,
-                    stock,
-                    basePrice,
-                    imageUrl));
-        }
-
-        // Add Special Items
-        for (org.minecraftsmp.dynamicshop.category.SpecialShopItem specialItem : plugin.getSpecialShopManager().getAllSpecialItems().values()) {
-            String imageUrl = "https://mc.nerothe.com/img/1.21/minecraft_" +
-                (specialItem.getDisplayMaterial() != null ? specialItem.getDisplayMaterial().name().toLowerCase() : "enchanted_book") + ".png";
-
-            items.add(new ShopItemDTO(
-                    "special:" + specialItem.getId(),
-                    specialItem.getName() != null ? specialItem.getName() : specialItem.getId(),
-                    specialItem.getCategory().name(),
-                    getCategoryDisplayName(specialItem.getCategory()),
-                    specialItem.getPrice(),
-                    0.0,
-                    0,
-                    specialItem.getPrice(),
-                    imageUrl
-            ));
-        }
-
-        // Add Player Shop Items
-        for (PlayerShopListing ps : plugin.getPlayerShopManager().getAllListings()) {
-            String psName = ps.getItem().hasItemMeta() && ps.getItem().getItemMeta().hasDisplayName() ?
-                org.minecraftsmp.dynamicshop.util.PaperCompat.getPlainDisplayName(ps.getItem().getItemMeta()) :
-                prettifyItemName(ps.getItem().getType().name());
-
-            String imageUrl = "https://mc.nerothe.com/img/1.21/minecraft_" + ps.getItem().getType().name().toLowerCase() + ".png";
-
-            items.add(new ShopItemDTO(
-                    "playershop:" + ps.getListingId(),
-                    psName,
-                    "PLAYER_SHOPS",
-                    getCategoryDisplayName(ItemCategory.PLAYER_SHOPS),
-                    ps.getPrice(),
-                    0.0,
-                    ps.getItem().getAmount(),
-                    ps.getPrice(),
-                    imageUrl
-            ));
-        }
-
-        // Sort by display name
-        items.sort(Comparator.comparing(ShopItemDTO::displayName));
-
-        // Update cache
-        cachedShopItems = items;
-        cacheTimestamp = System.currentTimeMillis();
-
-        plugin.getLogger().info("Shop items cache refreshed (" + items.size() + " items)");
+    public void invalidateShopItemsCache() {
+        catalog.markAll();
     }
 
     /**
      * GET /api/shop/item/{item}
-     * Returns detailed data for a specific item
+     * Returns detailed data for a specific item (from the catalog snapshot)
      */
     private void handleShopItemDetail(Context ctx) {
         String itemName = ctx.pathParam("item");
@@ -776,72 +840,53 @@ public class WebServer {
             return;
         }
 
-        double basePrice = ShopDataManager.getBasePrice(mat);
-        if (basePrice < 0) {
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
+        ShopItemDTO entry = snapshot.item(mat.name());
+        ShopCatalog.ItemDetails details = snapshot.details(mat);
+        if (entry == null || details == null) {
             ctx.status(404).json(Map.of("error", "Item not tradeable"));
             return;
         }
 
-        ItemCategory category = ShopDataManager.detectCategory(mat);
-        double buyPrice = ShopDataManager.getPrice(mat);
-        double sellPrice = ShopDataManager.getSellPrice(mat);
-        double stock = ShopDataManager.getStock(mat);
-        String imageUrl = "https://mc.nerothe.com/img/1.21/minecraft_" + mat.name().toLowerCase() + ".png";
-
-        // Get recent transactions for this item
-        var txs = plugin.getTransactionLogger().getRecentTransactions();
+        // Get recent transactions for this item (index lookup, newest first)
+        var txs = plugin.getTransactionLogger().getTransactionsByItem(mat.name(), Integer.MAX_VALUE);
         var itemTxs = txs.stream()
-                .filter(t -> t.getItem().equalsIgnoreCase(mat.name()))
-                .sorted((a, b) -> b.getTimestampRaw().compareTo(a.getTimestampRaw()))
                 .limit(50)
                 .map(TransactionDTO::new)
                 .collect(Collectors.toList());
 
-        // Get recent buyers and sellers
-        var recentBuyers = txs.stream()
-                .filter(t -> t.getItem().equalsIgnoreCase(mat.name()))
-                .filter(t -> t.getType() == Transaction.TransactionType.BUY)
-                .sorted((a, b) -> b.getTimestampRaw().compareTo(a.getTimestampRaw()))
-                .limit(10)
-                .map(t -> new RecentTrader(t.getPlayerName(), t.getTimestamp(), t.getAmount(), t.getPrice()))
-                .collect(Collectors.toList());
-
-        var recentSellers = txs.stream()
-                .filter(t -> t.getItem().equalsIgnoreCase(mat.name()))
-                .filter(t -> t.getType() == Transaction.TransactionType.SELL)
-                .sorted((a, b) -> b.getTimestampRaw().compareTo(a.getTimestampRaw()))
-                .limit(10)
-                .map(t -> new RecentTrader(t.getPlayerName(), t.getTimestamp(), t.getAmount(), t.getPrice()))
-                .collect(Collectors.toList());
-
-        // Calculate stats
-        long totalBuys = txs.stream()
-                .filter(t -> t.getItem().equalsIgnoreCase(mat.name()))
-                .filter(t -> t.getType() == Transaction.TransactionType.BUY)
-                .count();
-
-        long totalSells = txs.stream()
-                .filter(t -> t.getItem().equalsIgnoreCase(mat.name()))
-                .filter(t -> t.getType() == Transaction.TransactionType.SELL)
-                .count();
-
-        double totalVolume = txs.stream()
-                .filter(t -> t.getItem().equalsIgnoreCase(mat.name()))
-                .mapToDouble(Transaction::getPrice)
-                .sum();
+        // Get recent buyers and sellers, and totals, in one pass
+        List<RecentTrader> recentBuyers = new ArrayList<>();
+        List<RecentTrader> recentSellers = new ArrayList<>();
+        long totalBuys = 0;
+        long totalSells = 0;
+        double totalVolume = 0;
+        for (Transaction t : txs) {
+            if (t.getType() == Transaction.TransactionType.BUY) {
+                totalBuys++;
+                if (recentBuyers.size() < 10) {
+                    recentBuyers.add(new RecentTrader(t.getPlayerName(), t.getTimestamp(), t.getAmount(), t.getPrice()));
+                }
+            } else if (t.getType() == Transaction.TransactionType.SELL) {
+                totalSells++;
+                if (recentSellers.size() < 10) {
+                    recentSellers.add(new RecentTrader(t.getPlayerName(), t.getTimestamp(), t.getAmount(), t.getPrice()));
+                }
+            }
+            totalVolume += t.getPrice();
+        }
 
         Map<String, Object> result = new HashMap<>();
         result.put("item", mat.name());
-        String customName = ShopDataManager.getCustomName(mat);
-        result.put("displayName", customName != null ? customName : prettifyItemName(mat.name()));
-        result.put("customName", customName);
-        result.put("category", category.name());
-        result.put("categoryDisplayName", getCategoryDisplayName(category));
-        result.put("buyPrice", buyPrice);
-        result.put("sellPrice", sellPrice);
-        result.put("stock", stock);
-        result.put("basePrice", basePrice);
-        result.put("imageUrl", imageUrl);
+        result.put("displayName", entry.displayName());
+        result.put("customName", details.customName());
+        result.put("category", entry.category());
+        result.put("categoryDisplayName", entry.categoryDisplayName());
+        result.put("buyPrice", entry.buyPrice());
+        result.put("sellPrice", entry.sellPrice());
+        result.put("stock", entry.stock());
+        result.put("basePrice", entry.basePrice());
+        result.put("imageUrl", entry.imageUrl());
         result.put("recentTransactions", itemTxs);
         result.put("recentBuyers", recentBuyers);
         result.put("recentSellers", recentSellers);
@@ -854,34 +899,43 @@ public class WebServer {
 
     /**
      * GET /api/shop/categories
-     * Returns list of categories with item counts
+     * Returns list of categories with item counts, counted from the catalog
+     * and encoded once per catalog version
      */
-    private void handleShopCategories(Context ctx) {
-        List<CategoryDTO> categories = new ArrayList<>();
+    private void handleShopCategories(Context ctx) throws IOException {
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
+        JsonResponseCache.Encoded encoded = categoriesCache.get(snapshot.version(), "",
+                () -> countCategories(snapshot.items()));
+        JsonResponseCache.send(ctx, encoded, cacheControl);
+    }
 
+    private List<CategoryDTO> countCategories(List<ShopItemDTO> items) {
+        Map<String, Long> counts = new HashMap<>();
+        for (ShopItemDTO item : items) {
+            if (item.item().indexOf(':') < 0) { // shop materials only, not special items or player shops
+                counts.merge(item.category(), 1L, Long::sum);
+            }
+        }
+
+        List<CategoryDTO> categories = new ArrayList<>();
         for (ItemCategory cat : ItemCategory.values()) {
             if (cat == ItemCategory.PERMISSIONS || cat == ItemCategory.SERVER_SHOP) {
                 continue;
             }
 
-            long count = ShopDataManager.getAllTrackedMaterials().stream()
-                    .filter(mat -> ShopDataManager.getBasePrice(mat) >= 0)
-                    .filter(mat -> ShopDataManager.detectCategory(mat) == cat)
-                    .count();
-
+            long count = counts.getOrDefault(cat.name(), 0L);
             if (count > 0) {
                 categories.add(new CategoryDTO(cat.name(), getCategoryDisplayName(cat), count));
             }
         }
-
-        ctx.json(categories);
+        return categories;
     }
 
     private String getCategoryDisplayName(ItemCategory category) {
         return CategoryConfigManager.getDisplayName(category);
     }
 
-    private String prettifyItemName(String name) {
+    static String prettifyItemName(String name) {
         String[] parts = name.split("_");
         StringBuilder result = new StringBuilder();
         for (String part : parts) {
@@ -1028,73 +1082,16 @@ public class WebServer {
     /**
      * GET /api/admin/items
      * Returns all items with full admin data (stock, base price, shortage, rates, etc.)
+     * Built from the catalog snapshot, already sorted by display name
      */
     private void handleAdminItems(Context ctx) {
         if (ctx.statusCode() == 401) return;
 
-        List<Map<String, Object>> items = new ArrayList<>();
-        for (Material mat : ShopDataManager.getAllTrackedMaterials()) {
-            double basePrice = ShopDataManager.getBasePrice(mat);
-            if (basePrice < 0) continue;
-
-            Map<String, Object> item = buildAdminItemMap(mat);
-            items.add(item);
-        }
-
-        // Add Special Items
-        for (org.minecraftsmp.dynamicshop.category.SpecialShopItem specialItem : plugin.getSpecialShopManager().getAllSpecialItems().values()) {
-            Map<String, Object> item = new LinkedHashMap<>();
-            item.put("item", "special:" + specialItem.getId());
-            item.put("displayName", specialItem.getName() != null ? specialItem.getName() : specialItem.getId());
-            item.put("category", specialItem.getCategory().name());
-            item.put("categoryDisplayName", getCategoryDisplayName(specialItem.getCategory()));
-            item.put("basePrice", specialItem.getPrice());
-            item.put("buyPrice", specialItem.getPrice());
-            item.put("sellPrice", 0.0);
-            item.put("stock", 0.0);
-            item.put("stockRate", 0.0);
-            item.put("maxStock", null);
-            item.put("maxStockStorage", null);
-            item.put("shortageHours", 0.0);
-            item.put("priceIncreasePercent", 0.0);
-            item.put("buyDisabled", false);
-            item.put("sellDisabled", false);
-            item.put("disabled", false);
-            String imageUrl = "https://mc.nerothe.com/img/1.21/minecraft_" +
-                (specialItem.getDisplayMaterial() != null ? specialItem.getDisplayMaterial().name().toLowerCase() : "enchanted_book") + ".png";
-            item.put("imageUrl", imageUrl);
-            items.add(item);
-        }
-
-        // Add Player Shop Items
-        for (PlayerShopListing ps : plugin.getPlayerShopManager().getAllListings()) {
-            Map<String, Object> item = new LinkedHashMap<>();
-            String psName = ps.getItem().hasItemMeta() && ps.getItem().getItemMeta().hasDisplayName() ?
-                org.minecraftsmp.dynamicshop.util.PaperCompat.getPlainDisplayName(ps.getItem().getItemMeta()) :
-                prettifyItemName(ps.getItem().getType().name());
-
-            item.put("item", "playershop:" + ps.getListingId());
-            item.put("displayName", psName);
-            item.put("category", "PLAYER_SHOPS");
-            item.put("categoryDisplayName", getCategoryDisplayName(ItemCategory.PLAYER_SHOPS));
-            item.put("basePrice", ps.getPrice());
-            item.put("buyPrice", ps.getPrice());
-            item.put("sellPrice", 0.0);
-            item.put("stock", (double) ps.getItem().getAmount());
-            item.put("stockRate", 0.0);
-            item.put("maxStock", null);
-            item.put("maxStockStorage", null);
-            item.put("shortageHours", 0.0);
-            item.put("priceIncreasePercent", 0.0);
-            item.put("buyDisabled", false);
-            item.put("sellDisabled", false);
-            item.put("disabled", false);
-            String imageUrl = "https://mc.nerothe.com/img/1.21/minecraft_" + ps.getItem().getType().name().toLowerCase() + ".png";
-            item.put("imageUrl", imageUrl);
-            items.add(item);
-        }
-
-        items.sort(Comparator.comparing(m -> (String) m.get("displayName")));
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
+        List<Map<String, Object>> items = new ArrayList<>(snapshot.items().size());
+        for (ShopItemDTO entry : snapshot.items()) {
+            items.add(buildAdminItemMap(entry, snapshot));
+        }
         ctx.json(items);
     }
 
@@ -1106,11 +1103,12 @@ public class WebServer {
         if (ctx.statusCode() == 401) return;
 
         Material mat = Material.matchMaterial(ctx.pathParam("item"));
-        if (mat == null || ShopDataManager.getBasePrice(mat) < 0) {
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
+        if (mat == null || snapshot.details(mat) == null) {
             ctx.status(404).json(Map.of("error", "Item not found"));
             return;
         }
-        ctx.json(buildAdminItemMap(mat));
+        ctx.json(buildAdminItemMap(snapshot.item(mat.name()), snapshot));
     }
 
     /**
@@ -1122,7 +1120,7 @@ public class WebServer {
         if (ctx.statusCode() == 401) return;
 
         Material mat = Material.matchMaterial(ctx.pathParam("item"));
-        if (mat == null || ShopDataManager.getBasePrice(mat) < 0) {
+        if (mat == null || catalog.snapshot().details(mat) == null) {
             ctx.status(404).json(Map.of("error", "Item not found"));
             return;
         }
@@ -1137,7 +1135,7 @@ public class WebServer {
         }
 
         // Apply changes on main thread for thread safety
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             boolean isDisabled = false;
             if (body.containsKey("disabled")) {
                 isDisabled = (Boolean) body.get("disabled");
@@ -1193,15 +1191,14 @@ public class WebServer {
             }
 
             ShopDataManager.saveDynamicData();
-            invalidateShopItemsCache();
-        })) return;
-
-        // Audit log
-        StringBuilder changes = new StringBuilder();
-        body.forEach((k, v) -> changes.append(k).append("=").append(v).append(", "));
-        auditLog.log(getAdminUsername(ctx), "item_update", mat.name(), changes.toString());
+        }, () -> {
+            // Audit log
+            StringBuilder changes = new StringBuilder();
+            body.forEach((k, v) -> changes.append(k).append("=").append(v).append(", "));
+            auditLog.log(getAdminUsername(ctx), "item_update", mat.name(), changes.toString());
 
-        ctx.json(Map.of("success", true, "item", mat.name()));
+            ctx.json(Map.of("success", true, "item", mat.name()));
+        });
     }
 
     /**
@@ -1226,15 +1223,16 @@ public class WebServer {
             return;
         }
 
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
         List<Material> materialsToUpdate = new ArrayList<>();
         for (String itemName : items) {
              Material mat = Material.matchMaterial(itemName);
-             if (mat != null && ShopDataManager.getBasePrice(mat) >= 0) {
+             if (mat != null && snapshot.details(mat) != null) {
                  materialsToUpdate.add(mat);
              }
         }
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             for (Material mat : materialsToUpdate) {
                 if (updates.containsKey("disabled")) {
                     ShopDataManager.setItemDisabled(mat, (Boolean) updates.get("disabled"));
@@ -1247,11 +1245,10 @@ public class WebServer {
                 }
             }
             ShopDataManager.saveDynamicData();
-            invalidateShopItemsCache();
-        })) return;
-
-        auditLog.log(getAdminUsername(ctx), "bulk_item_update", items.size() + " items", updates.toString());
-        ctx.json(Map.of("success", true, "updated", materialsToUpdate.size()));
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "bulk_item_update", items.size() + " items", updates.toString());
+            ctx.json(Map.of("success", true, "updated", materialsToUpdate.size()));
+        });
     }
 
     /**
@@ -1327,7 +1324,7 @@ public class WebServer {
             return;
         }
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             if (body.containsKey("dynamicPricingEnabled")) {
                 boolean val = (Boolean) body.get("dynamicPricingEnabled");
                 plugin.getConfig().set("dynamic-pricing.enabled", val);
@@ -1484,14 +1481,14 @@ public class WebServer {
             plugin.saveConfig();
             ConfigCacheManager.reload();
             invalidateShopItemsCache();
-        })) return;
+        }, () -> {
+            // Audit log
+            StringBuilder changes = new StringBuilder();
+            body.forEach((k, v) -> changes.append(k).append("=").append(v).append(", "));
+            auditLog.log(getAdminUsername(ctx), "config_update", "global", changes.toString());
 
-        // Audit log
-        StringBuilder changes = new StringBuilder();
-        body.forEach((k, v) -> changes.append(k).append("=").append(v).append(", "));
-        auditLog.log(getAdminUsername(ctx), "config_update", "global", changes.toString());
-
-        ctx.json(Map.of("success", true));
+            ctx.json(Map.of("success", true));
+        });
     }
 
     /**
@@ -1501,11 +1498,12 @@ public class WebServer {
     private void handleAdminResetShortage(Context ctx) {
         if (ctx.statusCode() == 401) return;
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             ShopDataManager.resetAllShortageData();
-        })) return;
-        auditLog.log(getAdminUsername(ctx), "shortage_reset", "ALL", "All shortage data reset");
-        ctx.json(Map.of("success", true, "message", "All shortage data reset"));
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "shortage_reset", "ALL", "All shortage data reset");
+            ctx.json(Map.of("success", true, "message", "All shortage data reset"));
+        });
     }
 
     /**
@@ -1521,14 +1519,14 @@ public class WebServer {
             return;
         }
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             ShopDataManager.setHoursInShortage(mat, 0.0);
             ShopDataManager.setLastUpdate(mat, System.currentTimeMillis());
             ShopDataManager.saveDynamicData();
-        })) return;
-
-        auditLog.log(getAdminUsername(ctx), "shortage_reset", mat.name(), "Shortage hours reset to 0");
-        ctx.json(Map.of("success", true, "item", mat.name()));
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "shortage_reset", mat.name(), "Shortage hours reset to 0");
+            ctx.json(Map.of("success", true, "item", mat.name()));
+        });
     }
 
     /**
@@ -1538,13 +1536,71 @@ public class WebServer {
     private void handleAdminReload(Context ctx) {
         if (ctx.statusCode() == 401) return;
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             plugin.reload();
-        })) return;
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "plugin_reload", "global", "Plugin configuration reloaded via web admin");
+            ctx.json(Map.of("success", true, "message", "Plugin reloaded"));
+        });
+    }
+
+    /**
+     * GET /api/admin/export/transactions?format=csv&from=2025-01-01&to=2025-01-31&player=&item=&gzip=true
+     * Streams the full transaction archive as CSV (default) or NDJSON. Dates
+     * are inclusive; every filter is optional. Rows are written to the response
+     * as they are read from disk, so the export runs in constant memory.
+     */
+    private void handleAdminExportTransactions(Context ctx) throws IOException {
+        if (ctx.statusCode() == 401) return;
 
-        auditLog.log(getAdminUsername(ctx), "plugin_reload", "global", "Plugin configuration reloaded via web admin");
-        invalidateShopItemsCache();
-        ctx.json(Map.of("success", true, "message", "Plugin reloaded"));
+        TransactionArchive archive = plugin.getTransactionLogger().getArchive();
+        if (archive == null) {
+            ctx.status(409).json(Map.of("error", "Transaction archive is disabled (logging.archive)"));
+            return;
+        }
+
+        TransactionExporter.Format format = "ndjson".equalsIgnoreCase(ctx.queryParam("format"))
+                ? TransactionExporter.Format.NDJSON : TransactionExporter.Format.CSV;
+        long from = 0L;
+        long to = Long.MAX_VALUE;
+        try {
+            String fromParam = ctx.queryParam("from");
+            String toParam = ctx.queryParam("to");
+            if (fromParam != null && !fromParam.isEmpty()) {
+                from = TransactionArchive.toMillis(LocalDate.parse(fromParam).atStartOfDay());
+            }
+            if (toParam != null && !toParam.isEmpty()) {
+                to = TransactionArchive.toMillis(LocalDate.parse(toParam).plusDays(1).atStartOfDay());
+            }
+        } catch (DateTimeParseException e) {
+            ctx.status(400).json(Map.of("error", "Invalid date, expected yyyy-MM-dd"));
+            return;
+        }
+        String player = emptyToNull(ctx.queryParam("player"));
+        String item = emptyToNull(ctx.queryParam("item"));
+        boolean gzip = "true".equalsIgnoreCase(ctx.queryParam("gzip"));
+
+        String filename = "transactions." + format.extension + (gzip ? ".gz" : "");
+        ctx.status(200);
+        ctx.contentType(gzip ? "application/gzip" : format.contentType + "; charset=utf-8");
+        ctx.header("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        ctx.header("Cache-Control", "no-store");
+
+        // Write to the servlet stream directly so Javalin neither buffers nor re-compresses it
+        OutputStream raw = ctx.res().getOutputStream();
+        OutputStream body = gzip ? new GZIPOutputStream(raw, 64 * 1024) : raw;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 64 * 1024)) {
+            long rows = new TransactionExporter(format, out).export(archive, from, to, player, item);
+            auditLog.log(getAdminUsername(ctx), "transactions_export", filename,
+                    rows + " rows" + (player != null ? ", player=" + player : "") + (item != null ? ", item=" + item : ""));
+        } catch (IOException e) {
+            // client went away mid-download; nothing left to send
+            plugin.getLogger().warning("[WebServer] Transaction export aborted: " + e.getMessage());
+        }
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
     }
 
     /**
@@ -1568,6 +1624,8 @@ public class WebServer {
     private void handleAdminCategories(Context ctx) {
         if (ctx.statusCode() == 401) return;
 
+        ShopCatalog.Snapshot snapshot = catalog.snapshot();
+        Map<String, List<ShopItemDTO>> byCategory = snapshot.byCategory();
         List<Map<String, Object>> categories = new ArrayList<>();
 
         for (ItemCategory cat : ItemCategory.values()) {
@@ -1576,32 +1634,22 @@ public class WebServer {
             String displayName = CategoryConfigManager.getDisplayName(cat);
             boolean hidden = (slot == -1);
 
-            // Count items in this category
-            long itemCount = ShopDataManager.getAllTrackedMaterials().stream()
-                    .filter(mat -> ShopDataManager.getBasePrice(mat) >= 0)
-                    .filter(mat -> ShopDataManager.detectCategory(mat) == cat)
-                    .count();
-
-            if (cat == ItemCategory.PERMISSIONS || cat == ItemCategory.SERVER_SHOP) {
-                itemCount += plugin.getSpecialShopManager().getAllSpecialItems().values().stream()
-                        .filter(i -> i.getCategory() == cat).count();
-            } else if (cat == ItemCategory.PLAYER_SHOPS) {
-                itemCount += plugin.getPlayerShopManager().getAllListings().size();
-            }
-
-            // Count items with shortage
-            long shortageCount = ShopDataManager.getAllTrackedMaterials().stream()
-                    .filter(mat -> ShopDataManager.getBasePrice(mat) >= 0)
-                    .filter(mat -> ShopDataManager.detectCategory(mat) == cat)
-                    .filter(mat -> ShopDataManager.getHoursInShortage(mat) > 0)
-                    .count();
-
-            // Count items out of stock
-            long outOfStockCount = ShopDataManager.getAllTrackedMaterials().stream()
-                    .filter(mat -> ShopDataManager.getBasePrice(mat) >= 0)
-                    .filter(mat -> ShopDataManager.detectCategory(mat) == cat)
-                    .filter(mat -> ShopDataManager.getStock(mat) <= 0)
-                    .count();
+            // Count items in this category, and those in shortage or out of stock (shop materials only)
+            long itemCount = 0;
+            long shortageCount = 0;
+            long outOfStockCount = 0;
+            for (ShopItemDTO entry : byCategory.getOrDefault(cat.name(), List.of())) {
+                if (entry.item().indexOf(':') < 0) {
+                    itemCount++;
+                    ShopCatalog.ItemDetails details = snapshot.details(Material.valueOf(entry.item()));
+                    if (details != null && details.shortageHours() > 0) shortageCount++;
+                    if (entry.stock() <= 0) outOfStockCount++;
+                } else if (entry.item().startsWith("special:")
+                        ? cat == ItemCategory.PERMISSIONS || cat == ItemCategory.SERVER_SHOP
+                        : cat == ItemCategory.PLAYER_SHOPS) {
+                    itemCount++;
+                }
+            }
 
             String iconUrl = "https://mc.nerothe.com/img/1.21/minecraft_" + icon.name().toLowerCase() + ".png";
 
@@ -1654,7 +1702,7 @@ public class WebServer {
             return;
         }
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             boolean categoryChanged = false;
 
             if (body.containsKey("slot")) {
@@ -1688,6 +1736,7 @@ public class WebServer {
 
             if (categoryChanged) {
                 CategoryConfigManager.save();
+                invalidateShopItemsCache(); // display names in the catalog
             }
 
             if (body.containsKey("restockTarget") && body.containsKey("restockInterval")) {
@@ -1705,11 +1754,10 @@ public class WebServer {
                     }
                 }
             }
-
+        }, () -> {
             auditLog.log(getAdminUsername(ctx), "category_update", cat.name(), "Updated category layout/restock rules");
-        })) return;
-
-        ctx.json(Map.of("success", true));
+            ctx.json(Map.of("success", true));
+        });
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1737,7 +1785,7 @@ public class WebServer {
             ctx.status(400).json(Map.of("error", "Unknown or non-item material: " + matName));
             return;
         }
-        if (ShopDataManager.getBasePrice(mat) >= 0) {
+        if (catalog.snapshot().details(mat) != null) {
             ctx.status(409).json(Map.of("error", "Item already exists in the shop: " + mat.name()));
             return;
         }
@@ -1755,17 +1803,16 @@ public class WebServer {
         }
         final ItemCategory finalCat = catOverride;
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             ShopDataManager.setBasePrice(mat, basePrice);
             ShopDataManager.setStockDirect(mat, 0);
             if (finalCat != null) ShopDataManager.setCategoryOverride(mat, finalCat);
             ShopDataManager.saveDynamicData();
-            invalidateShopItemsCache();
-        })) return;
-
-        auditLog.log(getAdminUsername(ctx), "item_create", mat.name(),
-                "basePrice=" + basePrice + (catOverride != null ? ", category=" + catOverride : ""));
-        ctx.json(Map.of("success", true, "item", mat.name()));
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "item_create", mat.name(),
+                    "basePrice=" + basePrice + (finalCat != null ? ", category=" + finalCat : ""));
+            ctx.json(Map.of("success", true, "item", mat.name()));
+        });
     }
 
     /**
@@ -1775,17 +1822,17 @@ public class WebServer {
     private void handleAdminItemRemove(Context ctx) {
         if (ctx.statusCode() == 401) return;
         Material mat = Material.matchMaterial(ctx.pathParam("item"));
-        if (mat == null || ShopDataManager.getBasePrice(mat) < 0) {
+        if (mat == null || catalog.snapshot().details(mat) == null) {
             ctx.status(404).json(Map.of("error", "Item not in shop"));
             return;
         }
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             ShopDataManager.setItemDisabled(mat, true);
             ShopDataManager.saveDynamicData();
-            invalidateShopItemsCache();
-        })) return;
-        auditLog.log(getAdminUsername(ctx), "item_remove", mat.name(), "Disabled/removed from shop");
-        ctx.json(Map.of("success", true));
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "item_remove", mat.name(), "Disabled/removed from shop");
+            ctx.json(Map.of("success", true));
+        });
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1888,7 +1935,7 @@ public class WebServer {
         }
 
         final Material finalMat = displayMat;
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             if ("group".equalsIgnoreCase(type)) {
                 plugin.getSpecialShopManager().addGroupItem(group, groupWorld, price, finalMat,
                         (requiredPerm != null && !requiredPerm.isBlank()) ? requiredPerm : null);
@@ -1899,11 +1946,11 @@ public class WebServer {
                 plugin.getSpecialShopManager().addPermissionItem(perm, permWorld, price, finalMat,
                         (requiredPerm != null && !requiredPerm.isBlank()) ? requiredPerm : null);
             }
-        })) return;
-
-        auditLog.log(getAdminUsername(ctx), "special_item_create", type,
-                "type=" + type + ", price=" + price);
-        ctx.json(Map.of("success", true));
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "special_item_create", type,
+                    "type=" + type + ", price=" + price);
+            ctx.json(Map.of("success", true));
+        });
     }
 
     /**
@@ -1923,7 +1970,7 @@ public class WebServer {
         try { body = ctx.bodyAsClass(Map.class); }
         catch (Exception e) { ctx.status(400).json(Map.of("error", "Invalid JSON")); return; }
 
-        if (!runSyncAdminTask(ctx, () -> {
+        submitAdminTask(ctx, () -> {
             if (body.containsKey("price")) {
                 double price = ((Number) body.get("price")).doubleValue();
                 plugin.getSpecialShopManager().updateItemPrice(id, price);
@@ -1939,10 +1986,10 @@ public class WebServer {
                 plugin.getSpecialShopManager().updateItemRequiredPermission(id,
                         (rp != null && !rp.isBlank()) ? rp : null);
             }
-        })) return;
-
-        auditLog.log(getAdminUsername(ctx), "special_item_update", id, body.toString());
-        ctx.json(Map.of("success", true));
+        }, () -> {
+            auditLog.log(getAdminUsername(ctx), "special_item_update", id, body.toString());
+            ctx.json(Map.of("success", true));
+        });
     }
 
     /**
@@ -1951,14 +1998,14 @@ public class WebServer {
     private void handleAdminSpecialItemDelete(Context ctx) {
         if (ctx.statusCode() == 401) return;
         String id = ctx.pathParam("id");
-        Boolean removed = callSyncAdminTask(ctx, () -> plugin.getSpecialShopManager().removeSpecialItem(id));
-        if (removed == null) return;
-        if (!removed) {
-            ctx.status(404).json(Map.of("error", "Special item not found: " + id));
-            return;
-        }
-        auditLog.log(getAdminUsername(ctx), "special_item_delete", id, "Deleted");
-        ctx.json(Map.of("success", true));
+        submitAdminCall(ctx, () -> plugin.getSpecialShopManager().removeSpecialItem(id), removed -> {
+            if (!removed) {
+                ctx.status(404).json(Map.of("error", "Special item not found: " + id));
+                return;
+            }
+            auditLog.log(getAdminUsername(ctx), "special_item_delete", id, "Deleted");
+            ctx.json(Map.of("success", true));
+        });
     }
 
     /**
@@ -1967,67 +2014,45 @@ public class WebServer {
     private void handleAdminPlayerShopDelete(Context ctx) {
         if (ctx.statusCode() == 401) return;
         String id = ctx.pathParam("id");
-        Boolean removed = callSyncAdminTask(ctx, () -> plugin.getPlayerShopManager().removeListing(id));
-        if (removed == null) return;
-        if (!removed) {
-            ctx.status(404).json(Map.of("error", "Listing not found: " + id));
-            return;
-        }
-        invalidateShopItemsCache();
-        auditLog.log(getAdminUsername(ctx), "playershop_delete", id, "Admin deleted player shop listing: " + id);
-        ctx.json(Map.of("success", true));
+        submitAdminCall(ctx, () -> plugin.getPlayerShopManager().removeListing(id), removed -> {
+            if (!removed) {
+                ctx.status(404).json(Map.of("error", "Listing not found: " + id));
+                return;
+            }
+            auditLog.log(getAdminUsername(ctx), "playershop_delete", id, "Admin deleted player shop listing: " + id);
+            ctx.json(Map.of("success", true));
+        });
     }
 
     /**
-     * Build the admin data map for a single material.
+     * Build the admin data map for a catalog entry. Special items and player
+     * shops have no admin state of their own and get neutral values.
      */
-    private Map<String, Object> buildAdminItemMap(Material mat) {
-        double basePrice = ShopDataManager.getBasePrice(mat);
-        double stock = ShopDataManager.getStock(mat);
-        double buyPrice = ShopDataManager.getPrice(mat);
-        double sellPrice = ShopDataManager.getSellPrice(mat);
-        ItemCategory category = ShopDataManager.detectCategory(mat);
-        double shortageHours = ShopDataManager.getHoursInShortage(mat);
-        double stockRate = ShopDataManager.getStockRate(mat);
-
-        // Calculate price increase %
-        double percentIncrease = ShopDataManager.getInflationIncreasePercent(shortageHours);
-        double maxPercent = (ConfigCacheManager.maxPriceMultiplier - 1.0) * 100.0;
-        if (percentIncrease > maxPercent) percentIncrease = maxPercent;
-
-        String imageUrl = "https://mc.nerothe.com/img/1.21/minecraft_" + mat.name().toLowerCase() + ".png";
-
-        // Fetch max limits directly from record if available, else retrieve from global defaults
-        Double maxStockConfig = null;
-        Integer maxStockStorageConfig = null;
-        try {
-            var itemConfig = ShopDataManager.itemConfigs.get(mat);
-            if (itemConfig != null) {
-                maxStockConfig = itemConfig.maxStock();
-                maxStockStorageConfig = itemConfig.maxStockStorage();
-            }
-        } catch (Exception ignored) {}
+    private Map<String, Object> buildAdminItemMap(ShopItemDTO entry, ShopCatalog.Snapshot snapshot) {
+        Material mat = entry.item().indexOf(':') < 0 ? Material.matchMaterial(entry.item()) : null;
+        ShopCatalog.ItemDetails details = mat != null ? snapshot.details(mat) : null;
 
         Map<String, Object> item = new LinkedHashMap<>();
-        item.put("item", mat.name());
-        String adminCustomName = ShopDataManager.getCustomName(mat);
-        item.put("displayName", adminCustomName != null ? adminCustomName : prettifyItemName(mat.name()));
-        item.put("customName", adminCustomName);
-        item.put("category", category.name());
-        item.put("categoryDisplayName", getCategoryDisplayName(category));
-        item.put("basePrice", basePrice);
-        item.put("buyPrice", buyPrice);
-        item.put("sellPrice", sellPrice);
-        item.put("stock", stock);
-        item.put("stockRate", stockRate);
-        item.put("maxStock", maxStockConfig);
-        item.put("maxStockStorage", maxStockStorageConfig);
-        item.put("shortageHours", shortageHours);
-        item.put("priceIncreasePercent", percentIncrease);
-        item.put("buyDisabled", ShopDataManager.isBuyDisabled(mat));
-        item.put("sellDisabled", ShopDataManager.isSellDisabled(mat));
-        item.put("disabled", ShopDataManager.isItemDisabled(mat));
-        item.put("imageUrl", imageUrl);
+        item.put("item", entry.item());
+        item.put("displayName", entry.displayName());
+        if (details != null) {
+            item.put("customName", details.customName());
+        }
+        item.put("category", entry.category());
+        item.put("categoryDisplayName", entry.categoryDisplayName());
+        item.put("basePrice", entry.basePrice());
+        item.put("buyPrice", entry.buyPrice());
+        item.put("sellPrice", entry.sellPrice());
+        item.put("stock", entry.stock());
+        item.put("stockRate", details != null ? details.stockRate() : 0.0);
+        item.put("maxStock", details != null ? details.maxStock() : null);
+        item.put("maxStockStorage", details != null ? details.maxStockStorage() : null);
+        item.put("shortageHours", details != null ? details.shortageHours() : 0.0);
+        item.put("priceIncreasePercent", details != null ? details.priceIncreasePercent() : 0.0);
+        item.put("buyDisabled", details != null && details.buyDisabled());
+        item.put("sellDisabled", details != null && details.sellDisabled());
+        item.put("disabled", details != null && details.disabled());
+        item.put("imageUrl", entry.imageUrl());
         return item;
     }
 
@@ -2048,7 +2073,7 @@ public class WebServer {
     // DTOs (Data Transfer Objects)
     // ═══════════════════════════════════════════════════════════════
 
-    private record TransactionDTO(
+    record TransactionDTO(
             String timestamp,
             String playerName,
             String type,
@@ -2075,6 +2100,14 @@ public class WebServer {
             int volume) {
     }
 
+    private record QuotedPricePoint(
+            String timestamp,
+            double buyPrice,
+            double sellPrice,
+            double stock,
+            double shortageHours) {
+    }
+
     private record LeaderboardEntry(
             String player,
             double spent,
@@ -2105,7 +2138,7 @@ public class WebServer {
             String category) {
     }
 
-    private record ShopItemDTO(
+    record ShopItemDTO(
             String item,
             String displayName,
             String category,
@@ -2117,6 +2150,11 @@ public class WebServer {
             String imageUrl) {
     }
 
+    private record PageDTO(
+            List<?> items,
+            String nextCursor) {
+    }
+
     private record RecentTrader(
             String playerName,
             String timestamp,
@@ -20,9 +20,65 @@ let categoryChart = null;
 document.addEventListener('DOMContentLoaded', () => {
     loadAllData();
     setupEventListeners();
-    setInterval(loadAllData, 30000); // Auto-refresh every 30 seconds
+    connectLiveFeed();
 });
 
+// ═══ LIVE UPDATES ═══
+// New trades are pushed over /api/live and the panels built from them are
+// reloaded shortly after. Without the live feed, everything is polled every
+// 30 seconds instead.
+let pollTimer = null;
+const refreshPanels = debounce(() => {
+    Promise.all([loadStats(), loadEconomyHealth(), loadLeaderboards(), loadTrends()])
+        .then(updateLastUpdateTime);
+}, 5000);
+
+function connectLiveFeed() {
+    if (!window.EventSource) {
+        startPolling();
+        return;
+    }
+
+    const source = new EventSource('/api/live?topics=trades');
+    source.addEventListener('hello', () => {
+        if (pollTimer) {
+            // Reconnected: catch up on anything missed while disconnected
+            stopPolling();
+            loadAllData();
+        }
+    });
+    source.addEventListener('trades', (e) => {
+        const trades = JSON.parse(e.data).reverse(); // newest first, like /api/recent
+        allTransactions = trades.concat(allTransactions).slice(0, 500);
+        applyTimeFilter();
+        renderTransactions();
+        updateInsights();
+        renderActivityChart();
+        updateLastUpdateTime();
+        refreshPanels();
+    });
+    source.addEventListener('resync', () => {
+        // The server dropped trades during a burst; the pushed list has a gap
+        loadAllData();
+    });
+    source.addEventListener('refused', () => {
+        source.close();
+        startPolling();
+    });
+    source.onerror = () => startPolling(); // EventSource keeps retrying by itself
+}
+
+function startPolling() {
+    if (!pollTimer) pollTimer = setInterval(loadAllData, 30000);
+}
+
+function stopPolling() {
+    if (pollTimer) {
+        clearInterval(pollTimer);
+        pollTimer = null;
+    }
+}
+
 // ═══ EVENT LISTENERS ═══
 function setupEventListeners() {
     // Search input
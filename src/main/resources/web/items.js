@@ -5,6 +5,7 @@
 
 // Global State
 let allItems = [];
+let itemIndex = new Map();
 let filteredItems = [];
 let categories = [];
 let currentCategory = '';
@@ -17,8 +18,49 @@ document.addEventListener('DOMContentLoaded', () => {
     loadItems();
     loadCategories();
     setupEventListeners();
+    connectLiveFeed();
 });
 
+// ═══ LIVE UPDATES ═══
+// Price, stock and catalog changes pushed over /api/live
+const renderSoon = debounce(filterAndRenderItems, 500);
+const reloadCategoriesSoon = debounce(() => loadCategories().then(() => selectCategory(currentCategory)), 2000);
+
+function connectLiveFeed() {
+    if (!window.EventSource) return;
+
+    let connected = false;
+    const source = new EventSource('/api/live?topics=prices,catalog');
+    source.addEventListener('hello', () => {
+        if (connected) loadItems(); // changes may have been missed while disconnected
+        connected = true;
+    });
+    source.addEventListener('price', (e) => {
+        const update = JSON.parse(e.data);
+        const item = itemIndex.get(update.item);
+        if (!item) return;
+        item.buyPrice = update.buyPrice;
+        item.sellPrice = update.sellPrice;
+        item.stock = update.stock;
+        renderSoon();
+    });
+    source.addEventListener('catalog', (e) => {
+        const update = JSON.parse(e.data);
+        const removed = new Set(update.removed);
+        allItems = allItems.filter(item => !removed.has(item.item));
+        for (const entry of update.updated) {
+            const index = allItems.findIndex(item => item.item === entry.item);
+            if (index >= 0) allItems[index] = entry;
+            else allItems.push(entry);
+        }
+        itemIndex = new Map(allItems.map(item => [item.item, item]));
+        document.getElementById('itemCount').textContent = allItems.length + ' items';
+        renderSoon();
+        reloadCategoriesSoon();
+    });
+    source.addEventListener('refused', () => source.close());
+}
+
 // ═══ EVENT LISTENERS ═══
 function setupEventListeners() {
     // Search input
@@ -63,6 +105,7 @@ async function loadItems() {
     try {
         const response = await fetch('/api/shop/items');
         allItems = await response.json();
+        itemIndex = new Map(allItems.map(item => [item.item, item]));
         document.getElementById('itemCount').textContent = allItems.length + ' items';
         filterAndRenderItems();
     } catch (error) {